@@ -0,0 +1,114 @@
+package com.v41.tp1.modele.nativebuilder;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.v41.tp1.R;
+
+/**
+ * Adapter displaying the rows of the table of a composition in a RecyclerView. Only the
+ * rows visible on the screen have a view, which is recycled when the list is scrolled or
+ * when the results of another formula are displayed. Must only be used on the main thread.
+ */
+public class CompositionAdapter extends RecyclerView.Adapter<CompositionAdapter.RowHolder>
+{
+    /**
+     * The theme of the results.
+     */
+    private final NativeTheme theme;
+
+    /**
+     * The rows displayed.
+     */
+    private CompositionRows rows = CompositionRows.EMPTY;
+
+    /**
+     * Constructor of the adapter.
+     *
+     * @param theme The theme of the results.
+     */
+    public CompositionAdapter(NativeTheme theme)
+    {
+        this.theme = theme;
+    }
+
+    /**
+     * Replaces the rows displayed.
+     *
+     * @param rows The rows of the new composition.
+     */
+    public void setRows(CompositionRows rows)
+    {
+        this.rows = rows;
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Creates the view of a row, from the layout composition_row.
+     *
+     * @param parent The RecyclerView.
+     * @param viewType The type of the row, always 0.
+     * @return The holder of the view.
+     */
+    @Override
+    public RowHolder onCreateViewHolder(ViewGroup parent, int viewType)
+    {
+        return new RowHolder(LayoutInflater.from(parent.getContext()).inflate(R.layout.composition_row, parent, false));
+    }
+
+    /**
+     * Displays a row in a recycled view.
+     *
+     * @param holder The holder of the view.
+     * @param position The position of the row.
+     */
+    @Override
+    public void onBindViewHolder(RowHolder holder, int position)
+    {
+        holder.itemView.setBackgroundColor(theme.getRowBackground(position));
+        holder.symbol.setText(rows.getSymbol(position));
+        holder.weight.setText(rows.getWeight(position));
+    }
+
+    /**
+     * Returns the number of rows displayed.
+     *
+     * @return The number of chemical elements.
+     */
+    @Override
+    public int getItemCount()
+    {
+        return rows.size();
+    }
+
+    /**
+     * Holder of the view of a row.
+     */
+    static class RowHolder extends RecyclerView.ViewHolder
+    {
+        /**
+         * The column of the symbol.
+         */
+        final TextView symbol;
+
+        /**
+         * The column of the atomic weight.
+         */
+        final TextView weight;
+
+        /**
+         * Constructor of the holder.
+         *
+         * @param itemView The view of the row.
+         */
+        RowHolder(View itemView)
+        {
+            super(itemView);
+            symbol = (TextView)itemView.findViewById(R.id.textView_symbol);
+            weight = (TextView)itemView.findViewById(R.id.textView_weight);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.v41.tp1.modele.nativebuilder;
+
+/**
+ * Class containing the rows of the table of a composition, as displayed: the symbol and
+ * the atomic weight of each chemical element, already converted to text so that the
+ * rows are never formatted again while the list is scrolled.
+ */
+public class CompositionRows
+{
+    /**
+     * A table without any row.
+     */
+    public static final CompositionRows EMPTY = new CompositionRows(new String[0], new String[0]);
+
+    /**
+     * The symbol of each chemical element, in alphabetical order.
+     */
+    private final String[] symbols;
+
+    /**
+     * The atomic weight of each chemical element, in the order of the #symbols.
+     */
+    private final String[] weights;
+
+    /**
+     * Constructor of the rows.
+     *
+     * @param symbols The symbol of each chemical element.
+     * @param weights The atomic weight of each chemical element.
+     */
+    public CompositionRows(String[] symbols, String[] weights)
+    {
+        this.symbols = symbols;
+        this.weights = weights;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return The number of chemical elements.
+     */
+    public int size()
+    {
+        return symbols.length;
+    }
+
+    /**
+     * Returns the symbol of the chemical element of a row.
+     *
+     * @param position The position of the row.
+     * @return The symbol of the chemical element.
+     */
+    public String getSymbol(int position)
+    {
+        return symbols[position];
+    }
+
+    /**
+     * Returns the atomic weight of the chemical element of a row.
+     *
+     * @param position The position of the row.
+     * @return The atomic weight, as displayed.
+     */
+    public String getWeight(int position)
+    {
+        return weights[position];
+    }
+}
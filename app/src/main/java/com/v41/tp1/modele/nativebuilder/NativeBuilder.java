@@ -0,0 +1,149 @@
+package com.v41.tp1.modele.nativebuilder;
+
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.style.RelativeSizeSpan;
+import android.text.style.SubscriptSpan;
+
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.modele.TokenStream;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class used to render the results of a valid formula with native widgets instead of a
+ * web page: the formula is a SpannableStringBuilder displayed by a TextView, and the
+ * composition is a list of rows displayed by a RecyclerView.
+ *
+ * The results are the same as those of the WebBuilder, without starting a WebView nor
+ * laying out html, which makes the first results faster to display and the heap of the
+ * app smaller. The results are built on the background thread of the Controller and only
+ * displayed on the main thread.
+ *      @see CompositionAdapter
+ */
+public class NativeBuilder
+{
+    /**
+     * The relative size of the NUMBER Tokens, which are smaller and subscript.
+     */
+    private static final float NUMBER_SIZE = 0.7f;
+
+    /**
+     * The separator between the formula and its weight.
+     */
+    private static final String WEIGHT_SEPARATOR = " = ";
+
+    /**
+     * The theme read by the spans of the formulas.
+     */
+    private final NativeTheme theme;
+
+    /**
+     * Constructor of the builder.
+     *
+     * @param theme The theme read by the spans of the formulas.
+     */
+    public NativeBuilder(NativeTheme theme)
+    {
+        this.theme = theme;
+    }
+
+    /**
+     * Accessor method for the theme read by the spans of the formulas.
+     *
+     * @return The theme of the results.
+     */
+    public NativeTheme getTheme()
+    {
+        return theme;
+    }
+
+    /**
+     * Builds the header of the results: the formula, each Token colored according to its
+     * type and each NUMBER Token subscript, followed by the weight of the formula.
+     * Consecutive Tokens of the same type share their spans.
+     *
+     * @param weight The total weight of the given chemical formula.
+     * @param formulaTokens The packed tokens of the given chemical formula.
+     * @return Returns the text of the header.
+     */
+    public CharSequence buildHeader(double weight, TokenStream formulaTokens)
+    {
+        SpannableStringBuilder header = new SpannableStringBuilder();
+        int runType = -1;
+        int runStart = 0;
+        int currentIndex = 0;
+
+        while(currentIndex <= formulaTokens.size() - 1)
+        {
+            long currentToken = formulaTokens.get(currentIndex);
+            int type = TokenStream.getType(currentToken);
+            int value = TokenStream.getValue(currentToken);
+            if(type != runType)
+            {
+                closeRun(header, runType, runStart);
+                runType = type;
+                runStart = header.length();
+            }
+            switch(type)
+            {
+                case TokenStream.CHEMICAL_ELEMENT_SYMBOL:
+                    header.append(PeriodicTable.INSTANCE.getSymbol(value));
+                    break;
+                case TokenStream.NUMBER:
+                    header.append(String.valueOf(value));
+                    break;
+                default:
+                    header.append(value == TokenStream.OPENING_PARENTHESIS ? '(' : ')');
+                    break;
+            }
+            ++currentIndex;
+        }
+        closeRun(header, runType, runStart);
+        header.append(WEIGHT_SEPARATOR).append(String.valueOf(weight));
+        return header;
+    }
+
+    /**
+     * Builds the rows of the table of the composition.
+     *
+     * @param composition TreeMap containing one of every chemical element included in the chemical formula.
+     * @return Returns the rows of the table, in alphabetical order.
+     */
+    public CompositionRows buildRows(TreeMap<String, Double> composition)
+    {
+        String[] symbols = new String[composition.size()];
+        String[] weights = new String[composition.size()];
+        int position = 0;
+        for(Map.Entry<String, Double> entry : composition.entrySet())
+        {
+            symbols[position] = entry.getKey();
+            weights[position] = String.valueOf(entry.getValue().doubleValue());
+            ++position;
+        }
+        return new CompositionRows(symbols, weights);
+    }
+
+    /**
+     * Internal method applying the spans of a run of Tokens of the same type.
+     *
+     * @param header The header being built.
+     * @param runType The type of the Tokens of the run, or -1 if there is no run.
+     * @param runStart The position in the header of the first character of the run.
+     */
+    private void closeRun(SpannableStringBuilder header, int runType, int runStart)
+    {
+        int runEnd = header.length();
+        if(runType < 0 || runEnd == runStart)
+        {
+            return;
+        }
+        header.setSpan(new TokenColorSpan(theme, runType), runStart, runEnd, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        if(runType == TokenStream.NUMBER)
+        {
+            header.setSpan(new SubscriptSpan(), runStart, runEnd, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            header.setSpan(new RelativeSizeSpan(NUMBER_SIZE), runStart, runEnd, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+    }
+}
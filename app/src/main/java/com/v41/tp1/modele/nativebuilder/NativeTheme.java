@@ -0,0 +1,112 @@
+package com.v41.tp1.modele.nativebuilder;
+
+import com.v41.tp1.modele.webbuilder.WebBuilderColor;
+
+/**
+ * Class holding the colors of the theme selected by the user, for the results rendered
+ * natively. The colors are the same as those of the stylesheet of the WebBuilder.
+ *
+ * The spans of a formula read the theme when they are drawn, so switching the theme only
+ * requires the results to be drawn again, the same way a web page only changes the class
+ * of its body. The theme must only be used on the main thread.
+ *      @see TokenColorSpan
+ */
+public class NativeTheme
+{
+    /**
+     * The colors of the Tokens in the color theme, indexed by Token type.
+     */
+    private static final int[] TOKEN_COLORS = {0xFF474747, 0xFF0091C4, 0xFFAFC4CC};
+
+    /**
+     * The color of the symbols of the table, in every theme.
+     */
+    public static final int SYMBOL_COLOR = 0xFF4A6570;
+
+    /**
+     * The background of the header of the table in the color theme.
+     */
+    private static final int HEADER_BACKGROUND = 0xFF114759;
+
+    /**
+     * The color of the header of the table in the color theme.
+     */
+    private static final int HEADER_COLOR = 0xFFA7D7E8;
+
+    /**
+     * The backgrounds of the odd and even rows of the table in the color theme.
+     */
+    private static final int[] ROW_BACKGROUNDS = {0xFF8CC4D8, 0xFFB3E0EF};
+
+    /**
+     * The color of the text of the monochrome theme.
+     */
+    private static final int MONOCHROME_COLOR = 0xFF000000;
+
+    /**
+     * Whether or not the color theme is selected.
+     */
+    private boolean color = true;
+
+    /**
+     * Selects the theme of the results.
+     *
+     * @param themeClass The CSS class of the theme, as given by WebBuilder.getThemeClass().
+     */
+    public void setThemeClass(String themeClass)
+    {
+        color = WebBuilderColor.THEME_CLASS.equals(themeClass);
+    }
+
+    /**
+     * Returns whether or not the color theme is selected.
+     *
+     * @return Returns true for the color theme, false for the monochrome theme.
+     */
+    public boolean isColor()
+    {
+        return color;
+    }
+
+    /**
+     * Returns the color of a Token of the formula.
+     *
+     * @param tokenType The type of the Token, one of the types of TokenStream.
+     * @return The color of the Token.
+     */
+    public int getTokenColor(int tokenType)
+    {
+        return color ? TOKEN_COLORS[tokenType] : MONOCHROME_COLOR;
+    }
+
+    /**
+     * Returns the background of the header of the table.
+     *
+     * @return The background color, transparent in the monochrome theme.
+     */
+    public int getHeaderBackground()
+    {
+        return color ? HEADER_BACKGROUND : 0;
+    }
+
+    /**
+     * Returns the color of the text of the header of the table.
+     *
+     * @return The color of the text.
+     */
+    public int getHeaderColor()
+    {
+        return color ? HEADER_COLOR : MONOCHROME_COLOR;
+    }
+
+    /**
+     * Returns the background of a row of the table, which alternates from one row to the next.
+     *
+     * @param position The position of the row, from 0.
+     * @return The background color, transparent in the monochrome theme.
+     */
+    public int getRowBackground(int position)
+    {
+        return color ? ROW_BACKGROUNDS[position % 2] : 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.v41.tp1.modele.nativebuilder;
+
+import android.text.TextPaint;
+import android.text.style.CharacterStyle;
+import android.text.style.UpdateAppearance;
+
+/**
+ * Span coloring the Tokens of a formula with the color of their type in the current theme.
+ * Unlike a ForegroundColorSpan, the color is read from the theme every time the text is
+ * drawn, so the formula does not have to be built again when the theme is changed.
+ */
+public class TokenColorSpan extends CharacterStyle implements UpdateAppearance
+{
+    /**
+     * The theme of the results.
+     */
+    private final NativeTheme theme;
+
+    /**
+     * The type of the Tokens covered by the span, one of the types of TokenStream.
+     */
+    private final int tokenType;
+
+    /**
+     * Constructor of the span.
+     *
+     * @param theme The theme of the results.
+     * @param tokenType The type of the Tokens covered by the span.
+     */
+    public TokenColorSpan(NativeTheme theme, int tokenType)
+    {
+        this.theme = theme;
+        this.tokenType = tokenType;
+    }
+
+    /**
+     * Applies the color of the Tokens to the text being drawn.
+     *
+     * @param textPaint The paint of the text.
+     */
+    @Override
+    public void updateDrawState(TextPaint textPaint)
+    {
+        textPaint.setColor(theme.getTokenColor(tokenType));
+    }
+}
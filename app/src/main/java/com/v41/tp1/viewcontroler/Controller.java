@@ -1,10 +1,24 @@
 package com.v41.tp1.viewcontroler;
 
+import com.v41.tp1.modele.CachedFormula;
 import com.v41.tp1.modele.ChemicalComposition;
+import com.v41.tp1.modele.ElementSuggester;
+import com.v41.tp1.modele.FormulaCache;
+import com.v41.tp1.modele.FormulaResult;
+import com.v41.tp1.modele.MultiplierOverflowException;
 import com.v41.tp1.modele.PeriodicTable;
-import com.v41.tp1.viewcontroler.portal.ViewPortal;
+import com.v41.tp1.modele.PeriodicTableLoadResult;
+import com.v41.tp1.modele.PeriodicTableLoader;
+import com.v41.tp1.modele.nativebuilder.CompositionRows;
+import com.v41.tp1.modele.nativebuilder.NativeBuilder;
+import com.v41.tp1.modele.webbuilder.WebBuilder;
+import com.v41.tp1.modele.webbuilder.WebBuilderColor;
 
 import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -30,9 +44,10 @@ public enum Controller {
      * The view as well as the model are instantiated in the Controller class
      * to offer maximum control to the Controller.
      * <p>
-     * This represents the main instance of the view.
+     * This represents the main instance of the view. It is read by the background
+     * thread, and replaced when the view is created again.
      */
-    private View view;
+    private volatile View view;
 
     /**
      * This represents the main instance of the model.
@@ -42,16 +57,104 @@ public enum Controller {
     private ChemicalComposition chemicalComposition;
 
     /**
-     * This represents the response sent from the ChemicalValidator class
-     * to the view concerning the detailed results of the validation operation.
-     * <p>
-     * The response is in the form of a string, which is contained in a
-     * Wrapper class to allow the response to be returned without passing through
-     * a method's "return".
+     * The results and update scripts of the formulas recently entered by the user, so that
+     * a formula entered again is neither recalculated nor rendered again.
+     *
+     * @see FormulaCache
+     */
+    private FormulaCache formulaCache;
+
+    /**
+     * Validates the formula while the user types it, resuming from the unchanged
+     * beginning of the formula after each edit.
+     *
+     * @see IncrementalValidator
+     */
+    private IncrementalValidator incrementalValidator;
+
+    /**
+     * Suggests the chemical elements the user may be typing, ranked by the formulas
+     * calculated by the user.
+     *
+     * @see ElementSuggester
+     */
+    private ElementSuggester elementSuggester;
+
+    /**
+     * The background thread on which the formulas are validated, calculated and rendered,
+     * so that the main thread never waits for them. Every access to the model goes
+     * through this single thread.
+     */
+    private ExecutorService worker;
+
+    /**
+     * The outcome of the loading of the periodic table, set by the background thread once
+     * the periodic table is loaded. Until then, the formulas typed are not validated.
+     */
+    private volatile PeriodicTableLoadResult periodicTable;
+
+    /**
+     * Whether or not a formula was typed before the periodic table was loaded, in which
+     * case the IncrementalValidator did not see it and the next formula is validated from
+     * its first character. Only used by the main thread.
+     */
+    private boolean typedWhileLoading;
+
+    /**
+     * The number of formulas submitted by the view. The result of a formula is only
+     * displayed if no other formula was submitted after it.
+     */
+    private final AtomicLong requestGeneration = new AtomicLong();
+
+    /**
+     * The task of the last formula submitted, cancelled if a newer formula is submitted
+     * before it starts.
+     */
+    private Future<?> pendingRequest;
+
+    /**
+     * The builder of the results displayed with native widgets, or null if the results
+     * are displayed as web pages.
+     *
+     * @see #setNativeBuilder(NativeBuilder)
+     */
+    private volatile NativeBuilder nativeBuilder;
+
+    /**
+     * The CSS class of the theme selected by the user, read by a view created again.
+     */
+    private volatile String themeClass;
+
+    /**
+     * The validation message of the results most recently handed to the view, or null if
+     * there are none. The results are kept by the Controller, which lives as long as the
+     * process, so that a view created again after a rotation of the device displays them
+     * without calculating nor rendering anything. Only accessed on the background thread.
+     *
+     * @see #restoreResult()
+     */
+    private String lastMessage;
+
+    /**
+     * The script updating the page shell most recently handed to the view.
+     *
+     * @see #lastMessage
+     */
+    private String lastPage;
+
+    /**
+     * The header of the native results most recently handed to the view.
      *
-     * @see StringWrapper
+     * @see #lastMessage
      */
-    private StringWrapper responseToUser;
+    private CharSequence lastHeader;
+
+    /**
+     * The rows of the native results most recently handed to the view.
+     *
+     * @see #lastMessage
+     */
+    private CompositionRows lastRows;
 
     /**
      * Constructor for the class Controller. This constructor is private
@@ -62,44 +165,405 @@ public enum Controller {
     }
 
     /**
-     * Initialises all of the classes necessary attributes once when the application
-     * is first launched.
+     * Same as #initialise(View), but also starts loading the periodic table in the
+     * background, if it was not started by the application yet.
      *
      * @param view represents the interface through which the user will interact with
      *             the rest of the application.
      * @param inputStream represents a file containing all details of the periodic table.
+     *                    It is not parsed if the loading was already started.
      */
     public void initialise(View view, InputStream inputStream) {
+        PeriodicTableLoader.INSTANCE.start(inputStream);
+        initialise(view);
+    }
+
+    /**
+     * Initialises all of the classes necessary attributes once when the application
+     * is first launched. A view created again afterwards, such as after a rotation of the
+     * device, is given to #attach(View) instead.
+     * <p>
+     * The periodic table is loaded in the background by the PeriodicTableLoader, started
+     * with the process, and is only waited for by the background thread. The view is asked
+     * to validate its formula again once the periodic table is loaded.
+     *
+     * @param view represents the interface through which the user will interact with
+     *             the rest of the application.
+     */
+    public void initialise(View view) {
+        this.view = view;
+        lastMessage = null;
+        themeClass = WebBuilderColor.THEME_CLASS;
+        formulaCache = new FormulaCache();
+        incrementalValidator = new IncrementalValidator();
+        elementSuggester = new ElementSuggester();
+        nativeBuilder = null;
+        periodicTable = null;
+        typedWhileLoading = false;
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+        worker = Executors.newSingleThreadExecutor();
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                periodicTable = PeriodicTableLoader.INSTANCE.await();
+                Controller.this.view.revalidateFormula();
+            }
+        });
+        // The results are rendered by the Controller, so the model notifies no view.
+        chemicalComposition = new ChemicalComposition();
+    }
+
+    /**
+     * Returns whether or not the Controller was initialised during this process, in which
+     * case the model, the cache and the last results are still available.
+     *
+     * @return returns true if #initialise(View, InputStream) was called, else false.
+     */
+    public boolean isInitialised() {
+        return chemicalComposition != null;
+    }
+
+    /**
+     * Gives a view created again, such as after a rotation of the device, to the
+     * Controller. The model, the cache and the last results are kept, and the results
+     * of the formulas still being calculated are handed to the new view.
+     *
+     * @param view represents the new interface through which the user will interact with
+     *             the rest of the application.
+     */
+    public void attach(View view) {
         this.view = view;
-        responseToUser = new StringWrapper();
-        chemicalComposition = new ChemicalComposition(this.view);
-        PeriodicTable.INSTANCE.loadPeriodicTable(inputStream);
     }
 
     /**
      * Intermediary method called by the view after the user asks for his inputted
-     * formula to be validated. This method calls the methods which will validate
-     * the formula. If the formula is valid, the Tokens generated by the validation
-     * step will be sent to the model for further treatment.
+     * formula to be validated. The formula is validated, calculated and rendered on the
+     * background thread, so the view is never blocked, and the model, the cache and the
+     * incremental state are only touched by that thread. The results are handed to the
+     * view, which displays them on the main thread.
+     * <p>
+     * A formula found in the #formulaCache is not validated again: the model is
+     * restored from the cached result and the cached update script is sent to the view.
+     * <p>
+     * A formula submitted while another one is waiting replaces it, and the result of a
+     * formula already being calculated is dropped, so only the last formula submitted
+     * is displayed.
+     *
+     * @param chemicalFormula represents the user's input which requires validation.
+     */
+    public void submitUserInput(final String chemicalFormula) {
+        final long generation = requestGeneration.incrementAndGet();
+        if (pendingRequest != null) {
+            pendingRequest.cancel(false);
+        }
+        pendingRequest = worker.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (!isCurrentRequest(generation)) {
+                    return;
+                }
+                CachedFormula cachedFormula = calculate(chemicalFormula);
+                if (isCurrentRequest(generation)) {
+                    deliver(generation, cachedFormula);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends the shell of the web page to the view, which loads it once. Each result then
+     * only sends a script updating the parts of the page that changed, so the page is
+     * never loaded again.
+     */
+    public void loadShell() {
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                view.showShell(chemicalComposition.getPageShell());
+            }
+        });
+    }
+
+    /**
+     * Chooses whether the results are displayed as web pages or with native widgets. The
+     * native results are built on the background thread, as a formatted header and the
+     * rows of the composition, and the view never starts a WebView.
+     *
+     * @param nativeBuilder represents the builder of the native results, or null for web pages.
+     */
+    public void setNativeBuilder(NativeBuilder nativeBuilder) {
+        if (nativeBuilder == this.nativeBuilder) {
+            return;
+        }
+        this.nativeBuilder = nativeBuilder;
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                // The cached update scripts are only rendered when the results are web pages.
+                formulaCache.clear();
+                lastMessage = null;
+            }
+        });
+    }
+
+    /**
+     * Accessor method for the builder of the native results, which is kept when the view
+     * is created again so that the results already built keep reading its theme.
+     *
+     * @return returns the builder of the native results, or null if the results are web pages.
+     */
+    public NativeBuilder getNativeBuilder() {
+        return nativeBuilder;
+    }
+
+    /**
+     * Hands the last results to the view again, without calculating nor rendering them.
+     * Called by a view created again, such as after a rotation of the device.
+     */
+    public void restoreResult() {
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (lastMessage != null) {
+                    showLastResult(requestGeneration.get());
+                }
+            }
+        });
+    }
+
+    /**
+     * Forgets the last results, after the view was cleared by the user, so they are not
+     * displayed again by #restoreResult().
+     */
+    public void clearResult() {
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                lastMessage = null;
+            }
+        });
+    }
+
+    /**
+     * Internal method handing the results of a formula to the view, as a script updating
+     * the page shell or as native results.
+     *
+     * @param generation represents the number of the formula.
+     * @param cachedFormula represents the result of the formula and its update script.
+     */
+    private void deliver(long generation, CachedFormula cachedFormula) {
+        FormulaResult result = cachedFormula.getResult();
+        NativeBuilder nativeBuilder = this.nativeBuilder;
+        lastMessage = result.getMessage();
+        if (nativeBuilder != null) {
+            boolean valid = result.isValid();
+            lastHeader = valid ? nativeBuilder.buildHeader(chemicalComposition.getWeight(),
+                    chemicalComposition.getFormulaTokens()) : null;
+            lastRows = valid ? nativeBuilder.buildRows(chemicalComposition.getSortedComposition()) : null;
+        }
+        else {
+            lastPage = result.isValid() ? cachedFormula.getUpdateScript() : WebBuilder.CLEAR_SCRIPT;
+        }
+        showLastResult(generation);
+    }
+
+    /**
+     * Internal method handing the last results to the view, in the form chosen by the view.
+     *
+     * @param generation represents the number of the formula.
+     */
+    private void showLastResult(long generation) {
+        if (nativeBuilder != null) {
+            view.showNativeResult(generation, lastMessage, lastHeader, lastRows);
+        }
+        else {
+            view.updateResult(generation, lastMessage, lastPage);
+        }
+    }
+
+    /**
+     * Returns whether or not a formula is the last one submitted by the view.
+     *
+     * @param generation represents the number of the formula, given by #submitUserInput(String).
+     * @return returns true if no formula was submitted after it, else false.
+     */
+    public boolean isCurrentRequest(long generation) {
+        return generation == requestGeneration.get();
+    }
+
+    /**
+     * Intermediary method called by the view every time the user edits the formula,
+     * to give feedback before the formula is calculated. Only the formula from the
+     * first changed character onward is validated again.
+     * <p>
+     * The main thread never waits for the periodic table: while it is loading, the
+     * formula is not validated, and the view validates it again once it is loaded.
+     *
+     * @param chemicalFormula represents the whole formula after the edit.
+     * @param firstChangedIndex represents the position of the first changed character.
+     * @return returns the results of the validation operation, or null if the periodic
+     *         table is not loaded yet.
+     */
+    public String validateAsTyped(CharSequence chemicalFormula, int firstChangedIndex) {
+        PeriodicTableLoadResult periodicTable = this.periodicTable;
+        if (periodicTable == null) {
+            typedWhileLoading = true;
+            return null;
+        }
+        if (!periodicTable.isSuccessful()) {
+            return ChemicalValidator.INSTANCE.getErrorMessage(11);
+        }
+        if (typedWhileLoading) {
+            typedWhileLoading = false;
+            firstChangedIndex = 0;
+        }
+        incrementalValidator.update(chemicalFormula, firstChangedIndex);
+        return incrementalValidator.getMessage();
+    }
+
+    /**
+     * Intermediary method called by the view every time the user edits the formula, to
+     * suggest the chemical elements the user may be typing before the cursor. Nothing is
+     * allocated, so it can be called on every keystroke.
+     *
+     * @param chemicalFormula represents the whole formula after the edit.
+     * @param cursor represents the position of the cursor in the formula.
+     * @param suggestions represents the array receiving the positions in the periodic table
+     *                    of the suggested elements, best first.
+     * @return returns the number of suggestions, 0 if the periodic table is not loaded yet.
+     * @see #getSuggestionStart()
+     */
+    public int suggestElements(CharSequence chemicalFormula, int cursor, int[] suggestions) {
+        return elementSuggester.suggest(chemicalFormula, cursor, suggestions);
+    }
+
+    /**
+     * Returns the position in the formula of the first letter replaced by the symbol of
+     * a suggestion of the last call to #suggestElements(CharSequence, int, int[]).
+     *
+     * @return returns the position of the first replaced letter.
+     */
+    public int getSuggestionStart() {
+        return elementSuggester.getReplacementStart();
+    }
+
+    /**
+     * Accessor method for the symbol of a suggested element, which replaces the letters
+     * typed by the user.
+     *
+     * @param noElement represents the position of the element in the periodic table.
+     * @return returns the symbol of the element.
+     */
+    public String getElementSymbol(int noElement) {
+        return PeriodicTable.INSTANCE.getSymbol(noElement);
+    }
+
+    /**
+     * Accessor method for the name of a suggested element, in the language of the device.
+     *
+     * @param noElement represents the position of the element in the periodic table.
+     * @return returns the name of the element.
+     */
+    public String getElementName(int noElement) {
+        return PeriodicTable.INSTANCE.getName(noElement);
+    }
+
+    /**
+     * Internal method calculating a formula, or restoring the model from the #formulaCache
+     * if the formula was entered recently.
      *
      * @param chemicalFormula represents the user's input which requires validation.
-     * @return returns the results of the validation operation.
+     * @return returns the result of the evaluation and its update script.
      */
-    public String processUserInput(String chemicalFormula) {
-        responseToUser.content = "The chemical formula is valid.";
-        if (ChemicalValidator.INSTANCE.validateChemicalFormula(chemicalFormula, responseToUser)) {
-            chemicalComposition.initialise(ChemicalValidator.INSTANCE.getFormulaTokens());
+    private CachedFormula calculate(String chemicalFormula) {
+        PeriodicTableLoadResult periodicTable = PeriodicTableLoader.INSTANCE.await();
+        if (!periodicTable.isSuccessful()) {
+            return new CachedFormula(new FormulaResult(chemicalFormula, 11, 0,
+                    ChemicalValidator.INSTANCE.getErrorMessage(11)), null);
+        }
+        CachedFormula cachedFormula = formulaCache.get(chemicalFormula);
+        if (cachedFormula == null) {
+            cachedFormula = evaluate(chemicalFormula);
+            formulaCache.put(chemicalFormula, cachedFormula);
         }
-        return responseToUser.content;
+        else if (cachedFormula.getResult().isValid()) {
+            chemicalComposition.restore(cachedFormula.getResult());
+        }
+        elementSuggester.recordFormula(cachedFormula.getResult());
+        return cachedFormula;
     }
 
     /**
-     * Method called when the theme is changed via the radioGroup.
+     * Internal method validating a formula and, if it is valid, sending it to the model,
+     * then rendering the script updating the page shell. The model only calculates the
+     * part of the formula edited since the previous calculation.
+     *
+     * @param chemicalFormula represents the user's input which requires validation.
+     * @return returns the result of the evaluation and its update script.
+     */
+    private CachedFormula evaluate(String chemicalFormula) {
+        ValidationResult validationResult = ChemicalValidator.INSTANCE.validate(chemicalFormula);
+        if (!validationResult.isValid()) {
+            return new CachedFormula(new FormulaResult(chemicalFormula, validationResult.getErrorCode(),
+                    validationResult.getErrorPosition(), validationResult.getMessage()), null);
+        }
+        try {
+            chemicalComposition.update(validationResult.getTokenStream());
+        }
+        catch (MultiplierOverflowException e) {
+            return new CachedFormula(new FormulaResult(chemicalFormula, 10, e.getPosition(),
+                    ChemicalValidator.INSTANCE.getErrorMessage(10)), null);
+        }
+        FormulaResult result = new FormulaResult(chemicalFormula, validationResult.getTokenStream(),
+                chemicalComposition.getElementComposition(), validationResult.getMessage());
+        // The native results have no page.
+        return new CachedFormula(result, nativeBuilder == null ? chemicalComposition.getUpdateScript() : null);
+    }
+
+    /**
+     * Accessor method for the cache of the formulas entered by the user, whose
+     * counters allow its size to be adjusted.
+     *
+     * @return The formula cache.
+     */
+    public FormulaCache getFormulaCache() {
+        return formulaCache;
+    }
+
+    /**
+     * Accessor method for the theme selected by the user, which a view created again
+     * applies before receiving any result.
+     *
+     * @return The CSS class of the theme.
+     */
+    public String getThemeClass() {
+        return themeClass;
+    }
+
+    /**
+     * Method called when the theme is changed via the radioGroup. The results already
+     * rendered are kept, since the view switches the theme of its page by itself.
+     * <p>
+     * Nothing is done if the theme is already selected, such as when the radioGroup of a
+     * view created again after a rotation of the device restores its selection.
      *
      * @param themeId The id of the desired theme.
      */
-    public void changeTheme(int themeId)
+    public void changeTheme(final int themeId)
     {
-        chemicalComposition.changeTheme(themeId);
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                chemicalComposition.changeTheme(themeId);
+                String newThemeClass = chemicalComposition.getThemeClass();
+                if (newThemeClass.equals(themeClass)) {
+                    return;
+                }
+                themeClass = newThemeClass;
+                view.applyTheme(themeClass);
+            }
+        });
     }
 }
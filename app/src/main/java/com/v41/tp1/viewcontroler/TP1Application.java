@@ -0,0 +1,53 @@
+package com.v41.tp1.viewcontroler;
+
+import android.app.Application;
+import android.content.res.Configuration;
+
+import com.v41.tp1.R;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.modele.PeriodicTableLoader;
+
+import java.util.Locale;
+
+/**
+ * This class represents the application process. It starts loading the periodic table
+ * on a background thread as soon as the process starts, before any activity is created,
+ * so that parsing the file is not part of the startup of the View.
+ *
+ * The periodic table is read from the English file. The French file only provides the
+ * names of the elements, which are used when the language of the device is French.
+ *      @see PeriodicTableLoader
+ */
+public class TP1Application extends Application
+{
+    /**
+     * The language of the names of the file tableauperiodique.
+     */
+    private static final String FRENCH = "fr";
+
+    /**
+     * This event is called when the process starts, before the View is created.
+     */
+    @Override
+    public void onCreate()
+    {
+        super.onCreate();
+        PeriodicTable.INSTANCE.setLocale(Locale.getDefault().getLanguage());
+        PeriodicTableLoader.INSTANCE.start(getResources().openRawResource(R.raw.periodictable));
+        PeriodicTableLoader.INSTANCE.startNames(FRENCH, getResources().openRawResource(R.raw.tableauperiodique));
+    }
+
+    /**
+     * This event is called when the configuration of the device changes, such as its
+     * language. Only the names of the elements are switched: the periodic table is not
+     * loaded again.
+     *
+     * @param newConfig The new configuration of the device.
+     */
+    @Override
+    public void onConfigurationChanged(Configuration newConfig)
+    {
+        super.onConfigurationChanged(newConfig);
+        PeriodicTable.INSTANCE.setLocale(Locale.getDefault().getLanguage());
+    }
+}
@@ -1,26 +1,36 @@
 package com.v41.tp1.viewcontroler;
 
+import android.app.ActivityManager;
 import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.ViewStub;
 import android.view.inputmethod.InputMethodManager;
 import android.webkit.WebView;
+import android.webkit.WebViewClient;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.LinearLayout;
 import android.widget.RadioButton;
 import android.widget.RadioGroup;
 import android.widget.TextView;
 
 import com.v41.tp1.R;
-import com.v41.tp1.modele.portal.ModelPortal;
-import com.v41.tp1.viewcontroler.portal.ViewPortal;
-
-import java.io.InputStream;
+import com.v41.tp1.modele.nativebuilder.CompositionAdapter;
+import com.v41.tp1.modele.nativebuilder.CompositionRows;
+import com.v41.tp1.modele.nativebuilder.NativeBuilder;
+import com.v41.tp1.modele.nativebuilder.NativeTheme;
+import com.v41.tp1.modele.webbuilder.WebBuilder;
+import com.v41.tp1.modele.webbuilder.WebBuilderColor;
 
 /**
  * This class represents both the functional and visual aspects of the interface
  * through which the user will interact with the program.
  */
-public class View extends AppCompatActivity implements ViewPortal
+public class View extends AppCompatActivity
 {
     /**
      * The theme radioGroup.
@@ -42,6 +52,11 @@ public class View extends AppCompatActivity implements ViewPortal
      */
     EditText editTextUserFormulaInput = null;
 
+    /**
+     * The buttons suggesting the chemical elements the user may be typing, best first.
+     */
+    Button[] buttonSuggestions = null;
+
     /**
      * The confirmation textView. Will contain a variety of messages to the user, such
      * as aa welcome message, instructions, and messages detailing the results of
@@ -51,9 +66,31 @@ public class View extends AppCompatActivity implements ViewPortal
 
     /**
      * The webView. Will contain the formatted output from the user's validated formula.
+     * Only inflated when the results are displayed as web pages.
      */
     WebView webViewFormattedResults = null;
 
+    /**
+     * The native results, containing the header, the table header and the table. Only
+     * inflated instead of the webView when the results are displayed natively.
+     */
+    android.view.View nativeFormattedResults = null;
+
+    /**
+     * The header of the native results. Will contain the formatted formula and its weight.
+     */
+    TextView textViewFormulaHeader = null;
+
+    /**
+     * The header of the table of the native results.
+     */
+    LinearLayout linearLayoutTableHeader = null;
+
+    /**
+     * The adapter of the table of the native results.
+     */
+    CompositionAdapter compositionAdapter = null;
+
     /**
      * The mimetype of a webpage. Used when loading data into the webView.
      */
@@ -77,6 +114,41 @@ public class View extends AppCompatActivity implements ViewPortal
      */
     protected String webViewContent;
 
+    /**
+     * The CSS class of the theme selected by the user, applied to the body of every page
+     * loaded into the webView.
+     */
+    protected String themeClass = WebBuilderColor.THEME_CLASS;
+
+    /**
+     * Whether or not the results are displayed with native widgets instead of a webView.
+     * Chosen on low-RAM devices, where starting a webView is the slowest part of the first
+     * result and takes most of the heap of the app.
+     */
+    protected boolean nativeRendering = false;
+
+    /**
+     * The theme of the native results, read every time they are drawn. Kept by the
+     * NativeBuilder of the Controller when the view is created again.
+     */
+    private NativeTheme nativeTheme = null;
+
+    /**
+     * The positions in the periodic table of the suggested elements, reused on every
+     * keystroke so that suggesting elements allocates nothing.
+     */
+    private int[] suggestions;
+
+    /**
+     * Whether or not the page shell has finished loading, so that its scripts can be run.
+     */
+    private boolean shellReady = false;
+
+    /**
+     * The last update script received before the page shell finished loading.
+     */
+    private String pendingUpdateScript;
+
     /**
      * This event is called when the app is first opened. In it we call all initialization sequences
      * for the app.
@@ -87,26 +159,95 @@ public class View extends AppCompatActivity implements ViewPortal
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        InputStream inputStream = this.getResources().openRawResource(R.raw.periodictable);
-        Controller.INSTANCE.initialise(this, inputStream);
+        /**
+         * The periodic table is loaded in the background since the start of the process, and
+         * the model and the last results are kept by the Controller for the whole process, so
+         * a view created again after a rotation of the device does not calculate anything.
+         */
+        if(Controller.INSTANCE.isInitialised())
+        {
+            Controller.INSTANCE.attach(this);
+        }
+        else
+        {
+            Controller.INSTANCE.initialise(this);
+        }
+        themeClass = Controller.INSTANCE.getThemeClass();
 
         radioGroupTheme = (RadioGroup)findViewById(R.id.radioGroup_theme);
         buttonCalculate = (Button)findViewById(R.id.button_calculate);
         buttonClear = (Button)findViewById(R.id.button_clean);
         editTextUserFormulaInput = (EditText)findViewById(R.id.editText_userFormulaInput);
         textViewConfirmationMessage = (TextView)findViewById(R.id.textView_confirmationMessage);
-        webViewFormattedResults = (WebView)findViewById(R.id.webView_formattedResults);
+        buttonSuggestions = new Button[4];
+        buttonSuggestions[0] = (Button)findViewById(R.id.button_suggestion0);
+        buttonSuggestions[1] = (Button)findViewById(R.id.button_suggestion1);
+        buttonSuggestions[2] = (Button)findViewById(R.id.button_suggestion2);
+        buttonSuggestions[3] = (Button)findViewById(R.id.button_suggestion3);
+        suggestions = new int[buttonSuggestions.length];
 
-        interfaceMessages = new String[4];
+        interfaceMessages = new String[5];
         interfaceMessages[0] = ""; // No message when the program starts.
         interfaceMessages[1] = "Welcome to the TP1 prototype program.";
         interfaceMessages[2] = "Please enter a chemical formula: ";
         interfaceMessages[3] = "Goodbye!";
+        interfaceMessages[4] = "Loading the periodic table...";
 
         webViewContent = "";
 
         textViewConfirmationMessage.setText(interfaceMessages[1]);
 
+        ActivityManager activityManager = (ActivityManager)getSystemService(ACTIVITY_SERVICE);
+        nativeRendering = activityManager.isLowRamDevice();
+        ViewStub viewStubFormattedResults = (ViewStub)findViewById(R.id.formattedResults);
+        if(nativeRendering)
+        {
+            viewStubFormattedResults.setLayoutResource(R.layout.results_native);
+            nativeFormattedResults = viewStubFormattedResults.inflate();
+            textViewFormulaHeader = (TextView)findViewById(R.id.textView_formulaHeader);
+            linearLayoutTableHeader = (LinearLayout)findViewById(R.id.linearLayout_tableHeader);
+            NativeBuilder nativeBuilder = Controller.INSTANCE.getNativeBuilder();
+            if(nativeBuilder == null)
+            {
+                nativeBuilder = new NativeBuilder(new NativeTheme());
+                Controller.INSTANCE.setNativeBuilder(nativeBuilder);
+            }
+            nativeTheme = nativeBuilder.getTheme();
+            compositionAdapter = new CompositionAdapter(nativeTheme);
+            RecyclerView recyclerViewComposition = (RecyclerView)findViewById(R.id.recyclerView_composition);
+            recyclerViewComposition.setLayoutManager(new LinearLayoutManager(this));
+            recyclerViewComposition.setAdapter(compositionAdapter);
+            applyNativeTheme();
+        }
+        else
+        {
+            webViewFormattedResults = (WebView)viewStubFormattedResults.inflate();
+
+            /**
+             * The theme of a page is switched by a script changing the class of its body, which is
+             * also run once each page is loaded, in case it was rendered before a theme change.
+             */
+            webViewFormattedResults.getSettings().setJavaScriptEnabled(true);
+            webViewFormattedResults.setWebViewClient(new WebViewClient()
+            {
+                @Override
+                public void onPageFinished(WebView webView, String url)
+                {
+                    applyThemeClass();
+                    if(!shellReady)
+                    {
+                        shellReady = true;
+                        if(pendingUpdateScript != null)
+                        {
+                            webViewFormattedResults.evaluateJavascript(pendingUpdateScript, null);
+                            pendingUpdateScript = null;
+                        }
+                    }
+                }
+            });
+            Controller.INSTANCE.loadShell();
+        }
+
         /**
          * Anonymous class to set a listener on the calculate button.
          */
@@ -115,15 +256,14 @@ public class View extends AppCompatActivity implements ViewPortal
             /**
              * This method is called when the calculate button is pressed.
              * It is assumed that by pressing this button the user has finished typing his formula,
-             * therefore the softkeyboard is hidden.
+             * therefore the softkeyboard is hidden. The formula is calculated in the background,
+             * and its results are displayed by #updateResult.
              *
              * @param view The main activity.
              */
             @Override
             public void onClick(android.view.View view)
             {
-                webViewContent = "";
-                webViewFormattedResults.loadUrl("about:blank");
                 /**
                  * Keyboard hiding method taken from here:
                  *      @link https://stackoverflow.com/questions/1109022/close-hide-the-android-soft-keyboard
@@ -131,8 +271,7 @@ public class View extends AppCompatActivity implements ViewPortal
                 InputMethodManager inputMethodManager = (InputMethodManager) getApplicationContext().getSystemService(INPUT_METHOD_SERVICE);
                 inputMethodManager.hideSoftInputFromWindow(view.getWindowToken(), 0);
 
-                interfaceMessages[0] = Controller.INSTANCE.processUserInput(editTextUserFormulaInput.getText().toString());
-                textViewConfirmationMessage.setText(interfaceMessages[0]);
+                Controller.INSTANCE.submitUserInput(editTextUserFormulaInput.getText().toString());
             }
         });
 
@@ -153,8 +292,15 @@ public class View extends AppCompatActivity implements ViewPortal
                 InputMethodManager inputMethodManager = (InputMethodManager) getApplicationContext().getSystemService(INPUT_METHOD_SERVICE);
                 inputMethodManager.hideSoftInputFromWindow(view.getWindowToken(), 0);
                 editTextUserFormulaInput.setText("");
-                webViewContent = "";
-                webViewFormattedResults.loadUrl("about:blank");
+                Controller.INSTANCE.clearResult();
+                if(nativeRendering)
+                {
+                    showNativeResult(null, null);
+                }
+                else
+                {
+                    runUpdateScript(WebBuilder.CLEAR_SCRIPT);
+                }
                 textViewConfirmationMessage.setText(interfaceMessages[2]);
             }
         });
@@ -178,6 +324,75 @@ public class View extends AppCompatActivity implements ViewPortal
                 }
             }
         });
+
+        /**
+         * Anonymous class to validate the formula while the user types it.
+         */
+        editTextUserFormulaInput.addTextChangedListener(new TextWatcher()
+        {
+            @Override
+            public void beforeTextChanged(CharSequence formula, int start, int count, int after)
+            {
+            }
+
+            /**
+             * This method is called after every edit of the formula. The formula is only
+             * validated again from the first changed character, so the feedback stays
+             * immediate even for very long formulas. The elements the user may be typing
+             * are then suggested.
+             *
+             * @param formula The formula after the edit.
+             * @param start The position of the first changed character.
+             * @param before The number of characters replaced.
+             * @param count The number of characters inserted.
+             */
+            @Override
+            public void onTextChanged(CharSequence formula, int start, int before, int count)
+            {
+                validateFormula(formula, start);
+                showSuggestions(formula, start + count);
+            }
+
+            @Override
+            public void afterTextChanged(Editable formula)
+            {
+            }
+        });
+
+        /**
+         * Anonymous class to set a listener on the suggestion buttons.
+         */
+        android.view.View.OnClickListener suggestionListener = new android.view.View.OnClickListener()
+        {
+            /**
+             * This method is called when a suggestion button is pressed. The letters typed
+             * before the cursor are replaced by the symbol of the suggested element, which
+             * validates the formula again.
+             *
+             * @param view The suggestion button.
+             */
+            @Override
+            public void onClick(android.view.View view)
+            {
+                int index = 0;
+                while(buttonSuggestions[index] != view)
+                {
+                    ++index;
+                }
+                int start = Controller.INSTANCE.getSuggestionStart();
+                int cursor = editTextUserFormulaInput.getSelectionEnd();
+                if(start <= cursor)
+                {
+                    editTextUserFormulaInput.getText().replace(start, cursor,
+                            Controller.INSTANCE.getElementSymbol(suggestions[index]));
+                }
+            }
+        };
+        for(Button buttonSuggestion : buttonSuggestions)
+        {
+            buttonSuggestion.setOnClickListener(suggestionListener);
+        }
+
         /**
          * Anonymous class to set a listener on the theme radioGroup.
          */
@@ -201,19 +416,33 @@ public class View extends AppCompatActivity implements ViewPortal
     }
 
     /**
-     * This method is called when the is about the close or restart.
+     * Internal method showing the chemical elements the user may be typing before the
+     * cursor on the suggestion buttons. Called on every keystroke, it allocates nothing.
      *
-     * @param savedInstanceState The bundle that will contain the information that needs to be stored.
+     * @param formula The formula after the edit.
+     * @param cursor The position of the cursor in the formula.
      */
-    @Override
-    protected void onSaveInstanceState(Bundle savedInstanceState)
+    private void showSuggestions(CharSequence formula, int cursor)
     {
-        super.onSaveInstanceState(savedInstanceState);
-        savedInstanceState.putString("savedEditText", editTextUserFormulaInput.getText().toString());
+        int nbOfSuggestions = Controller.INSTANCE.suggestElements(formula, cursor, suggestions);
+        for(int i = 0; i < buttonSuggestions.length; ++i)
+        {
+            if(i < nbOfSuggestions)
+            {
+                buttonSuggestions[i].setText(Controller.INSTANCE.getElementSymbol(suggestions[i]));
+                buttonSuggestions[i].setContentDescription(Controller.INSTANCE.getElementName(suggestions[i]));
+                buttonSuggestions[i].setVisibility(android.view.View.VISIBLE);
+            }
+            else
+            {
+                buttonSuggestions[i].setVisibility(android.view.View.INVISIBLE);
+            }
+        }
     }
 
     /**
-     * This method is called when the app is restored.
+     * This method is called when the app is restored. The formula typed by the user is
+     * restored, and validated, by the EditText itself, so only the results are shown again.
      *
      * @param savedInstanceState The bundle containing the information to restore.
      */
@@ -221,30 +450,223 @@ public class View extends AppCompatActivity implements ViewPortal
     protected void onRestoreInstanceState(Bundle savedInstanceState)
     {
         super.onRestoreInstanceState(savedInstanceState);
-        webViewFormattedResults.loadUrl("about:blank");
 
-        editTextUserFormulaInput.setText(savedInstanceState.getString("savedEditText"));
-        interfaceMessages[0] = Controller.INSTANCE.processUserInput(editTextUserFormulaInput.getText().toString());
-        textViewConfirmationMessage.setText(interfaceMessages[0]);
+        Controller.INSTANCE.restoreResult();
     }
 
     /**
-     * This method is called by the model to inform the view that the result of the chemical
-     * formula calculation is complete. When called, the view requests the information
-     * from the model, then prints those results to the console.
+     * Internal method validating the formula typed by the user and displaying the results.
+     * While the periodic table is loading, a message asks the user to wait instead.
      *
-     * @param modelPortal This interface allows the view to request the results of the chemical
-     *                    calculation from the model.
-     *      @see ModelPortal
+     * @param formula The formula typed by the user.
+     * @param start The position of the first character changed since the last validation.
      */
-    @Override
-    public void notify(ModelPortal modelPortal)
+    private void validateFormula(CharSequence formula, int start)
     {
-        webViewFormattedResults.loadUrl("about:blank");
-        webViewContent = modelPortal.getInformationAboutChemicalComposition();
-        webViewFormattedResults.loadData(
-                webViewContent,
-                mimeType,
-                encoding);
+        String message = Controller.INSTANCE.validateAsTyped(formula, formula.length() == 0 ? 0 : start);
+        if(formula.length() == 0)
+        {
+            textViewConfirmationMessage.setText(interfaceMessages[2]);
+        }
+        else if(message == null)
+        {
+            textViewConfirmationMessage.setText(interfaceMessages[4]);
+        }
+        else
+        {
+            textViewConfirmationMessage.setText(message);
+        }
+    }
+
+    /**
+     * This method is called by the Controller, from its background thread, once the
+     * periodic table is loaded. The formula typed while it was loading is validated again,
+     * on the main thread.
+     */
+    public void revalidateFormula()
+    {
+        runOnUiThread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if(textViewConfirmationMessage.getText().toString().equals(interfaceMessages[4]))
+                {
+                    validateFormula(editTextUserFormulaInput.getText(), 0);
+                }
+            }
+        });
+    }
+
+    /**
+     * This method is called by the Controller, from its background thread, with the shell
+     * of the web page, which is loaded once and then updated by #updateResult.
+     *
+     * @param shell The html code of the shell.
+     */
+    public void showShell(final String shell)
+    {
+        runOnUiThread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                shellReady = false;
+                webViewContent = shell;
+                webViewFormattedResults.loadData(
+                        webViewContent,
+                        mimeType,
+                        encoding);
+            }
+        });
+    }
+
+    /**
+     * This method is called by the Controller, from its background thread, once a formula
+     * is calculated. The results are sent as a script updating the page shell: only the
+     * header and the rows of the table that changed are modified, so the page keeps its
+     * layout and is never loaded again. Only the display itself is done on the main thread,
+     * and it is skipped if the user submitted another formula in the meantime.
+     *
+     * @param generation The number of the formula, used to recognise outdated results.
+     * @param message The results of the validation.
+     * @param updateScript The script updating the page shell, or emptying it.
+     */
+    public void updateResult(final long generation, final String message, final String updateScript)
+    {
+        runOnUiThread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if(!Controller.INSTANCE.isCurrentRequest(generation))
+                {
+                    return;
+                }
+                interfaceMessages[0] = message;
+                textViewConfirmationMessage.setText(interfaceMessages[0]);
+                runUpdateScript(updateScript);
+            }
+        });
+    }
+
+    /**
+     * Internal method running a script in the page shell, or keeping it until the shell has
+     * finished loading.
+     *
+     * @param updateScript The script to run.
+     */
+    private void runUpdateScript(String updateScript)
+    {
+        if(shellReady)
+        {
+            webViewFormattedResults.evaluateJavascript(updateScript, null);
+        }
+        else
+        {
+            pendingUpdateScript = updateScript;
+        }
+    }
+
+    /**
+     * This method is called by the Controller, from its background thread, when the theme
+     * is changed. The page displayed is neither built nor loaded again: only the class of
+     * its body is changed, on the main thread.
+     *
+     * @param themeClass The CSS class of the new theme.
+     */
+    public void applyTheme(final String themeClass)
+    {
+        runOnUiThread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                View.this.themeClass = themeClass;
+                if(nativeRendering)
+                {
+                    applyNativeTheme();
+                }
+                else
+                {
+                    applyThemeClass();
+                }
+            }
+        });
+    }
+
+    /**
+     * Internal method applying the selected theme to the page displayed in the webView.
+     */
+    private void applyThemeClass()
+    {
+        webViewFormattedResults.evaluateJavascript(
+                "if(document.body)document.body.className='" + themeClass + "';", null);
+    }
+
+    /**
+     * Same as #updateResult, but the results are displayed with native widgets: the header
+     * is displayed by a TextView, and only the visible rows of the table have a view.
+     *
+     * @param generation The number of the formula, used to recognise outdated results.
+     * @param message The results of the validation.
+     * @param header The formatted formula and its weight, or null if the formula is not valid.
+     * @param rows The rows of the table, or null if the formula is not valid.
+     */
+    public void showNativeResult(final long generation, final String message, final CharSequence header,
+                                 final CompositionRows rows)
+    {
+        runOnUiThread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if(!Controller.INSTANCE.isCurrentRequest(generation))
+                {
+                    return;
+                }
+                interfaceMessages[0] = message;
+                textViewConfirmationMessage.setText(interfaceMessages[0]);
+                showNativeResult(header, rows);
+            }
+        });
+    }
+
+    /**
+     * Internal method displaying the native results, or hiding them.
+     *
+     * @param header The formatted formula and its weight, or null to hide the results.
+     * @param rows The rows of the table, or null to hide the results.
+     */
+    private void showNativeResult(CharSequence header, CompositionRows rows)
+    {
+        if(header == null)
+        {
+            nativeFormattedResults.setVisibility(android.view.View.INVISIBLE);
+            textViewFormulaHeader.setText("");
+            compositionAdapter.setRows(CompositionRows.EMPTY);
+        }
+        else
+        {
+            textViewFormulaHeader.setText(header);
+            compositionAdapter.setRows(rows);
+            nativeFormattedResults.setVisibility(android.view.View.VISIBLE);
+        }
+    }
+
+    /**
+     * Internal method applying the selected theme to the native results. The header and the
+     * rows are not built again: they read the theme when they are drawn.
+     */
+    private void applyNativeTheme()
+    {
+        nativeTheme.setThemeClass(themeClass);
+        linearLayoutTableHeader.setBackgroundColor(nativeTheme.getHeaderBackground());
+        for(int i = 0; i < linearLayoutTableHeader.getChildCount(); ++i)
+        {
+            ((TextView)linearLayoutTableHeader.getChildAt(i)).setTextColor(nativeTheme.getHeaderColor());
+        }
+        textViewFormulaHeader.invalidate();
+        compositionAdapter.notifyDataSetChanged();
     }
 }
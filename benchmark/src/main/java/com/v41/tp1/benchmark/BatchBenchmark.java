@@ -0,0 +1,73 @@
+package com.v41.tp1.benchmark;
+
+import com.v41.tp1.modele.FormulaResult;
+import com.v41.tp1.viewcontroler.BatchEvaluator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how the BatchEvaluator scales with the number of workers. Every operation
+ * evaluates a batch of BATCH_SIZE formulas taken from the corpus.
+ */
+public class BatchBenchmark extends StageBenchmark
+{
+    /**
+     * The number of formulas in a batch.
+     */
+    private static final int BATCH_SIZE = 100000;
+
+    /**
+     * The number of workers evaluating the batch.
+     */
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    /**
+     * The formulas of the batch.
+     */
+    private List<String> batch;
+
+    /**
+     * The evaluator being measured.
+     */
+    private BatchEvaluator batchEvaluator;
+
+    /**
+     * Fills the batch by repeating the formulas of the corpus.
+     */
+    @Override
+    protected void prepareStage()
+    {
+        batch = new ArrayList<>(BATCH_SIZE);
+        for(int i = 0; i < BATCH_SIZE; ++i)
+        {
+            batch.add(formulas[i % formulas.length]);
+        }
+        batchEvaluator = new BatchEvaluator(parallelism);
+    }
+
+    /**
+     * Stops the workers of the evaluator.
+     */
+    @TearDown
+    public void shutdown()
+    {
+        batchEvaluator.shutdown();
+    }
+
+    /**
+     * Evaluates the whole batch.
+     *
+     * @return Returns the results of the batch.
+     */
+    @Benchmark
+    public FormulaResult[] evaluateBatch()
+    {
+        return batchEvaluator.evaluate(batch);
+    }
+}
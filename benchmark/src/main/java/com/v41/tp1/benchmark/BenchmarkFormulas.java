@@ -0,0 +1,41 @@
+package com.v41.tp1.benchmark;
+
+import com.v41.tp1.modele.TokenStream;
+import com.v41.tp1.viewcontroler.ChemicalValidator;
+import com.v41.tp1.viewcontroler.ValidationResult;
+
+import java.util.ArrayList;
+
+/**
+ * Utility class preparing the inputs of the benchmarks that skip the validation stage.
+ */
+final class BenchmarkFormulas
+{
+    /**
+     * Private constructor, since the class only contains static methods.
+     */
+    private BenchmarkFormulas()
+    {
+    }
+
+    /**
+     * Validates every formula and keeps its Tokens.
+     *
+     * @param formulas The formulas to validate.
+     * @return Returns the Tokens of every formula, in the same order.
+     */
+    static ArrayList<TokenStream> validateAll(String[] formulas)
+    {
+        ArrayList<TokenStream> formulaTokens = new ArrayList<>();
+        for(String formula : formulas)
+        {
+            ValidationResult validationResult = ChemicalValidator.INSTANCE.validate(formula);
+            if(!validationResult.isValid())
+            {
+                throw new IllegalStateException(formula + ": " + validationResult.getMessage());
+            }
+            formulaTokens.add(validationResult.getTokenStream());
+        }
+        return formulaTokens;
+    }
+}
@@ -0,0 +1,129 @@
+package com.v41.tp1.benchmark;
+
+import com.v41.tp1.modele.AtomicWeightTable;
+import com.v41.tp1.modele.ChemicalComposition;
+import com.v41.tp1.modele.CompiledFormula;
+import com.v41.tp1.modele.CompiledFormulaBatch;
+import com.v41.tp1.modele.EvaluationScratch;
+import com.v41.tp1.modele.TokenStream;
+import com.v41.tp1.viewcontroler.FormulaEvaluator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the calculation of the weights of a batch of BATCH_SIZE formulas taken from
+ * the corpus, once they have been validated: by calculateAtomicWeight for each formula,
+ * by each CompiledFormula, and by the CSR kernel of a CompiledFormulaBatch. Since every
+ * operation calculates a whole batch, the results are reported per millisecond.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CompiledBatchBenchmark extends StageBenchmark
+{
+    /**
+     * The number of formulas in a batch.
+     */
+    private static final int BATCH_SIZE = 10000;
+
+    /**
+     * The validated Tokens of every formula of the batch.
+     */
+    private ArrayList<TokenStream> formulaTokens;
+
+    /**
+     * The compiled formulas of the batch.
+     */
+    private CompiledFormula[] compiledFormulas;
+
+    /**
+     * The compiled formulas of the batch, in CSR layout.
+     */
+    private CompiledFormulaBatch compiledBatch;
+
+    /**
+     * The atomic weights of the periodic table.
+     */
+    private AtomicWeightTable atomicWeightTable;
+
+    /**
+     * The weight of every formula of the batch.
+     */
+    private double[] weights;
+
+    /**
+     * The working buffers of calculateAtomicWeight.
+     */
+    private final EvaluationScratch scratch = new EvaluationScratch();
+
+    /**
+     * The composition filled by calculateAtomicWeight.
+     */
+    private final TreeMap<String, Double> composition = new TreeMap<>();
+
+    /**
+     * Fills the batch by repeating the formulas of the corpus, then validates and
+     * compiles every formula ahead of the measurements.
+     */
+    @Override
+    protected void prepareStage()
+    {
+        String[] batch = new String[BATCH_SIZE];
+        for(int i = 0; i < BATCH_SIZE; ++i)
+        {
+            batch[i] = formulas[i % formulas.length];
+        }
+        formulaTokens = BenchmarkFormulas.validateAll(batch);
+        compiledFormulas = new CompiledFormula[BATCH_SIZE];
+        for(int i = 0; i < BATCH_SIZE; ++i)
+        {
+            compiledFormulas[i] = FormulaEvaluator.INSTANCE.evaluate(batch[i]).compile();
+        }
+        compiledBatch = new CompiledFormulaBatch(compiledFormulas);
+        atomicWeightTable = AtomicWeightTable.fromPeriodicTable("Standard");
+        weights = new double[BATCH_SIZE];
+    }
+
+    /**
+     * Calculates the weight of every formula of the batch from its Tokens.
+     *
+     * @return Returns the weights of the batch.
+     */
+    @Benchmark
+    public double[] calculateAtomicWeightLoop()
+    {
+        for(int i = 0; i < formulaTokens.size(); ++i)
+        {
+            composition.clear();
+            weights[i] = ChemicalComposition.calculateAtomicWeight(formulaTokens.get(i), composition, scratch);
+        }
+        return weights;
+    }
+
+    /**
+     * Calculates the weight of every formula of the batch from its CompiledFormula.
+     *
+     * @return Returns the weights of the batch.
+     */
+    @Benchmark
+    public double[] compiledFormulaLoop()
+    {
+        CompiledFormula.evaluate(compiledFormulas, atomicWeightTable, weights);
+        return weights;
+    }
+
+    /**
+     * Calculates the weight of every formula of the batch with the CSR kernel.
+     *
+     * @return Returns the weights of the batch.
+     */
+    @Benchmark
+    public double[] compiledBatch()
+    {
+        compiledBatch.evaluate(atomicWeightTable, weights);
+        return weights;
+    }
+}
@@ -0,0 +1,46 @@
+package com.v41.tp1.benchmark;
+
+import com.v41.tp1.modele.ChemicalComposition;
+import com.v41.tp1.modele.TokenStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.ArrayList;
+
+/**
+ * Measures ChemicalComposition.initialise, which runs calculateAtomicWeight on
+ * formulas that have already been validated.
+ */
+public class CompositionBenchmark extends StageBenchmark
+{
+    /**
+     * The validated Tokens of every formula of the corpus.
+     */
+    private ArrayList<TokenStream> formulaTokens;
+
+    /**
+     * The model being measured. It is not linked to any view.
+     */
+    private final ChemicalComposition chemicalComposition = new ChemicalComposition();
+
+    /**
+     * Validates every formula of the corpus ahead of the measurements.
+     */
+    @Override
+    protected void prepareStage()
+    {
+        formulaTokens = BenchmarkFormulas.validateAll(formulas);
+    }
+
+    /**
+     * Calculates the weight of a single formula of the corpus.
+     *
+     * @return Returns the weight of the formula.
+     */
+    @Benchmark
+    public double calculateAtomicWeight()
+    {
+        chemicalComposition.initialise(formulaTokens.get(nextIndex()));
+        return chemicalComposition.getWeight();
+    }
+}
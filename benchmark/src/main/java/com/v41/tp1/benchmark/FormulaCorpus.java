@@ -0,0 +1,140 @@
+package com.v41.tp1.benchmark;
+
+/**
+ * Enum listing the formula corpora used by the benchmarks. Each corpus targets
+ * a different weakness of the formula engine, from the short inputs typed by
+ * users to the adversarial inputs found in bulk exports.
+ */
+public enum FormulaCorpus
+{
+    /**
+     * Short inorganic salts, the most common inputs typed by users.
+     */
+    SHORT_SALTS
+    {
+        @Override
+        String[] buildFormulas()
+        {
+            return new String[] {
+                "NaCl", "KBr", "LiF", "CaCl2", "MgSO4", "Na2CO3",
+                "KNO3", "NH4Cl", "CuSO4", "FeCl3", "BaSO4", "AgNO3"
+            };
+        }
+    },
+
+    /**
+     * Long organic molecules with many symbols, mostly without nesting.
+     */
+    LONG_ORGANICS
+    {
+        @Override
+        String[] buildFormulas()
+        {
+            return new String[] {
+                "C12H22O11",
+                "C18H24N2O6",
+                "C11H23COOH",
+                "CH3(CH2)16COOH",
+                "C6H5CH2CH(NH2)COOH",
+                "CH3CH2CH2CH2CH2CH2CH2CH2OH",
+                buildLinearChain(50),
+                buildLinearChain(500)
+            };
+        }
+    },
+
+    /**
+     * Formulas whose parentheses are nested many levels deep.
+     */
+    DEEPLY_NESTED
+    {
+        @Override
+        String[] buildFormulas()
+        {
+            return new String[] {
+                "(Ca4Si2O6(CO3)(OHF))2",
+                "B(Ar(CF3)2)4",
+                buildNestedGroups(8),
+                buildNestedGroups(16),
+                buildNestedGroups(24)
+            };
+        }
+    },
+
+    /**
+     * Formulas using multipliers close to the largest value accepted by the validator.
+     */
+    HUGE_MULTIPLIERS
+    {
+        @Override
+        String[] buildFormulas()
+        {
+            return new String[] {
+                "H2147483647",
+                "C1000000H2000002O1000000",
+                "(NaCl)999999",
+                "((H2O)1000)1000",
+                "(U238Pu239)65535"
+            };
+        }
+    };
+
+    /**
+     * Lazily built formulas of the corpus.
+     */
+    private String[] formulas;
+
+    /**
+     * Builds the formulas of the corpus.
+     *
+     * @return Returns the formulas of the corpus.
+     */
+    abstract String[] buildFormulas();
+
+    /**
+     * Accessor method for the formulas of the corpus.
+     *
+     * @return Returns a copy of the formulas of the corpus.
+     */
+    public synchronized String[] getFormulas()
+    {
+        if(formulas == null)
+        {
+            formulas = buildFormulas();
+        }
+        return formulas.clone();
+    }
+
+    /**
+     * Builds a linear alkane chain, such as CH3CH2CH2CH3.
+     *
+     * @param nbOfCarbons The number of CH2 groups between both ends of the chain.
+     * @return Returns the formula of the chain.
+     */
+    static String buildLinearChain(int nbOfCarbons)
+    {
+        StringBuilder formula = new StringBuilder("CH3");
+        for(int i = 0; i < nbOfCarbons; ++i)
+        {
+            formula.append("CH2");
+        }
+        return formula.append("CH3").toString();
+    }
+
+    /**
+     * Builds a formula made of groups nested into each other, every group being doubled.
+     *      Ex: depth 2 gives ((H2O)2C)2
+     *
+     * @param depth The number of nested parentheses.
+     * @return Returns the formula of the nested groups.
+     */
+    static String buildNestedGroups(int depth)
+    {
+        String formula = "H2O";
+        for(int i = 0; i < depth; ++i)
+        {
+            formula = "(" + formula + ")2" + (i % 2 == 0 ? "C" : "N");
+        }
+        return formula;
+    }
+}
@@ -0,0 +1,40 @@
+package com.v41.tp1.benchmark;
+
+import com.v41.tp1.modele.ChemicalComposition;
+import com.v41.tp1.viewcontroler.ChemicalValidator;
+import com.v41.tp1.viewcontroler.StringWrapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures what a single formula costs end to end: validation, calculation and
+ * rendering, in the same order as the worker thread of the Controller.
+ */
+public class PipelineBenchmark extends StageBenchmark
+{
+    /**
+     * The message returned by the validator. Reused between operations.
+     */
+    private final StringWrapper messageForUser = new StringWrapper();
+
+    /**
+     * The model being measured. It is not linked to any view.
+     */
+    private final ChemicalComposition chemicalComposition = new ChemicalComposition();
+
+    /**
+     * Validates, calculates and renders a single formula of the corpus.
+     *
+     * @return Returns the html page, or the error message if the formula is invalid.
+     */
+    @Benchmark
+    public String processFormula()
+    {
+        if(!ChemicalValidator.INSTANCE.validateChemicalFormula(formulas[nextIndex()], messageForUser))
+        {
+            return messageForUser.content;
+        }
+        chemicalComposition.initialise(ChemicalValidator.INSTANCE.getFormulaTokens());
+        return chemicalComposition.getInformationAboutChemicalComposition();
+    }
+}
@@ -0,0 +1,29 @@
+package com.v41.tp1.benchmark;
+
+import com.v41.tp1.viewcontroler.SinglePassEvaluator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures SinglePassEvaluator.evaluate, which validates and calculates a formula in a
+ * single pass. Compare with ValidationBenchmark + CompositionBenchmark.
+ */
+public class SinglePassBenchmark extends StageBenchmark
+{
+    /**
+     * The evaluator being measured. Its buffers are reused between operations.
+     */
+    private final SinglePassEvaluator singlePassEvaluator = new SinglePassEvaluator();
+
+    /**
+     * Validates and calculates a single formula of the corpus.
+     *
+     * @return Returns the weight of the formula.
+     */
+    @Benchmark
+    public double evaluate()
+    {
+        singlePassEvaluator.evaluate(formulas[nextIndex()]);
+        return singlePassEvaluator.getWeight();
+    }
+}
@@ -0,0 +1,96 @@
+package com.v41.tp1.benchmark;
+
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.modele.PeriodicTableLoadResult;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Abstract class from which every benchmark of the formula engine is derived.
+ * It loads the periodic table, selects a formula corpus and hands out the
+ * formulas of the corpus one at a time, so every operation measures a single formula.
+ *
+ * The modes and time unit declared here are the defaults used when a benchmark is
+ * launched from the IDE. The gradle tasks override them to report the throughput
+ * in ops/s and the latency percentiles in us/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class StageBenchmark
+{
+    /**
+     * The corpus of formulas being measured.
+     */
+    @Param({"SHORT_SALTS", "LONG_ORGANICS", "DEEPLY_NESTED", "HUGE_MULTIPLIERS"})
+    public FormulaCorpus corpus;
+
+    /**
+     * The formulas of the corpus.
+     */
+    protected String[] formulas;
+
+    /**
+     * Index of the next formula handed out by #nextIndex.
+     */
+    private int currentIndex;
+
+    /**
+     * Loads the periodic table and the formulas of the corpus, then lets the benchmark
+     * prepare the inputs of its stage. The path of the periodic table can be overridden
+     * with the "periodicTable" system property.
+     *
+     * @throws IOException If the periodic table cannot be opened or contains no chemical element.
+     */
+    @Setup
+    public final void loadCorpus() throws IOException
+    {
+        String path = System.getProperty("periodicTable", "../app/src/main/res/raw/periodictable.txt");
+        PeriodicTableLoadResult result = PeriodicTable.INSTANCE.load(path);
+        if(!result.isSuccessful())
+        {
+            throw new IOException(result.getMessage(), result.getError());
+        }
+        formulas = corpus.getFormulas();
+        currentIndex = 0;
+        prepareStage();
+    }
+
+    /**
+     * Prepares the inputs of the measured stage, once the corpus has been loaded.
+     * Benchmarks that skip the first stages of the engine redefine this method.
+     */
+    protected void prepareStage()
+    {
+    }
+
+    /**
+     * Returns the index of the formula to measure, cycling through the whole corpus.
+     *
+     * @return The index of the next formula.
+     */
+    protected int nextIndex()
+    {
+        int index = currentIndex;
+        if(++currentIndex == formulas.length)
+        {
+            currentIndex = 0;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,71 @@
+package com.v41.tp1.benchmark;
+
+import com.v41.tp1.modele.ElementSuggester;
+import com.v41.tp1.viewcontroler.FormulaEvaluator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures ElementSuggester.suggest, called on every keystroke, with the cursor after
+ * each character of the formulas of the corpus in turn. The history contains every
+ * formula of the corpus, so the suggestions are ranked.
+ */
+public class SuggestionBenchmark extends StageBenchmark
+{
+    /**
+     * The maximum number of suggestions, as displayed by the view.
+     */
+    private static final int NB_OF_SUGGESTIONS = 4;
+
+    /**
+     * The suggester being measured.
+     */
+    private final ElementSuggester elementSuggester = new ElementSuggester();
+
+    /**
+     * The positions in the periodic table of the suggested elements.
+     */
+    private final int[] suggestions = new int[NB_OF_SUGGESTIONS];
+
+    /**
+     * The position of the cursor in the current formula.
+     */
+    private int cursor;
+
+    /**
+     * The index of the current formula.
+     */
+    private int formulaIndex;
+
+    /**
+     * Adds every formula of the corpus to the history of the suggester.
+     */
+    @Override
+    protected void prepareStage()
+    {
+        for(String formula : formulas)
+        {
+            elementSuggester.recordFormula(FormulaEvaluator.INSTANCE.evaluate(formula));
+        }
+        formulaIndex = nextIndex();
+        cursor = 0;
+    }
+
+    /**
+     * Suggests elements for a single keystroke, then moves the cursor to the next character.
+     *
+     * @return Returns the number of suggestions.
+     */
+    @Benchmark
+    public int suggest()
+    {
+        String formula = formulas[formulaIndex];
+        if(++cursor > formula.length())
+        {
+            formulaIndex = nextIndex();
+            formula = formulas[formulaIndex];
+            cursor = 1;
+        }
+        return elementSuggester.suggest(formula, cursor, suggestions);
+    }
+}
@@ -0,0 +1,28 @@
+package com.v41.tp1.benchmark;
+
+import com.v41.tp1.viewcontroler.ChemicalValidator;
+import com.v41.tp1.viewcontroler.StringWrapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures ChemicalValidator.validateChemicalFormula, the first stage of the engine.
+ */
+public class ValidationBenchmark extends StageBenchmark
+{
+    /**
+     * The message returned by the validator. Reused between operations.
+     */
+    private final StringWrapper messageForUser = new StringWrapper();
+
+    /**
+     * Validates a single formula of the corpus.
+     *
+     * @return Returns the result of the validation.
+     */
+    @Benchmark
+    public boolean validateChemicalFormula()
+    {
+        return ChemicalValidator.INSTANCE.validateChemicalFormula(formulas[nextIndex()], messageForUser);
+    }
+}
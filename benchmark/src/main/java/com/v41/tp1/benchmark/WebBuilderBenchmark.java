@@ -0,0 +1,68 @@
+package com.v41.tp1.benchmark;
+
+import com.v41.tp1.modele.ChemicalComposition;
+import com.v41.tp1.modele.TokenStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.ArrayList;
+
+/**
+ * Measures the html rendering of WebBuilderColor and WebBuilderMonochrome on
+ * formulas that have already been validated and calculated.
+ */
+public class WebBuilderBenchmark extends StageBenchmark
+{
+    /**
+     * The calculated formulas of the corpus, rendered with the color theme.
+     */
+    private ChemicalComposition[] colorCompositions;
+
+    /**
+     * The calculated formulas of the corpus, rendered with the monochrome theme.
+     */
+    private ChemicalComposition[] monochromeCompositions;
+
+    /**
+     * Validates and calculates every formula of the corpus ahead of the measurements.
+     */
+    @Override
+    protected void prepareStage()
+    {
+        ArrayList<TokenStream> formulaTokens = BenchmarkFormulas.validateAll(formulas);
+        colorCompositions = new ChemicalComposition[formulas.length];
+        monochromeCompositions = new ChemicalComposition[formulas.length];
+        for(int i = 0; i < formulas.length; ++i)
+        {
+            colorCompositions[i] = new ChemicalComposition();
+            colorCompositions[i].initialise(formulaTokens.get(i));
+            colorCompositions[i].changeTheme(0);
+
+            monochromeCompositions[i] = new ChemicalComposition();
+            monochromeCompositions[i].initialise(formulaTokens.get(i));
+            monochromeCompositions[i].changeTheme(1);
+        }
+    }
+
+    /**
+     * Renders a single formula of the corpus with WebBuilderColor.
+     *
+     * @return Returns the html page.
+     */
+    @Benchmark
+    public String buildWebPageColor()
+    {
+        return colorCompositions[nextIndex()].getInformationAboutChemicalComposition();
+    }
+
+    /**
+     * Renders a single formula of the corpus with WebBuilderMonochrome.
+     *
+     * @return Returns the html page.
+     */
+    @Benchmark
+    public String buildWebPageMonochrome()
+    {
+        return monochromeCompositions[nextIndex()].getInformationAboutChemicalComposition();
+    }
+}
@@ -0,0 +1,116 @@
+package com.v41.tp1.modele;
+
+import java.util.Arrays;
+
+/**
+ * This class represents an immutable set of atomic weights, such as the standard weights
+ * of the periodic table, the weights of an isotope-enriched stock or abridged values.
+ * The weights are stored in an array indexed by the position of each element in the
+ * periodic table, so a CompiledFormula can be evaluated against any table without
+ * being parsed again.
+ *
+ * The weights are copied by the constructor and never written again.
+ *      @see CompiledFormula#evaluate(AtomicWeightTable)
+ */
+public final class AtomicWeightTable
+{
+    /**
+     * The name of the table.
+     *      ex: Standard, Deuterated stock.
+     */
+    private final String name;
+
+    /**
+     * The atomic weight of each element, indexed by its position in the periodic table.
+     * Index 0 is never used.
+     */
+    private final double[] atomicWeights;
+
+    /**
+     * Constructor of a table.
+     *
+     * @param name The name of the table.
+     * @param atomicWeights The atomic weight of each element, indexed by its position in the
+     *                      periodic table. It is copied, so it can be modified afterwards.
+     */
+    public AtomicWeightTable(String name, double[] atomicWeights)
+    {
+        this.name = name;
+        this.atomicWeights = atomicWeights.clone();
+    }
+
+    /**
+     * Builds a table containing the atomic weights of the periodic table.
+     *
+     * @param name The name of the table.
+     * @return Returns a new table, which is not modified if the periodic table is loaded again.
+     */
+    public static AtomicWeightTable fromPeriodicTable(String name)
+    {
+        PeriodicTableSnapshot periodicTable = PeriodicTable.INSTANCE.getSnapshot();
+        double[] atomicWeights = new double[periodicTable.getNbOfElementNumbers()];
+        for(int noElement = 1; noElement < atomicWeights.length; ++noElement)
+        {
+            atomicWeights[noElement] = periodicTable.getAtomicWeight(noElement);
+        }
+        return new AtomicWeightTable(name, atomicWeights);
+    }
+
+    /**
+     * Builds a table identical to this one, except for the atomic weight of one element.
+     *      ex: the standard table with deuterium instead of hydrogen.
+     *
+     * @param name The name of the new table.
+     * @param noElement The position of the element in the periodic table.
+     * @param atomicWeight The new atomic weight of the element.
+     * @return Returns a new table.
+     */
+    public AtomicWeightTable withAtomicWeight(String name, int noElement, double atomicWeight)
+    {
+        double[] atomicWeights = Arrays.copyOf(this.atomicWeights, Math.max(this.atomicWeights.length, noElement + 1));
+        atomicWeights[noElement] = atomicWeight;
+        return new AtomicWeightTable(name, atomicWeights);
+    }
+
+    /**
+     * Accessor method for the name of the table.
+     *
+     * @return The name of the table.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Accessor method for the atomic weight of a single element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The atomic weight of the element, or 0 if the table does not contain it.
+     */
+    public double getAtomicWeight(int noElement)
+    {
+        return noElement < atomicWeights.length ? atomicWeights[noElement] : 0;
+    }
+
+    /**
+     * Returns the number of positions in the table, including the unused position 0.
+     *
+     * @return The highest element position + 1.
+     */
+    public int getNbOfElementNumbers()
+    {
+        return atomicWeights.length;
+    }
+
+    /**
+     * Internal accessor method for the weights themselves, read by the evaluation loops
+     * of the model, which must never modify them.
+     *
+     * @return The atomic weight of each element, indexed by its position in the periodic table.
+     */
+    double[] getAtomicWeights()
+    {
+        return atomicWeights;
+    }
+}
@@ -0,0 +1,60 @@
+package com.v41.tp1.modele;
+
+/**
+ * This class represents everything displayed to the user for a single chemical formula:
+ * the result of its evaluation and the script updating the page shell with it. It is
+ * stored in a FormulaCache so that a formula entered again does not need to be validated,
+ * calculated or rendered again.
+ *
+ * The content cannot be modified post construction.
+ *      @see FormulaCache
+ */
+public final class CachedFormula
+{
+    /**
+     * The result of the evaluation of the formula, containing the validation message,
+     * the weight and the composition.
+     */
+    private final FormulaResult result;
+
+    /**
+     * The script updating the page shell with the result, or null if the formula is
+     * invalid or if the results are not displayed in a web page.
+     */
+    private final String updateScript;
+
+    /**
+     * Overloaded constructor.
+     *
+     * @param result The result of the evaluation of the formula.
+     * @param updateScript The script updating the page shell with the result, or null if the
+     *                     formula is invalid or if the results are not displayed in a web page.
+     */
+    public CachedFormula(FormulaResult result, String updateScript)
+    {
+        this.result = result;
+        this.updateScript = updateScript;
+    }
+
+    /**
+     * Accessor method for the result of the evaluation of the formula.
+     *
+     * @return The result of the evaluation.
+     */
+    public FormulaResult getResult()
+    {
+        return result;
+    }
+
+    /**
+     * Accessor method for the script updating the page shell with the result. The script
+     * contains the whole result, so it can be run whatever the page shell displays.
+     *
+     * @return Returns the update script, or null if there is none.
+     *      @see ChemicalComposition#getUpdateScript()
+     */
+    public String getUpdateScript()
+    {
+        return updateScript;
+    }
+}
@@ -0,0 +1,471 @@
+package com.v41.tp1.modele;
+
+import com.v41.tp1.modele.portal.ModelPortal;
+import com.v41.tp1.modele.webbuilder.WebBuilder;
+import com.v41.tp1.modele.webbuilder.WebBuilderColor;
+import com.v41.tp1.modele.webbuilder.WebBuilderMonochrome;
+import com.v41.tp1.viewcontroler.portal.ViewPortal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * This class represents a chemical formula made up of Tokens. This class does not manage
+ * validation, and therefore assumes that given chemical formulas have already been
+ * validated. The class calculates the atomic weight of the given chemical formula, as
+ * well as the number of atoms and the mass of each type of chemical element present
+ * in the molecule.
+ *
+ * In the MVC pattern, this class embodies the role of the Model.
+ */
+public class ChemicalComposition implements ModelPortal
+{
+    /**
+     * The total weight of the given chemical formula.
+     */
+    private double weight;
+
+    /**
+     * The formula Tokens that will be calculated.
+     */
+    private TokenStream formulaTokens = new TokenStream();
+
+    /**
+     * The working buffers reused by every calculation of this model.
+     */
+    private final EvaluationScratch scratch = new EvaluationScratch();
+
+    /**
+     * The number of atoms and the mass of each chemical element present in the molecule.
+     */
+    private final ElementComposition elementComposition = new ElementComposition();
+
+    /**
+     * The composition of the formula calculated by #update(TokenStream), kept up to date
+     * edit after edit.
+     */
+    private final IncrementalComposition incrementalComposition = new IncrementalComposition();
+
+    /**
+     * Composition containing a single copy of the symbol and atomic weight
+     * of each type of chemical element present in the molecule. Only built from
+     * #elementComposition when the web page is built.
+     */
+    private TreeMap<String, Double> composition;
+
+    /**
+     * The buffer in which the web pages are written, reused from one page to the next.
+     */
+    private final StringBuilder webPage = new StringBuilder();
+
+    /**
+     * View interface that permits the model to notify the view.
+     */
+    private ViewPortal viewPortal;
+
+    /**
+     * The current webBuilder. Changes when the theme of the app is changed.
+     */
+    private WebBuilder webBuilder = new WebBuilderColor();
+
+    /**
+     * Default constructor, for a model that notifies no view, such as in purely logic
+     * based unit tests.
+     */
+    public ChemicalComposition()
+    {
+    }
+
+    /**
+     * Overloaded constructor that links the view's interface to the model.
+     *
+     * @param viewPortal The interface allowing the model to interact with the view.
+     */
+    public ChemicalComposition(ViewPortal viewPortal)
+    {
+        this.viewPortal = viewPortal;
+    }
+
+    /**
+     * Initialising method that must be called every time a new chemical formula
+     * must be calculated. This method receives a chemical formula composition
+     * in the form of Tokens, calls a private method for further operations, then
+     * notifies the view that the requested information is ready to be read.
+     *
+     * @param formulaInputTokens Inputted chemical formula composition in the form
+     *                           of Tokens.
+     */
+    public void initialise(ArrayList<Token> formulaInputTokens)
+    {
+        initialise(TokenStream.fromTokens(formulaInputTokens));
+    }
+
+    /**
+     * Same as #initialise(ArrayList), but receives the chemical formula in the form
+     * of packed Tokens, as produced by ChemicalValidator.validate.
+     *
+     * @param formulaTokens Inputted chemical formula composition in the form
+     *                      of packed Tokens.
+     * @throws MultiplierOverflowException If a number of atoms does not fit in a long. The
+     *                                     view is not notified and the model stays empty.
+     */
+    public void initialise(TokenStream formulaTokens)
+    {
+        composition = null;
+        try
+        {
+            weight = calculateComposition(formulaTokens, elementComposition, scratch);
+        }
+        catch(MultiplierOverflowException e)
+        {
+            weight = 0;
+            elementComposition.clear();
+            this.formulaTokens = new TokenStream();
+            throw e;
+        }
+        this.formulaTokens = formulaTokens;
+        if(viewPortal != null)
+        {
+            viewPortal.notify(this);
+        }
+    }
+
+    /**
+     * Same as #initialise(TokenStream), but only the Tokens that changed since the last
+     * formula passed to this method are calculated. Suited to a formula edited by the
+     * user, then calculated again.
+     *
+     * @param formulaTokens Inputted chemical formula composition in the form
+     *                      of packed Tokens.
+     * @throws MultiplierOverflowException If a number of atoms does not fit in a long. The
+     *                                     view is not notified and the model stays empty.
+     *      @see IncrementalComposition
+     */
+    public void update(TokenStream formulaTokens)
+    {
+        composition = null;
+        try
+        {
+            incrementalComposition.update(formulaTokens);
+            weight = incrementalComposition.fill(elementComposition);
+        }
+        catch(MultiplierOverflowException e)
+        {
+            weight = 0;
+            elementComposition.clear();
+            this.formulaTokens = new TokenStream();
+            throw e;
+        }
+        this.formulaTokens = formulaTokens;
+        if(viewPortal != null)
+        {
+            viewPortal.notify(this);
+        }
+    }
+
+    /**
+     * Restores a chemical formula that was calculated earlier, without calculating it
+     * again. Unlike #initialise(TokenStream), the view is not notified, since the
+     * caller already has the web page of the formula.
+     *
+     * @param result The result of the earlier calculation. Must be valid.
+     *      @see CachedFormula
+     */
+    public void restore(FormulaResult result)
+    {
+        composition = null;
+        formulaTokens = result.getTokenStream();
+        elementComposition.clear(result.getPeriodicTable());
+        for(int i = 0; i < result.getNbOfPresentElements(); ++i)
+        {
+            int noElement = result.getPresentElement(i);
+            elementComposition.addAtoms(noElement, result.getAtomCount(noElement), 0);
+        }
+        weight = elementComposition.computeMasses();
+    }
+
+    /**
+     * Returns the total weight of a chemical formula.
+     *
+     * @return The total weight of a molecule.
+     */
+    public double getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Accessor method for the number of atoms and the mass of each chemical element
+     * present in the molecule.
+     *
+     * @return The composition of the molecule. It is modified by the next calculation.
+     */
+    public ElementComposition getElementComposition()
+    {
+        return elementComposition;
+    }
+
+    /**
+     * Accessor method for the Tokens of the chemical formula, read by the renderers of
+     * the results.
+     *
+     * @return The packed Tokens of the formula.
+     */
+    public TokenStream getFormulaTokens()
+    {
+        return formulaTokens;
+    }
+
+    /**
+     * Returns the symbol and atomic weight of each chemical element present in the
+     * molecule, sorted by symbol. Only built once per formula.
+     *
+     * @return The composition of the molecule. It is replaced by the next calculation.
+     */
+    public TreeMap<String, Double> getSortedComposition()
+    {
+        if(composition == null)
+        {
+            composition = elementComposition.toSortedMap();
+        }
+        return composition;
+    }
+
+    /**
+     * Returns the number of atoms of a chemical element in the molecule.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The number of atoms of the element, 0 if it is absent.
+     */
+    public long getAtomCount(int noElement)
+    {
+        return elementComposition.getAtomCount(noElement);
+    }
+
+    /**
+     * Returns the fraction of the total weight contributed by a chemical element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The mass fraction of the element, from 0 to 1.
+     */
+    public double getMassFraction(int noElement)
+    {
+        return elementComposition.getMassFraction(noElement);
+    }
+
+    /**
+     * Returns the percentage of the total weight contributed by a chemical element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The percent composition of the element, from 0 to 100.
+     */
+    public double getPercentComposition(int noElement)
+    {
+        return elementComposition.getPercentComposition(noElement);
+    }
+
+    /**
+     * Interface method that allows the view to read the results of the calculations
+     * performed by the model.
+     *
+     * @return Returns a string containing the details of the calculation
+     * formatted to be readable by the user.
+     */
+    @Override
+    public String getInformationAboutChemicalComposition()
+    {
+        webPage.setLength(0);
+        webBuilder.appendWebPage(webPage, weight, formulaTokens, getSortedComposition());
+        return webPage.toString();
+    }
+
+    /**
+     * Returns the shell of the web page, loaded once by a view receiving the results
+     * through #getUpdateScript().
+     *
+     * @return Returns the html code of the shell, in the current theme.
+     */
+    public String getPageShell()
+    {
+        return webBuilder.buildShell();
+    }
+
+    /**
+     * Same as #getInformationAboutChemicalComposition(), but returns the script updating
+     * the shell of the web page with the results, instead of a whole page.
+     *
+     * @return Returns the script to run in the shell.
+     *      @see #getPageShell()
+     */
+    public String getUpdateScript()
+    {
+        webPage.setLength(0);
+        webBuilder.appendUpdateScript(webPage, weight, formulaTokens, getSortedComposition());
+        return webPage.toString();
+    }
+
+    /**
+     * Method called when the theme of the app is changed. Only the pages built from now on
+     * use the new theme: a page already displayed contains the stylesheet of every theme,
+     * and is switched by the view by changing the class of its body.
+     *
+     * @param themeId The id of the desired theme.
+     *      @see #getThemeClass()
+     */
+    public void changeTheme(int themeId)
+    {
+        switch(themeId)
+        {
+            case 0:
+                webBuilder = new WebBuilderColor();
+                break;
+            case 1:
+                webBuilder = new WebBuilderMonochrome();
+                break;
+        }
+    }
+
+    /**
+     * Returns the CSS class of the body applying the current theme to a web page.
+     *
+     * @return The name of the class.
+     */
+    public String getThemeClass()
+    {
+        return webBuilder.getThemeClass();
+    }
+
+    /**
+     * This method calculates the total weight of the given chemical formula, and adds
+     * the symbol and atomic weight of each type of chemical element present in the
+     * molecule to the composition TreeMap.
+     *      @see #calculateComposition(TokenStream, ElementComposition, EvaluationScratch)
+     *
+     * The method only works on its parameters, and can therefore be called from many
+     * threads at the same time as long as each thread uses its own composition.
+     *
+     * @param formulaInputTokens The validated Tokens of the chemical formula.
+     * @param composition The composition in which every chemical element of the formula is added.
+     * @return Returns the total weight of the chemical formula.
+     * @throws MultiplierOverflowException If a number of atoms does not fit in a long.
+     */
+    public static double calculateAtomicWeight(List<Token> formulaInputTokens, TreeMap<String, Double> composition)
+    {
+        return calculateAtomicWeight(TokenStream.fromTokens(formulaInputTokens), composition, new EvaluationScratch());
+    }
+
+    /**
+     * Same as #calculateAtomicWeight(List, TreeMap), but works directly on packed Tokens
+     * and uses the given working buffers instead of allocating new ones.
+     *
+     * @param formulaTokens The validated Tokens of the chemical formula.
+     * @param composition The composition in which every chemical element of the formula is added.
+     * @param scratch The working buffers of the calling thread.
+     * @return Returns the total weight of the chemical formula.
+     * @throws MultiplierOverflowException If a number of atoms does not fit in a long.
+     */
+    public static double calculateAtomicWeight(TokenStream formulaTokens, TreeMap<String, Double> composition,
+                                               EvaluationScratch scratch)
+    {
+        ElementComposition elementComposition = scratch.elementComposition;
+        double weight = calculateComposition(formulaTokens, elementComposition, scratch);
+        PeriodicTableSnapshot periodicTable = elementComposition.getPeriodicTable();
+        for(int i = 0; i < elementComposition.getNbOfPresentElements(); ++i)
+        {
+            int noElement = elementComposition.getPresentElement(i);
+            composition.put(periodicTable.getSymbol(noElement), periodicTable.getAtomicWeight(noElement));
+        }
+        return weight;
+    }
+
+    /**
+     * This method contains the algorithm that calculates the number of atoms and the mass
+     * of each chemical element of the given formula, as well as its total weight.
+     *
+     * The algorithm functions by working backwards through the formula. Each closing
+     * parenthesis pushes the product of the enclosing multipliers and of the group's own
+     * multiplier, so every element is multiplied by a single number whatever the depth
+     * of its group. The number of atoms is counted in a long, and an overflow is reported
+     * instead of producing a wrong weight.
+     *
+     * @param formulaTokens The validated Tokens of the chemical formula.
+     * @param elementComposition The composition to fill. Its previous content is cleared, and
+     *                           it reads the snapshot of the periodic table of the Tokens.
+     * @param scratch The working buffers of the calling thread.
+     * @return Returns the total weight of the chemical formula.
+     * @throws MultiplierOverflowException If a number of atoms does not fit in a long.
+     */
+    public static double calculateComposition(TokenStream formulaTokens, ElementComposition elementComposition,
+                                              EvaluationScratch scratch)
+    {
+        elementComposition.clear(formulaTokens.getPeriodicTable());
+        long[] multipliers = scratch.multipliers;
+        int level = 0;
+        multipliers[level] = 1;
+        // Multiplier read right after the current token, and its position in the formula.
+        long multiplier = 1;
+        int multiplierPosition = 0;
+        int currentIndex = formulaTokens.size() - 1;
+
+        while(currentIndex >= 0)
+        {
+            long currentToken = formulaTokens.get(currentIndex);
+            int tokenValue = TokenStream.getValue(currentToken);
+            // If token is NUMBER
+            if(TokenStream.getType(currentToken) == TokenStream.NUMBER)
+            {
+                multiplier = tokenValue;
+                multiplierPosition = TokenStream.getPosition(currentToken);
+            }
+            // If token is PARENTHESIS
+            else if(TokenStream.getType(currentToken) == TokenStream.PARENTHESIS)
+            {
+                if(tokenValue == TokenStream.OPENING_PARENTHESIS)
+                {
+                    --level;
+                }
+                else
+                {
+                    if(level + 1 == multipliers.length)
+                    {
+                        multipliers = Arrays.copyOf(multipliers, multipliers.length * 2);
+                        scratch.multipliers = multipliers;
+                    }
+                    multipliers[level + 1] = multiply(multipliers[level], multiplier, multiplierPosition);
+                    ++level;
+                }
+                multiplier = 1;
+            }
+            // If token is CHEMICAL_ELEMENT_SYMBOL
+            else
+            {
+                elementComposition.addAtoms(tokenValue, multiply(multipliers[level], multiplier, multiplierPosition),
+                        multiplierPosition);
+                multiplier = 1;
+            }
+            --currentIndex;
+        }
+        return elementComposition.computeMasses();
+    }
+
+    /**
+     * Multiplies two positive numbers of atoms.
+     *
+     * @param nbOfAtoms The number of atoms before the multiplication.
+     * @param multiplier The multiplier, at least 1.
+     * @param multiplierPosition The position of the multiplier in the formula.
+     * @return Returns the product of the two numbers.
+     * @throws MultiplierOverflowException If the product does not fit in a long.
+     */
+    private static long multiply(long nbOfAtoms, long multiplier, int multiplierPosition)
+    {
+        if(nbOfAtoms > Long.MAX_VALUE / multiplier)
+        {
+            throw new MultiplierOverflowException(multiplierPosition);
+        }
+        return nbOfAtoms * multiplier;
+    }
+}
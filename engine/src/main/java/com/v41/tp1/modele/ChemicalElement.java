@@ -70,6 +70,7 @@ public class ChemicalElement
      * The string accepted by this  method must be formatted in the
      * following manner:
      *      "name,symbol,elementNumber,atomicWeight"
+     * The spaces surrounding each attribute are ignored.
      *
      * @param chemicalElement A string containing all characteristics of
      *                        a chemical element.
@@ -78,18 +79,18 @@ public class ChemicalElement
     {
         int indexStart = 0;
         int indexEnd = chemicalElement.indexOf(',', indexStart);
-        name = chemicalElement.substring(indexStart, indexEnd);
+        name = chemicalElement.substring(indexStart, indexEnd).trim();
 
         indexStart = indexEnd + 1;
         indexEnd = chemicalElement.indexOf(',', indexStart);
-        symbol = chemicalElement.substring(indexStart, indexEnd);
+        symbol = chemicalElement.substring(indexStart, indexEnd).trim();
 
         indexStart = indexEnd + 1;
         indexEnd = chemicalElement.indexOf(',', indexStart);
-        noElement = Integer.parseInt(chemicalElement.substring(indexStart, indexEnd));
+        noElement = Integer.parseInt(chemicalElement.substring(indexStart, indexEnd).trim());
 
         indexStart = indexEnd + 1;
-        atomicWeight = Double.parseDouble(chemicalElement.substring(indexStart));
+        atomicWeight = Double.parseDouble(chemicalElement.substring(indexStart).trim());
     }
 
     /**
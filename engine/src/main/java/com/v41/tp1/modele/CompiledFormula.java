@@ -0,0 +1,129 @@
+package com.v41.tp1.modele;
+
+/**
+ * This class represents a chemical formula reduced to its composition: a sparse vector
+ * containing the number of atoms of each element present. The weight of the formula
+ * against any AtomicWeightTable is then the dot product of this vector with the weights
+ * of the table, so a formula evaluated against several tables is only parsed once.
+ *
+ * It reads the arrays of the FormulaResult it was compiled from, which never change.
+ *      @see FormulaResult#compile()
+ */
+public final class CompiledFormula
+{
+    /**
+     * The positions in the periodic table of the elements present, sorted.
+     */
+    private final int[] elements;
+
+    /**
+     * The number of atoms of each element present, in the same order as #elements.
+     */
+    private final long[] atomCounts;
+
+    /**
+     * Constructor of a compiled formula, from the composition of a formula.
+     *
+     * @param elementComposition The calculated composition of the formula. Only the elements
+     *                           present are copied, so it can be reused afterwards.
+     */
+    public CompiledFormula(ElementComposition elementComposition)
+    {
+        elements = elementComposition.copySortedElements();
+        atomCounts = new long[elements.length];
+        for(int i = 0; i < elements.length; ++i)
+        {
+            atomCounts[i] = elementComposition.getAtomCount(elements[i]);
+        }
+    }
+
+    /**
+     * Internal constructor sharing the arrays of an immutable result.
+     *
+     * @param elements The positions of the elements present, sorted. Never modified afterwards.
+     * @param atomCounts The number of atoms of each element present. Never modified afterwards.
+     */
+    CompiledFormula(int[] elements, long[] atomCounts)
+    {
+        this.elements = elements;
+        this.atomCounts = atomCounts;
+    }
+
+    /**
+     * Calculates the weight of the formula against a table of atomic weights, which must
+     * contain every element of the formula.
+     *
+     * @param atomicWeightTable The atomic weights to use.
+     * @return Returns the total weight of the formula.
+     */
+    public double evaluate(AtomicWeightTable atomicWeightTable)
+    {
+        return evaluate(atomicWeightTable.getAtomicWeights());
+    }
+
+    /**
+     * Calculates the weight of every formula of a batch against a table of atomic weights.
+     * Only the compositions are read: no formula is parsed again.
+     *
+     * @param formulas The compiled formulas. A null formula, such as an invalid one, weighs 0.
+     * @param atomicWeightTable The atomic weights to use.
+     * @param weights The array receiving the weight of every formula, in the same order.
+     */
+    public static void evaluate(CompiledFormula[] formulas, AtomicWeightTable atomicWeightTable, double[] weights)
+    {
+        double[] atomicWeights = atomicWeightTable.getAtomicWeights();
+        for(int i = 0; i < formulas.length; ++i)
+        {
+            weights[i] = formulas[i] == null ? 0 : formulas[i].evaluate(atomicWeights);
+        }
+    }
+
+    /**
+     * Returns the number of different elements present.
+     *
+     * @return The number of elements present.
+     */
+    public int getNbOfPresentElements()
+    {
+        return elements.length;
+    }
+
+    /**
+     * Returns one of the elements present, sorted by position in the periodic table.
+     *
+     * @param index The index of the element, from 0 to #getNbOfPresentElements() - 1.
+     * @return The position of the element in the periodic table.
+     */
+    public int getPresentElement(int index)
+    {
+        return elements[index];
+    }
+
+    /**
+     * Returns the number of atoms of one of the elements present.
+     *
+     * @param index The index of the element, from 0 to #getNbOfPresentElements() - 1.
+     * @return The number of atoms of the element.
+     */
+    public long getPresentAtomCount(int index)
+    {
+        return atomCounts[index];
+    }
+
+    /**
+     * Internal method calculating the dot product of the composition with the weights.
+     *
+     * @param atomicWeights The atomic weight of each element, indexed by its position in
+     *                      the periodic table.
+     * @return Returns the total weight of the formula.
+     */
+    private double evaluate(double[] atomicWeights)
+    {
+        double weight = 0;
+        for(int i = 0; i < elements.length; ++i)
+        {
+            weight += atomCounts[i] * atomicWeights[elements[i]];
+        }
+        return weight;
+    }
+}
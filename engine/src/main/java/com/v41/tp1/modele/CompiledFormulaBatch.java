@@ -0,0 +1,141 @@
+package com.v41.tp1.modele;
+
+/**
+ * This class contains a batch of compiled formulas stored as a sparse matrix in CSR
+ * (compressed sparse row) layout: each formula is a row, whose entries are the positions
+ * of its elements and their numbers of atoms. The weights of the whole batch against an
+ * AtomicWeightTable are then the product of this matrix with the weights of the table.
+ *
+ * The rows are stored in three primitive arrays instead of one object per formula, so
+ * the product is computed by a single tight loop reading the arrays in order, which the
+ * JIT compiler can unroll, and no object is read nor created per formula.
+ *
+ * The rows are never modified once packed, so several threads may each evaluate their own range.
+ *      @see CompiledFormula
+ */
+public final class CompiledFormulaBatch
+{
+    /**
+     * The index of the first entry of each formula, followed by the total number of
+     * entries. The entries of formula i go from offsets[i] to offsets[i + 1] - 1.
+     */
+    private final int[] offsets;
+
+    /**
+     * The position in the periodic table of the element of each entry.
+     */
+    private final int[] elements;
+
+    /**
+     * The number of atoms of each entry. Stored as a double so that the product only
+     * multiplies doubles, as the weight of a formula always did.
+     */
+    private final double[] atomCounts;
+
+    /**
+     * The highest position in the periodic table of the elements of the batch. A table of
+     * atomic weights must contain it.
+     */
+    private final int maxElement;
+
+    /**
+     * Constructor of a batch.
+     *
+     * @param formulas The compiled formulas, in order. A null formula, such as an invalid
+     *                 one, becomes a formula without any element, which weighs 0.
+     */
+    public CompiledFormulaBatch(CompiledFormula[] formulas)
+    {
+        offsets = new int[formulas.length + 1];
+        int nbOfEntries = 0;
+        for(int i = 0; i < formulas.length; ++i)
+        {
+            offsets[i] = nbOfEntries;
+            nbOfEntries += formulas[i] == null ? 0 : formulas[i].getNbOfPresentElements();
+        }
+        offsets[formulas.length] = nbOfEntries;
+
+        elements = new int[nbOfEntries];
+        atomCounts = new double[nbOfEntries];
+        int highestElement = 0;
+        int entry = 0;
+        for(CompiledFormula formula : formulas)
+        {
+            for(int i = 0; formula != null && i < formula.getNbOfPresentElements(); ++i)
+            {
+                elements[entry] = formula.getPresentElement(i);
+                atomCounts[entry] = formula.getPresentAtomCount(i);
+                highestElement = Math.max(highestElement, elements[entry]);
+                ++entry;
+            }
+        }
+        maxElement = highestElement;
+    }
+
+    /**
+     * Returns the number of formulas of the batch.
+     *
+     * @return The number of formulas.
+     */
+    public int size()
+    {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the number of entries of the matrix, which is the total number of different
+     * elements of every formula.
+     *
+     * @return The number of entries.
+     */
+    public int getNbOfEntries()
+    {
+        return elements.length;
+    }
+
+    /**
+     * Calculates the weight of every formula of the batch against a table of atomic weights.
+     *
+     * @param atomicWeightTable The atomic weights to use.
+     * @param weights The array receiving the weight of every formula, in the same order.
+     * @throws IllegalArgumentException If the table does not contain every element of the batch.
+     */
+    public void evaluate(AtomicWeightTable atomicWeightTable, double[] weights)
+    {
+        evaluate(atomicWeightTable, weights, 0, size());
+    }
+
+    /**
+     * Same as #evaluate(AtomicWeightTable, double[]), but only calculates a range of
+     * formulas, so that a batch can be split between several threads.
+     *
+     * @param atomicWeightTable The atomic weights to use.
+     * @param weights The array receiving the weight of every formula, at the index of the formula.
+     * @param start The index of the first formula to calculate.
+     * @param end The index following the last formula to calculate.
+     * @throws IllegalArgumentException If the table does not contain every element of the batch.
+     */
+    public void evaluate(AtomicWeightTable atomicWeightTable, double[] weights, int start, int end)
+    {
+        double[] atomicWeights = atomicWeightTable.getAtomicWeights();
+        if(maxElement >= atomicWeights.length)
+        {
+            throw new IllegalArgumentException("The table " + atomicWeightTable.getName()
+                    + " does not contain the element " + maxElement + ".");
+        }
+        int[] offsets = this.offsets;
+        int[] elements = this.elements;
+        double[] atomCounts = this.atomCounts;
+        int entry = offsets[start];
+        for(int formula = start; formula < end; ++formula)
+        {
+            int nextFormulaEntry = offsets[formula + 1];
+            double weight = 0;
+            for(; entry < nextFormulaEntry; ++entry)
+            {
+                weight += atomCounts[entry] * atomicWeights[elements[entry]];
+            }
+            weights[formula] = weight;
+        }
+    }
+}
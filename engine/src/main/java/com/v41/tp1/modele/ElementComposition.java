@@ -0,0 +1,264 @@
+package com.v41.tp1.modele;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * This class contains the number of atoms and the mass contributed by each chemical
+ * element of a formula. Both are stored in arrays indexed by the element's position in
+ * the periodic table, and the positions of the elements present are kept in the order
+ * they were found, so that only those entries need to be read or cleared.
+ *
+ * An instance is filled by ChemicalComposition.calculateComposition and can be reused
+ * for many formulas. It must never be shared by two threads at the same time.
+ *
+ * Each formula reads a single snapshot of the periodic table, taken when the composition
+ * is cleared, so a periodic table loaded during a calculation never mixes two versions.
+ */
+public final class ElementComposition
+{
+    /**
+     * The number of atoms of each element, indexed by its position in the periodic table.
+     */
+    private long[] atomCounts;
+
+    /**
+     * The mass contributed by each element, indexed by its position in the periodic table.
+     * Only up to date once #computeMasses() has been called.
+     */
+    private double[] masses;
+
+    /**
+     * The positions in the periodic table of the elements present, in the order they
+     * were found.
+     */
+    private int[] presentElements;
+
+    /**
+     * The number of elements present.
+     */
+    private int nbOfPresentElements;
+
+    /**
+     * The total weight of the formula.
+     */
+    private double weight;
+
+    /**
+     * The snapshot of the periodic table read by the current formula.
+     *      @see #getTableVersion()
+     */
+    private PeriodicTableSnapshot periodicTable;
+
+    /**
+     * Default constructor.
+     */
+    public ElementComposition()
+    {
+        atomCounts = new long[0];
+        masses = new double[0];
+        presentElements = new int[0];
+        periodicTable = PeriodicTableSnapshot.EMPTY;
+    }
+
+    /**
+     * Removes every element, and makes room for every element of the periodic table in use,
+     * which is read by the next formula. Only the entries of the elements present are cleared.
+     */
+    public void clear()
+    {
+        clear(PeriodicTable.INSTANCE.getSnapshot());
+    }
+
+    /**
+     * Same as #clear(), but the next formula reads the given snapshot of the periodic
+     * table, such as the one its symbols were validated with.
+     *
+     * @param periodicTable The snapshot of the periodic table to read.
+     */
+    public void clear(PeriodicTableSnapshot periodicTable)
+    {
+        for(int i = 0; i < nbOfPresentElements; ++i)
+        {
+            atomCounts[presentElements[i]] = 0;
+            masses[presentElements[i]] = 0;
+        }
+        nbOfPresentElements = 0;
+        weight = 0;
+        this.periodicTable = periodicTable;
+        int nbOfElementNumbers = periodicTable.getNbOfElementNumbers();
+        if(atomCounts.length < nbOfElementNumbers)
+        {
+            atomCounts = new long[nbOfElementNumbers];
+            masses = new double[nbOfElementNumbers];
+            presentElements = new int[nbOfElementNumbers];
+        }
+    }
+
+    /**
+     * Adds atoms of an element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @param nbOfAtoms The number of atoms to add, at least 1.
+     * @param position The position in the formula of the multiplier applied to the atoms.
+     * @throws MultiplierOverflowException If the number of atoms of the element does not fit in a long.
+     */
+    public void addAtoms(int noElement, long nbOfAtoms, int position)
+    {
+        long atomCount = atomCounts[noElement];
+        if(atomCount == 0)
+        {
+            presentElements[nbOfPresentElements++] = noElement;
+        }
+        if(atomCount > Long.MAX_VALUE - nbOfAtoms)
+        {
+            throw new MultiplierOverflowException(position);
+        }
+        atomCounts[noElement] = atomCount + nbOfAtoms;
+    }
+
+    /**
+     * Computes the mass contributed by each element present and the total weight, once
+     * every atom has been added.
+     *
+     * @return Returns the total weight of the formula.
+     */
+    public double computeMasses()
+    {
+        weight = 0;
+        for(int i = 0; i < nbOfPresentElements; ++i)
+        {
+            int noElement = presentElements[i];
+            masses[noElement] = atomCounts[noElement] * periodicTable.getAtomicWeight(noElement);
+            weight += masses[noElement];
+        }
+        return weight;
+    }
+
+    /**
+     * Accessor method for the total weight of the formula.
+     *
+     * @return Returns the total weight, or 0 if the masses have not been computed.
+     */
+    public double getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Accessor method for the version of the periodic table whose atomic weights were used.
+     *
+     * @return Returns the version of the periodic table, 0 if none was loaded.
+     *      @see PeriodicTable#getVersion()
+     */
+    public long getTableVersion()
+    {
+        return periodicTable.getVersion();
+    }
+
+    /**
+     * Internal accessor method for the snapshot of the periodic table read by the
+     * current formula.
+     *
+     * @return The snapshot of the periodic table.
+     */
+    PeriodicTableSnapshot getPeriodicTable()
+    {
+        return periodicTable;
+    }
+
+    /**
+     * Returns the number of different elements present.
+     *
+     * @return The number of elements present.
+     */
+    public int getNbOfPresentElements()
+    {
+        return nbOfPresentElements;
+    }
+
+    /**
+     * Returns one of the elements present, in the order they were found.
+     *
+     * @param index The index of the element, from 0 to #getNbOfPresentElements() - 1.
+     * @return The position of the element in the periodic table.
+     */
+    public int getPresentElement(int index)
+    {
+        return presentElements[index];
+    }
+
+    /**
+     * Accessor method for the number of atoms of an element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The number of atoms of the element, 0 if it is absent.
+     */
+    public long getAtomCount(int noElement)
+    {
+        return noElement < atomCounts.length ? atomCounts[noElement] : 0;
+    }
+
+    /**
+     * Accessor method for the mass contributed by an element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The number of atoms of the element times its atomic weight.
+     */
+    public double getMass(int noElement)
+    {
+        return noElement < masses.length ? masses[noElement] : 0;
+    }
+
+    /**
+     * Returns the fraction of the total weight contributed by an element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The mass fraction of the element, from 0 to 1.
+     */
+    public double getMassFraction(int noElement)
+    {
+        return weight == 0 ? 0 : getMass(noElement) / weight;
+    }
+
+    /**
+     * Returns the percentage of the total weight contributed by an element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The percent composition of the element, from 0 to 100.
+     */
+    public double getPercentComposition(int noElement)
+    {
+        return getMassFraction(noElement) * 100;
+    }
+
+    /**
+     * Copies the positions of the elements present, sorted by position in the
+     * periodic table.
+     *
+     * @return Returns a new array containing one position per element present.
+     */
+    public int[] copySortedElements()
+    {
+        int[] sortedElements = Arrays.copyOf(presentElements, nbOfPresentElements);
+        Arrays.sort(sortedElements);
+        return sortedElements;
+    }
+
+    /**
+     * Builds the composition displayed by the WebBuilders: the symbol and atomic weight
+     * of each element present, sorted by symbol.
+     *
+     * @return Returns a new TreeMap containing one entry per element present.
+     */
+    public TreeMap<String, Double> toSortedMap()
+    {
+        TreeMap<String, Double> composition = new TreeMap<>();
+        for(int i = 0; i < nbOfPresentElements; ++i)
+        {
+            int noElement = presentElements[i];
+            composition.put(periodicTable.getSymbol(noElement), periodicTable.getAtomicWeight(noElement));
+        }
+        return composition;
+    }
+}
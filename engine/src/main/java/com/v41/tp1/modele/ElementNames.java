@@ -0,0 +1,80 @@
+package com.v41.tp1.modele;
+
+/**
+ * This class contains the names of the chemical elements in one language, indexed by
+ * the position of each element in the periodic table. Only the names are kept: the
+ * symbols and atomic weights are read once from the periodic table and shared by
+ * every language, so switching language only replaces this array.
+ *
+ * The names are never replaced in place: loading a language again builds a new set.
+ *      @see PeriodicTable#loadNames(String, java.io.InputStream)
+ */
+public final class ElementNames
+{
+    /**
+     * The language of the names.
+     *      ex: fr, en.
+     */
+    private final String locale;
+
+    /**
+     * The name of each element, indexed by its position in the periodic table.
+     * Index 0 is never used, and an element missing from the file has no name.
+     */
+    private final String[] names;
+
+    /**
+     * The number of elements that have a name.
+     */
+    private final int nbOfNames;
+
+    /**
+     * Constructor of a set of names.
+     *
+     * @param locale The language of the names.
+     * @param names The name of each element, indexed by its position in the periodic table.
+     *              Never modified afterwards.
+     * @param nbOfNames The number of elements that have a name.
+     */
+    ElementNames(String locale, String[] names, int nbOfNames)
+    {
+        this.locale = locale;
+        this.names = names;
+        this.nbOfNames = nbOfNames;
+    }
+
+    /**
+     * Accessor method for the language of the names.
+     *
+     * @return The language of the names.
+     */
+    public String getLocale()
+    {
+        return locale;
+    }
+
+    /**
+     * Accessor method for the name of a single element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The name of the element, or null if this language does not name it.
+     */
+    public String getName(int noElement)
+    {
+        if(noElement <= 0 || noElement >= names.length)
+        {
+            return null;
+        }
+        return names[noElement];
+    }
+
+    /**
+     * Returns the number of elements that have a name in this language.
+     *
+     * @return The number of names.
+     */
+    public int getNbOfNames()
+    {
+        return nbOfNames;
+    }
+}
@@ -0,0 +1,419 @@
+package com.v41.tp1.modele;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * This class suggests the chemical elements that the user may be typing, from the letters
+ * found before the cursor in a formula. Up to the length of the longest symbol, the
+ * letters starting with the last uppercase one are compared with the symbols, and with
+ * the beginning of the names of the elements. Longer runs of letters, or runs without
+ * any uppercase letter, are only compared with the names.
+ *      ex: "NaC" suggests C, Ca, Cl, ..., "H2Sod" and "H2sod" suggest Na (sodium).
+ *
+ * The symbols and names are stored in sorted arrays, lowercase and without accents, so
+ * a lookup is a binary search followed by a scan of the matching keys. Nothing is
+ * allocated while suggesting: the index is only built again once another periodic table
+ * or another language is selected.
+ *
+ * The suggestions are ranked by the number of formulas calculated by the user that
+ * contain each element. Elements equally used are ranked by symbol, then by name. Every
+ * method is synchronized, so the history can be recorded by the thread calculating the
+ * formulas while the main thread suggests elements.
+ *      @see PeriodicTable#setLocale(String)
+ */
+public final class ElementSuggester
+{
+    /**
+     * The key of each Latin character, from Latin-1 to Latin Extended-A: lowercase and
+     * without accents, so the letters typed are compared with the keys without allocating.
+     *      ex: the key of é and of É is e.
+     *      @see #toKey(String)
+     */
+    private static final char[] CHARACTER_KEYS = new char[0x180];
+
+    static
+    {
+        for(char c = 0; c < CHARACTER_KEYS.length; ++c)
+        {
+            String key = toKey(String.valueOf(c));
+            CHARACTER_KEYS[c] = key.length() == 1 ? key.charAt(0) : Character.toLowerCase(c);
+        }
+    }
+
+    /**
+     * The snapshot of the periodic table the index was built from.
+     */
+    private PeriodicTableSnapshot periodicTable;
+
+    /**
+     * The names the index was built from, or null for the names of the periodic table.
+     */
+    private ElementNames names;
+
+    /**
+     * The symbols of the elements, lowercase and sorted.
+     */
+    private String[] symbolKeys;
+
+    /**
+     * The position in the periodic table of the element of each symbol key.
+     */
+    private int[] symbolElements;
+
+    /**
+     * The names of the elements, lowercase, without accents and sorted.
+     */
+    private String[] nameKeys;
+
+    /**
+     * The position in the periodic table of the element of each name key.
+     */
+    private int[] nameElements;
+
+    /**
+     * The number of characters of the longest symbol.
+     */
+    private int maxSymbolLength;
+
+    /**
+     * The number of formulas containing each element, indexed by its position in the
+     * periodic table.
+     */
+    private int[] usageCounts;
+
+    /**
+     * The rank of each suggestion of the last lookup, in the same order as the suggestions.
+     */
+    private long[] ranks;
+
+    /**
+     * The position in the formula of the first letter replaced by a suggestion of the
+     * last lookup.
+     */
+    private int replacementStart;
+
+    /**
+     * Default constructor. The index is built on the first lookup.
+     */
+    public ElementSuggester()
+    {
+        usageCounts = new int[0];
+        ranks = new long[0];
+    }
+
+    /**
+     * Adds a calculated formula to the history of the user. Each element present in the
+     * formula is counted once, whatever its number of atoms.
+     *
+     * @param result The result of the formula. An invalid formula is ignored.
+     */
+    public synchronized void recordFormula(FormulaResult result)
+    {
+        if(!result.isValid())
+        {
+            return;
+        }
+        for(int i = 0; i < result.getNbOfPresentElements(); ++i)
+        {
+            int noElement = result.getPresentElement(i);
+            if(noElement >= usageCounts.length)
+            {
+                usageCounts = Arrays.copyOf(usageCounts, noElement + 1);
+            }
+            ++usageCounts[noElement];
+        }
+    }
+
+    /**
+     * Accessor method for the number of formulas of the history containing an element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The number of formulas containing the element.
+     */
+    public synchronized int getUsageCount(int noElement)
+    {
+        return noElement < usageCounts.length ? usageCounts[noElement] : 0;
+    }
+
+    /**
+     * Finds the elements that the user may be typing before the cursor, best first.
+     *
+     * @param formula The formula being typed.
+     * @param cursor The position of the cursor in the formula.
+     * @param suggestions The array receiving the positions in the periodic table of the
+     *                    suggested elements. Its length is the maximum number of suggestions.
+     * @return Returns the number of suggestions, 0 if no letter precedes the cursor.
+     *      @see #getReplacementStart()
+     */
+    public synchronized int suggest(CharSequence formula, int cursor, int[] suggestions)
+    {
+        ensureIndex();
+        if(ranks.length < suggestions.length)
+        {
+            ranks = new long[suggestions.length];
+        }
+
+        int start = cursor;
+        while(start > 0 && Character.isLetter(formula.charAt(start - 1)))
+        {
+            --start;
+        }
+        int queryStart = start;
+        for(int i = cursor - 1; i >= start; --i)
+        {
+            if(Character.isUpperCase(formula.charAt(i)))
+            {
+                queryStart = i;
+                break;
+            }
+        }
+        replacementStart = queryStart;
+        if(queryStart == cursor || suggestions.length == 0)
+        {
+            return 0;
+        }
+
+        int nbOfSuggestions = 0;
+        if(Character.isUpperCase(formula.charAt(queryStart)) && cursor - queryStart <= maxSymbolLength)
+        {
+            nbOfSuggestions = addMatches(symbolKeys, symbolElements, 1, formula, queryStart, cursor,
+                    suggestions, nbOfSuggestions);
+        }
+        return addMatches(nameKeys, nameElements, 0, formula, queryStart, cursor, suggestions, nbOfSuggestions);
+    }
+
+    /**
+     * Accessor method for the position in the formula of the first letter that a
+     * suggestion of the last lookup replaces. The letters from this position up to the
+     * cursor are replaced by the symbol of the suggested element.
+     *
+     * @return The position of the first replaced letter.
+     */
+    public synchronized int getReplacementStart()
+    {
+        return replacementStart;
+    }
+
+    /**
+     * Internal method adding the elements whose keys start with the letters typed to the
+     * suggestions, which stay sorted from the best to the worst rank.
+     *
+     * @param keys The sorted keys.
+     * @param elements The position in the periodic table of the element of each key.
+     * @param keyRank 1 for a symbol, which is ranked before a name of an element equally used.
+     * @param formula The formula being typed.
+     * @param queryStart The position of the first letter typed.
+     * @param cursor The position following the last letter typed.
+     * @param suggestions The suggestions found so far.
+     * @param nbOfSuggestions The number of suggestions found so far.
+     * @return Returns the number of suggestions.
+     */
+    private int addMatches(String[] keys, int[] elements, int keyRank, CharSequence formula, int queryStart,
+                           int cursor, int[] suggestions, int nbOfSuggestions)
+    {
+        int low = 0;
+        int high = keys.length;
+        while(low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if(compareToPrefix(keys[middle], formula, queryStart, cursor) < 0)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        for(int key = low; key < keys.length && compareToPrefix(keys[key], formula, queryStart, cursor) == 0; ++key)
+        {
+            int noElement = elements[key];
+            long rank = ((long)(noElement < usageCounts.length ? usageCounts[noElement] : 0) << 1) | keyRank;
+            int index = 0;
+            while(index < nbOfSuggestions && suggestions[index] != noElement)
+            {
+                ++index;
+            }
+            if(index < nbOfSuggestions)
+            {
+                if(ranks[index] >= rank)
+                {
+                    continue;
+                }
+                System.arraycopy(suggestions, index + 1, suggestions, index, nbOfSuggestions - index - 1);
+                System.arraycopy(ranks, index + 1, ranks, index, nbOfSuggestions - index - 1);
+                --nbOfSuggestions;
+            }
+
+            int position = nbOfSuggestions;
+            while(position > 0 && ranks[position - 1] < rank)
+            {
+                --position;
+            }
+            if(position == suggestions.length)
+            {
+                continue;
+            }
+            int nbToMove = Math.min(nbOfSuggestions, suggestions.length - 1) - position;
+            System.arraycopy(suggestions, position, suggestions, position + 1, nbToMove);
+            System.arraycopy(ranks, position, ranks, position + 1, nbToMove);
+            suggestions[position] = noElement;
+            ranks[position] = rank;
+            nbOfSuggestions = Math.min(nbOfSuggestions + 1, suggestions.length);
+        }
+        return nbOfSuggestions;
+    }
+
+    /**
+     * Internal method building the index again if another periodic table or another
+     * language was selected since it was built.
+     */
+    private void ensureIndex()
+    {
+        PeriodicTableSnapshot periodicTable = PeriodicTable.INSTANCE.getSnapshot();
+        ElementNames names = PeriodicTable.INSTANCE.getNames();
+        if(periodicTable == this.periodicTable && names == this.names)
+        {
+            return;
+        }
+        this.periodicTable = periodicTable;
+        this.names = names;
+
+        int nbOfElements = 0;
+        for(int noElement = 1; noElement < periodicTable.getNbOfElementNumbers(); ++noElement)
+        {
+            if(isSuggestable(periodicTable, noElement))
+            {
+                ++nbOfElements;
+            }
+        }
+        String[] symbols = new String[nbOfElements];
+        String[] elementNames = new String[nbOfElements];
+        int[] elements = new int[nbOfElements];
+        maxSymbolLength = 0;
+        int element = 0;
+        for(int noElement = 1; noElement < periodicTable.getNbOfElementNumbers(); ++noElement)
+        {
+            if(!isSuggestable(periodicTable, noElement))
+            {
+                continue;
+            }
+            ChemicalElement chemicalElement = periodicTable.getChemicalElement(noElement);
+            String name = names == null ? null : names.getName(noElement);
+            symbols[element] = toKey(chemicalElement.getSymbol());
+            elementNames[element] = toKey(name == null ? chemicalElement.getName() : name);
+            elements[element] = noElement;
+            maxSymbolLength = Math.max(maxSymbolLength, symbols[element].length());
+            ++element;
+        }
+        symbolKeys = new String[nbOfElements];
+        symbolElements = new int[nbOfElements];
+        sortKeys(symbols, elements, symbolKeys, symbolElements);
+        nameKeys = new String[nbOfElements];
+        nameElements = new int[nbOfElements];
+        sortKeys(elementNames, elements, nameKeys, nameElements);
+    }
+
+    /**
+     * Internal method checking whether or not an element can be suggested. An element whose
+     * symbol is not found again in the periodic table, such as a symbol of three letters,
+     * would make the formula invalid once inserted.
+     *
+     * @param periodicTable The snapshot of the periodic table.
+     * @param noElement The position of the element in the periodic table.
+     * @return Returns true if the symbol of the element is found by the validation, else false.
+     */
+    private static boolean isSuggestable(PeriodicTableSnapshot periodicTable, int noElement)
+    {
+        ChemicalElement chemicalElement = periodicTable.getChemicalElement(noElement);
+        return chemicalElement != null && periodicTable.getAtomicNumber(chemicalElement.getSymbol(), 0) == noElement;
+    }
+
+    /**
+     * Internal method sorting keys along with the position of their element.
+     *
+     * @param keys The keys, in the order of the elements.
+     * @param elements The position in the periodic table of the element of each key.
+     * @param sortedKeys The array receiving the sorted keys.
+     * @param sortedElements The array receiving the position of the element of each sorted key.
+     */
+    private static void sortKeys(String[] keys, int[] elements, String[] sortedKeys, int[] sortedElements)
+    {
+        System.arraycopy(keys, 0, sortedKeys, 0, keys.length);
+        Arrays.sort(sortedKeys);
+        boolean[] used = new boolean[keys.length];
+        for(int i = 0; i < sortedKeys.length; ++i)
+        {
+            int element = 0;
+            while(used[element] || !keys[element].equals(sortedKeys[i]))
+            {
+                ++element;
+            }
+            used[element] = true;
+            sortedElements[i] = elements[element];
+        }
+    }
+
+    /**
+     * Internal method converting a symbol or a name into a key: lowercase and without accents.
+     *      ex: Hydrogène becomes hydrogene.
+     *
+     * @param text The symbol or name.
+     * @return The key.
+     */
+    private static String toKey(String text)
+    {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        for(int i = 0; i < decomposed.length(); ++i)
+        {
+            char c = decomposed.charAt(i);
+            if(Character.getType(c) != Character.NON_SPACING_MARK)
+            {
+                key.append(c);
+            }
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Internal method comparing a key with the letters typed, ignoring case and accents.
+     *
+     * @param key The key.
+     * @param formula The formula being typed.
+     * @param start The position of the first letter typed.
+     * @param end The position following the last letter typed.
+     * @return Returns 0 if the key starts with the letters, a negative number if the key
+     *         is sorted before them, else a positive number.
+     */
+    private static int compareToPrefix(String key, CharSequence formula, int start, int end)
+    {
+        for(int i = 0; i < end - start; ++i)
+        {
+            if(i == key.length())
+            {
+                return -1;
+            }
+            int difference = key.charAt(i) - toKey(formula.charAt(start + i));
+            if(difference != 0)
+            {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Internal method converting a letter typed into the character of a key.
+     *
+     * @param c The letter typed.
+     * @return The letter, lowercase and without accent.
+     */
+    private static char toKey(char c)
+    {
+        return c < CHARACTER_KEYS.length ? CHARACTER_KEYS[c] : Character.toLowerCase(c);
+    }
+}
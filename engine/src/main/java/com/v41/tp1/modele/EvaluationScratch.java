@@ -0,0 +1,32 @@
+package com.v41.tp1.modele;
+
+/**
+ * This class contains the working buffers needed while a single formula is validated
+ * and calculated. The buffers are cleared at the start of every use, so a thread
+ * evaluating many formulas can keep one instance and avoid allocating new buffers
+ * for each formula.
+ *
+ * An instance must never be shared by two threads at the same time.
+ */
+public final class EvaluationScratch
+{
+    /**
+     * The state of the parentheses and of the position in the formula.
+     * Used by the ChemicalValidator.
+     */
+    public final ParseState parseState = new ParseState();
+
+    /**
+     * Stack of the cumulative multipliers, one per level of parentheses: each entry is
+     * the product of every group multiplier enclosing that level. Replaced by a larger
+     * array when a formula is nested deeper than its length.
+     * Used by ChemicalComposition.calculateAtomicWeight.
+     */
+    public long[] multipliers = new long[16];
+
+    /**
+     * The number of atoms and mass of each element of the formula.
+     * Filled by ChemicalComposition.calculateComposition.
+     */
+    public final ElementComposition elementComposition = new ElementComposition();
+}
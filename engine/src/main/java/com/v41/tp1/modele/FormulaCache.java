@@ -0,0 +1,201 @@
+package com.v41.tp1.modele;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class keeps the CachedFormula of the most recently used chemical formulas,
+ * keyed by the formula as inputted. Once the cache is full, the least recently used
+ * formula is evicted.
+ *
+ * Each cached formula was evaluated with one version of the periodic table. Once another
+ * table is loaded, a formula of an older version is only removed when it is looked up
+ * again, so loading a table never needs to walk through the cache.
+ *
+ * The numbers of hits, misses, evictions and invalidations are counted so that the size of the cache
+ * can be adjusted to the traffic. Every method is synchronized, so a cache can be
+ * shared by many threads.
+ *      @see CachedFormula
+ */
+public class FormulaCache
+{
+    /**
+     * The default maximum number of formulas kept in a cache.
+     */
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    /**
+     * The cached formulas, from the least to the most recently used.
+     */
+    private final LinkedHashMap<String, CachedFormula> entries;
+
+    /**
+     * The maximum number of formulas kept in the cache.
+     */
+    private final int maxSize;
+
+    /**
+     * The number of lookups that found their formula.
+     */
+    private long hitCount;
+
+    /**
+     * The number of lookups that did not find their formula.
+     */
+    private long missCount;
+
+    /**
+     * The number of formulas removed to make room for new ones.
+     */
+    private long evictionCount;
+
+    /**
+     * The number of formulas removed because they were evaluated with an older
+     * periodic table.
+     */
+    private long invalidationCount;
+
+    /**
+     * Default constructor. The cache keeps up to #DEFAULT_MAX_SIZE formulas.
+     */
+    public FormulaCache()
+    {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Overloaded constructor.
+     *
+     * @param maxSize The maximum number of formulas kept in the cache, at least 1.
+     */
+    public FormulaCache(int maxSize)
+    {
+        if(maxSize < 1)
+        {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.maxSize = maxSize;
+        entries = new LinkedHashMap<String, CachedFormula>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedFormula> eldest)
+            {
+                if(size() > FormulaCache.this.maxSize)
+                {
+                    ++evictionCount;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up a formula, which becomes the most recently used one if it is found.
+     * A formula evaluated with another version of the periodic table than the one in
+     * use is removed, and counts as a miss.
+     *
+     * @param formula The chemical formula, as inputted.
+     * @return The cached formula, or null if it is not in the cache.
+     */
+    public synchronized CachedFormula get(String formula)
+    {
+        CachedFormula cachedFormula = entries.get(formula);
+        if(cachedFormula != null
+                && cachedFormula.getResult().getTableVersion() != PeriodicTable.INSTANCE.getVersion())
+        {
+            entries.remove(formula);
+            ++invalidationCount;
+            cachedFormula = null;
+        }
+        if(cachedFormula == null)
+        {
+            ++missCount;
+        }
+        else
+        {
+            ++hitCount;
+        }
+        return cachedFormula;
+    }
+
+    /**
+     * Adds a formula to the cache, evicting the least recently used one if the cache is full.
+     *
+     * @param formula The chemical formula, as inputted.
+     * @param cachedFormula The result and update script of the formula.
+     */
+    public synchronized void put(String formula, CachedFormula cachedFormula)
+    {
+        entries.put(formula, cachedFormula);
+    }
+
+    /**
+     * Removes every formula from the cache. The counters are kept.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of formulas in the cache.
+     *
+     * @return The number of formulas.
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Accessor method for the maximum number of formulas kept in the cache.
+     *
+     * @return The maximum number of formulas.
+     */
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Accessor method for the number of lookups that found their formula.
+     *
+     * @return The number of hits.
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Accessor method for the number of lookups that did not find their formula.
+     *
+     * @return The number of misses.
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Accessor method for the number of formulas removed to make room for new ones.
+     *
+     * @return The number of evictions.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    /**
+     * Accessor method for the number of formulas removed because they were evaluated
+     * with an older periodic table.
+     *
+     * @return The number of invalidations.
+     */
+    public synchronized long getInvalidationCount()
+    {
+        return invalidationCount;
+    }
+}
@@ -0,0 +1,197 @@
+package com.v41.tp1.modele;
+
+import java.util.Arrays;
+
+/**
+ * This class reduces a calculated chemical formula to its chemical identity, so that
+ * equivalent inputs such as "H2O", "OH2" and "(H2O)" can be recognised as the same
+ * compound. Two forms are produced from the number of atoms of each element:
+ *
+ *      The Hill notation: C first, then H, then every other element in alphabetical
+ *      order of symbol. When the formula contains no carbon, every element, H
+ *      included, is in alphabetical order. A count of 1 is omitted.
+ *          ex: "OH2" and "(H2O)" both become "H2O", "C2H5OH" becomes "C2H6O".
+ *
+ *      A 64-bit fingerprint, which does not depend on the order of the elements and
+ *      can therefore be computed without sorting.
+ *
+ * The elements are ordered by their rank in the periodic table, so no String is
+ * compared or sorted. The ranks and symbols are read from the snapshot of the periodic
+ * table the formula was calculated with. The class contains no state and can be used
+ * from many threads.
+ *      @see PeriodicTableSnapshot#getAlphabeticalRank(int)
+ */
+public enum FormulaCanonicalizer
+{
+    /**
+     * The instance of the FormulaCanonicalizer class.
+     */
+    INSTANCE;
+
+    /**
+     * The position of carbon in the periodic table.
+     */
+    private static final int CARBON = 6;
+
+    /**
+     * The position of hydrogen in the periodic table.
+     */
+    private static final int HYDROGEN = 1;
+
+    /**
+     * Computes the fingerprint of a calculated formula.
+     *
+     * @param elementComposition The number of atoms of each element of the formula.
+     * @return Returns the fingerprint. Formulas with the same number of atoms of each
+     *         element have the same fingerprint.
+     */
+    public long fingerprint(ElementComposition elementComposition)
+    {
+        long fingerprint = 0;
+        for(int i = 0; i < elementComposition.getNbOfPresentElements(); ++i)
+        {
+            int noElement = elementComposition.getPresentElement(i);
+            fingerprint += mix(noElement, elementComposition.getAtomCount(noElement));
+        }
+        return finish(fingerprint, elementComposition.getNbOfPresentElements());
+    }
+
+    /**
+     * Same as #fingerprint(ElementComposition), but for a composition stored as parallel arrays.
+     *
+     * @param elements The positions in the periodic table of the elements present, in any order.
+     * @param atomCounts The number of atoms of each element, in the same order.
+     * @param nbOfElements The number of elements present.
+     * @return Returns the fingerprint.
+     */
+    public long fingerprint(int[] elements, long[] atomCounts, int nbOfElements)
+    {
+        long fingerprint = 0;
+        for(int i = 0; i < nbOfElements; ++i)
+        {
+            fingerprint += mix(elements[i], atomCounts[i]);
+        }
+        return finish(fingerprint, nbOfElements);
+    }
+
+    /**
+     * Builds the Hill notation of a calculated formula.
+     *
+     * @param elementComposition The number of atoms of each element of the formula.
+     * @return Returns the formula in Hill notation.
+     */
+    public String toHillNotation(ElementComposition elementComposition)
+    {
+        int nbOfElements = elementComposition.getNbOfPresentElements();
+        int[] elements = new int[nbOfElements];
+        long[] atomCounts = new long[nbOfElements];
+        for(int i = 0; i < nbOfElements; ++i)
+        {
+            elements[i] = elementComposition.getPresentElement(i);
+            atomCounts[i] = elementComposition.getAtomCount(elements[i]);
+        }
+        return toHillNotation(elementComposition.getPeriodicTable(), elements, atomCounts, nbOfElements);
+    }
+
+    /**
+     * Same as #toHillNotation(ElementComposition), but for a composition stored as
+     * parallel arrays. The arrays are not modified.
+     *
+     * @param periodicTable The snapshot of the periodic table the formula was calculated with.
+     * @param elements The positions in the periodic table of the elements present, in any order.
+     * @param atomCounts The number of atoms of each element, in the same order.
+     * @param nbOfElements The number of elements present.
+     * @return Returns the formula in Hill notation.
+     */
+    public String toHillNotation(PeriodicTableSnapshot periodicTable, int[] elements, long[] atomCounts,
+                                 int nbOfElements)
+    {
+        StringBuilder hillNotation = new StringBuilder(nbOfElements * 4);
+        long nbOfCarbons = 0;
+        long nbOfHydrogens = 0;
+        // The alphabetical rank of each element placed in alphabetical order, packed with
+        // its index in the arrays, so that sorting the numbers sorts the elements.
+        long[] ranks = new long[nbOfElements];
+        for(int i = 0; i < nbOfElements; ++i)
+        {
+            if(elements[i] == CARBON)
+            {
+                nbOfCarbons = atomCounts[i];
+            }
+            else if(elements[i] == HYDROGEN)
+            {
+                nbOfHydrogens = atomCounts[i];
+            }
+        }
+        int nbOfRanks = 0;
+        for(int i = 0; i < nbOfElements; ++i)
+        {
+            if(nbOfCarbons == 0 || (elements[i] != CARBON && elements[i] != HYDROGEN))
+            {
+                ranks[nbOfRanks++] = ((long)periodicTable.getAlphabeticalRank(elements[i]) << 32) | i;
+            }
+        }
+        Arrays.sort(ranks, 0, nbOfRanks);
+
+        if(nbOfCarbons > 0)
+        {
+            appendElement(hillNotation, periodicTable, CARBON, nbOfCarbons);
+            if(nbOfHydrogens > 0)
+            {
+                appendElement(hillNotation, periodicTable, HYDROGEN, nbOfHydrogens);
+            }
+        }
+        for(int i = 0; i < nbOfRanks; ++i)
+        {
+            int index = (int)ranks[i];
+            appendElement(hillNotation, periodicTable, elements[index], atomCounts[index]);
+        }
+        return hillNotation.toString();
+    }
+
+    /**
+     * Internal method appending an element and its number of atoms to a formula.
+     *
+     * @param formula The formula being built.
+     * @param periodicTable The snapshot of the periodic table the formula was calculated with.
+     * @param noElement The position of the element in the periodic table.
+     * @param nbOfAtoms The number of atoms of the element, omitted if it is 1.
+     */
+    private static void appendElement(StringBuilder formula, PeriodicTableSnapshot periodicTable, int noElement,
+                                      long nbOfAtoms)
+    {
+        formula.append(periodicTable.getSymbol(noElement));
+        if(nbOfAtoms != 1)
+        {
+            formula.append(nbOfAtoms);
+        }
+    }
+
+    /**
+     * Internal method mixing an element and its number of atoms into 64 well distributed
+     * bits. The mixed values of the elements are added, so their order does not matter.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @param nbOfAtoms The number of atoms of the element.
+     * @return Returns the mixed value.
+     */
+    private static long mix(int noElement, long nbOfAtoms)
+    {
+        return finish(nbOfAtoms * 0x9E3779B97F4A7C15L + noElement, 0);
+    }
+
+    /**
+     * Internal method scrambling the bits of a value (the finalizer of SplitMix64).
+     *
+     * @param value The value to scramble.
+     * @param salt A value added before scrambling.
+     * @return Returns the scrambled value.
+     */
+    private static long finish(long value, long salt)
+    {
+        long z = value + salt;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,398 @@
+package com.v41.tp1.modele;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * This class represents the immutable result of the evaluation of a single chemical
+ * formula. A valid result contains the Tokens, the total weight, and the number of atoms
+ * and mass of each chemical element of the formula. An invalid result contains the code
+ * and position of the validation error.
+ *
+ * Since its content cannot be modified post construction, a result can be shared
+ * freely between threads. It records the version of the periodic table it was
+ * evaluated with, so that it can be discarded once another table is loaded.
+ */
+public final class FormulaResult
+{
+    /**
+     * The error code of a valid formula.
+     */
+    public static final int NO_ERROR = -1;
+
+    /**
+     * The evaluated chemical formula, as inputted.
+     */
+    private final String formula;
+
+    /**
+     * The packed Tokens of the formula.
+     */
+    private final TokenStream tokenStream;
+
+    /**
+     * The Tokens of the formula converted into Token objects. Only created if requested.
+     */
+    private volatile List<Token> tokens;
+
+    /**
+     * The total weight of the formula, or 0 if the formula is invalid.
+     */
+    private final double weight;
+
+    /**
+     * The positions in the periodic table of the elements present, sorted.
+     */
+    private final int[] elements;
+
+    /**
+     * The number of atoms of each element present, in the same order as #elements.
+     */
+    private final long[] atomCounts;
+
+    /**
+     * The mass contributed by each element present, in the same order as #elements.
+     */
+    private final double[] masses;
+
+    /**
+     * The fingerprint of the chemical identity of the formula, or 0 if the formula is invalid.
+     *      @see FormulaCanonicalizer
+     */
+    private final long fingerprint;
+
+    /**
+     * The formula in Hill notation. Only created if requested.
+     */
+    private volatile String hillFormula;
+
+    /**
+     * Composition containing a single copy of the symbol and atomic weight
+     * of each type of chemical element present in the molecule. Only created if requested.
+     */
+    private volatile SortedMap<String, Double> composition;
+
+    /**
+     * The snapshot of the periodic table the formula was evaluated with.
+     */
+    private final PeriodicTableSnapshot periodicTable;
+
+    /**
+     * The index of the validation error message, or #NO_ERROR.
+     */
+    private final int errorCode;
+
+    /**
+     * The position in the formula where the validation error was found, or -1.
+     */
+    private final int errorPosition;
+
+    /**
+     * The message to be displayed to the user.
+     */
+    private final String message;
+
+    /**
+     * The constructor used for a valid formula.
+     *
+     * @param formula The evaluated chemical formula.
+     * @param tokenStream The Tokens of the formula. The stream must not be modified afterwards.
+     * @param elementComposition The calculated composition of the formula. Only the elements
+     *                           present are copied, so it can be reused afterwards.
+     * @param message The message to be displayed to the user.
+     */
+    public FormulaResult(String formula, TokenStream tokenStream, ElementComposition elementComposition, String message)
+    {
+        this.formula = formula;
+        this.tokenStream = tokenStream;
+        this.weight = elementComposition.getWeight();
+        this.elements = elementComposition.copySortedElements();
+        this.atomCounts = new long[elements.length];
+        this.masses = new double[elements.length];
+        for(int i = 0; i < elements.length; ++i)
+        {
+            atomCounts[i] = elementComposition.getAtomCount(elements[i]);
+            masses[i] = elementComposition.getMass(elements[i]);
+        }
+        this.fingerprint = FormulaCanonicalizer.INSTANCE.fingerprint(elements, atomCounts, elements.length);
+        this.periodicTable = elementComposition.getPeriodicTable();
+        this.errorCode = NO_ERROR;
+        this.errorPosition = -1;
+        this.message = message;
+    }
+
+    /**
+     * The constructor used for an invalid formula.
+     *
+     * @param formula The evaluated chemical formula.
+     * @param errorCode The index of the validation error message.
+     * @param errorPosition The position in the formula where the error was found.
+     * @param message The message to be displayed to the user.
+     */
+    public FormulaResult(String formula, int errorCode, int errorPosition, String message)
+    {
+        this.formula = formula;
+        this.tokenStream = new TokenStream();
+        this.weight = 0;
+        this.elements = new int[0];
+        this.atomCounts = new long[0];
+        this.masses = new double[0];
+        this.fingerprint = 0;
+        this.periodicTable = PeriodicTable.INSTANCE.getSnapshot();
+        this.errorCode = errorCode;
+        this.errorPosition = errorPosition;
+        this.message = message;
+    }
+
+    /**
+     * Returns whether or not the formula is valid.
+     *
+     * @return Returns true if the formula is valid, else false.
+     */
+    public boolean isValid()
+    {
+        return errorCode == NO_ERROR;
+    }
+
+    /**
+     * Accessor method for the evaluated formula.
+     *
+     * @return Returns the formula, as inputted.
+     */
+    public String getFormula()
+    {
+        return formula;
+    }
+
+    /**
+     * Accessor method for the packed Tokens of the formula.
+     *
+     * @return Returns the Tokens, empty if the formula is invalid. The stream must not be modified.
+     */
+    public TokenStream getTokenStream()
+    {
+        return tokenStream;
+    }
+
+    /**
+     * Accessor method for the Tokens of the formula, converted into Token objects
+     * the first time they are requested.
+     *
+     * @return Returns a read-only list of the Tokens, empty if the formula is invalid.
+     */
+    public List<Token> getTokens()
+    {
+        if(tokens == null)
+        {
+            tokens = Collections.unmodifiableList(tokenStream.toTokens());
+        }
+        return tokens;
+    }
+
+    /**
+     * Accessor method for the total weight of the formula.
+     *
+     * @return Returns the total weight of the molecule, or 0 if the formula is invalid.
+     */
+    public double getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Accessor method for the composition of the formula, created the first time it
+     * is requested.
+     *
+     * @return Returns a read-only map of the symbol and atomic weight of each type of
+     * chemical element present in the molecule.
+     */
+    public SortedMap<String, Double> getComposition()
+    {
+        if(composition == null)
+        {
+            TreeMap<String, Double> sortedComposition = new TreeMap<>();
+            for(int noElement : elements)
+            {
+                sortedComposition.put(periodicTable.getSymbol(noElement), periodicTable.getAtomicWeight(noElement));
+            }
+            composition = Collections.unmodifiableSortedMap(sortedComposition);
+        }
+        return composition;
+    }
+
+    /**
+     * Internal accessor method for the snapshot of the periodic table the formula was
+     * evaluated with.
+     *
+     * @return The snapshot of the periodic table.
+     */
+    PeriodicTableSnapshot getPeriodicTable()
+    {
+        return periodicTable;
+    }
+
+    /**
+     * Accessor method for the version of the periodic table the formula was evaluated with.
+     * An invalid formula records the version in use when it was validated.
+     *
+     * @return Returns the version of the periodic table, 0 if none was loaded.
+     *      @see PeriodicTable#getVersion()
+     */
+    public long getTableVersion()
+    {
+        return periodicTable.getVersion();
+    }
+
+    /**
+     * Accessor method for the fingerprint of the chemical identity of the formula.
+     * Equivalent formulas, such as "H2O", "OH2" and "(H2O)", have the same fingerprint.
+     *
+     * @return Returns the fingerprint, or 0 if the formula is invalid.
+     *      @see #isSameCompound(FormulaResult)
+     */
+    public long getFingerprint()
+    {
+        return fingerprint;
+    }
+
+    /**
+     * Accessor method for the canonical form of the formula, created the first time it
+     * is requested.
+     *
+     * @return Returns the formula in Hill notation, or an empty String if the formula is invalid.
+     *      @see FormulaCanonicalizer#toHillNotation(PeriodicTableSnapshot, int[], long[], int)
+     */
+    public String getHillFormula()
+    {
+        if(hillFormula == null)
+        {
+            hillFormula = FormulaCanonicalizer.INSTANCE.toHillNotation(periodicTable, elements, atomCounts, elements.length);
+        }
+        return hillFormula;
+    }
+
+    /**
+     * Returns whether or not two formulas have the same number of atoms of each element.
+     *
+     * @param other The result of the other formula.
+     * @return Returns true if both formulas are valid and represent the same compound, else false.
+     */
+    public boolean isSameCompound(FormulaResult other)
+    {
+        return isValid() && other.isValid() && fingerprint == other.fingerprint
+                && Arrays.equals(elements, other.elements) && Arrays.equals(atomCounts, other.atomCounts);
+    }
+
+    /**
+     * Reduces the result to the number of atoms of each element, which can then be
+     * evaluated against other tables of atomic weights without parsing the formula again.
+     *
+     * @return Returns the compiled formula, or null if the formula is invalid.
+     *      @see CompiledFormula
+     */
+    public CompiledFormula compile()
+    {
+        return isValid() ? new CompiledFormula(elements, atomCounts) : null;
+    }
+
+    /**
+     * Returns the number of different elements present in the molecule.
+     *
+     * @return The number of elements present, 0 if the formula is invalid.
+     */
+    public int getNbOfPresentElements()
+    {
+        return elements.length;
+    }
+
+    /**
+     * Returns one of the elements present in the molecule, sorted by position in the
+     * periodic table.
+     *
+     * @param index The index of the element, from 0 to #getNbOfPresentElements() - 1.
+     * @return The position of the element in the periodic table.
+     */
+    public int getPresentElement(int index)
+    {
+        return elements[index];
+    }
+
+    /**
+     * Returns the number of atoms of a chemical element in the molecule.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The number of atoms of the element, 0 if it is absent.
+     */
+    public long getAtomCount(int noElement)
+    {
+        int index = Arrays.binarySearch(elements, noElement);
+        return index < 0 ? 0 : atomCounts[index];
+    }
+
+    /**
+     * Returns the mass contributed by a chemical element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The number of atoms of the element times its atomic weight.
+     */
+    public double getMass(int noElement)
+    {
+        int index = Arrays.binarySearch(elements, noElement);
+        return index < 0 ? 0 : masses[index];
+    }
+
+    /**
+     * Returns the fraction of the total weight contributed by a chemical element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The mass fraction of the element, from 0 to 1.
+     */
+    public double getMassFraction(int noElement)
+    {
+        return weight == 0 ? 0 : getMass(noElement) / weight;
+    }
+
+    /**
+     * Returns the percentage of the total weight contributed by a chemical element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The percent composition of the element, from 0 to 100.
+     */
+    public double getPercentComposition(int noElement)
+    {
+        return getMassFraction(noElement) * 100;
+    }
+
+    /**
+     * Accessor method for the error code.
+     *
+     * @return Returns the index of the validation error message, or #NO_ERROR.
+     */
+    public int getErrorCode()
+    {
+        return errorCode;
+    }
+
+    /**
+     * Accessor method for the position of the error.
+     *
+     * @return Returns the position in the formula where the error was found, or -1.
+     */
+    public int getErrorPosition()
+    {
+        return errorPosition;
+    }
+
+    /**
+     * Accessor method for the message to be displayed to the user.
+     *
+     * @return Returns the validation message.
+     */
+    public String getMessage()
+    {
+        return message;
+    }
+}
@@ -0,0 +1,844 @@
+package com.v41.tp1.modele;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the number of atoms of each element of a formula up to date while
+ * the formula is edited, without calculating the whole formula again after each edit.
+ *
+ * The parenthesized groups of the formula form a tree whose root is the formula itself.
+ * Each group keeps the number of atoms of each element it contains, before its own
+ * multiplier is applied. When a range of Tokens is replaced, only the terms of the
+ * edited range are calculated: the difference between the new and the old terms is
+ * added to the innermost group enclosing the range, then multiplied by that group's
+ * multiplier and added to its parent, up to the root. The work therefore depends on
+ * the size of the edit and on the depth of the group, not on the size of the formula.
+ *
+ * A term is an element or a whole group, with the multiplier following it. An edit that
+ * cuts a term, or that adds or removes a parenthesis, is widened to the enclosing group,
+ * which is then calculated again entirely.
+ *
+ * An instance follows a single formula being edited, and must never be shared by two
+ * threads at the same time.
+ *      @see ChemicalComposition#update(TokenStream)
+ */
+public final class IncrementalComposition
+{
+    /**
+     * The id of the group representing the whole formula.
+     */
+    private static final int ROOT = 0;
+
+    /**
+     * Mask of the bits holding the position of a packed Token.
+     */
+    private static final long POSITION_MASK = 0x7FFFFFFFL << 31;
+
+    /**
+     * The packed Tokens of the formula.
+     */
+    private long[] tokens = new long[16];
+
+    /**
+     * The number of Tokens of the formula.
+     */
+    private int size;
+
+    /**
+     * The snapshot of the periodic table in which the elements of the Tokens were found.
+     */
+    private PeriodicTableSnapshot periodicTable = PeriodicTable.INSTANCE.getSnapshot();
+
+    /**
+     * For each group, the index of the Token of its opening parenthesis, -1 for the root.
+     * Indexed by group id, like the other group arrays.
+     */
+    private int[] groupOpenings = new int[8];
+
+    /**
+     * For each group, the index of the Token of its closing parenthesis, the number of
+     * Tokens for the root.
+     */
+    private int[] groupClosings = new int[8];
+
+    /**
+     * For each group, the id of the group enclosing it, -1 for the root.
+     */
+    private int[] groupParents = new int[8];
+
+    /**
+     * For each group, the multiplier following its closing parenthesis, or 1.
+     */
+    private long[] groupMultipliers = new long[8];
+
+    /**
+     * For each group, the number of atoms of each element it contains, before its own
+     * multiplier is applied. The counts of the root are those of the whole formula.
+     */
+    private AtomCounts[] groupCounts = new AtomCounts[8];
+
+    /**
+     * The number of group ids created, whether they are used or free.
+     */
+    private int nbOfGroupIds;
+
+    /**
+     * The ids of the groups removed from the formula, which can be used again.
+     */
+    private int[] freeGroups = new int[8];
+
+    /**
+     * The number of free group ids.
+     */
+    private int nbOfFreeGroups;
+
+    /**
+     * The ids of the groups of the formula, the root excepted, sorted by the index of
+     * their opening parenthesis.
+     */
+    private int[] groupsByOpening = new int[8];
+
+    /**
+     * The number of groups of the formula, the root excepted.
+     */
+    private int nbOfGroups;
+
+    /**
+     * The difference between the new and the old terms of the edited range.
+     */
+    private final AtomCounts delta = new AtomCounts();
+
+    /**
+     * The ids of the groups created by the last edit, in the order of their opening parenthesis.
+     */
+    private int[] newGroups = new int[8];
+
+    /**
+     * The number of groups created by the last edit.
+     */
+    private int nbOfNewGroups;
+
+    /**
+     * The ids of the groups opened and not closed yet while the edited range is calculated.
+     */
+    private int[] openGroups = new int[8];
+
+    /**
+     * The number of Tokens calculated by the last edit.
+     */
+    private int nbOfEvaluatedTokens;
+
+    /**
+     * Default constructor. The formula starts empty.
+     */
+    public IncrementalComposition()
+    {
+        groupCounts[ROOT] = new AtomCounts();
+        clear();
+    }
+
+    /**
+     * Removes every Token of the formula.
+     */
+    public void clear()
+    {
+        size = 0;
+        nbOfGroupIds = 1;
+        nbOfFreeGroups = 0;
+        nbOfGroups = 0;
+        groupOpenings[ROOT] = -1;
+        groupClosings[ROOT] = 0;
+        groupParents[ROOT] = -1;
+        groupMultipliers[ROOT] = 1;
+        groupCounts[ROOT].clear();
+    }
+
+    /**
+     * Replaces the formula by a new version of it. The Tokens that did not change at the
+     * beginning and at the end of the formula are found by comparing both versions, and
+     * only the Tokens between them are calculated again. If the new version was validated
+     * with another snapshot of the periodic table, the whole formula is calculated again.
+     *
+     * @param formulaTokens The validated Tokens of the new version of the formula.
+     * @throws MultiplierOverflowException If a number of atoms does not fit in a long. The
+     *                                     formula is then cleared.
+     */
+    public void update(TokenStream formulaTokens)
+    {
+        if(formulaTokens.getPeriodicTable() != periodicTable)
+        {
+            clear();
+            periodicTable = formulaTokens.getPeriodicTable();
+        }
+        int newSize = formulaTokens.size();
+        int maxLength = Math.min(size, newSize);
+        int prefix = 0;
+        while(prefix < maxLength && isSameToken(tokens[prefix], formulaTokens.get(prefix)))
+        {
+            ++prefix;
+        }
+        int suffix = 0;
+        while(suffix < maxLength - prefix && isSameToken(tokens[size - 1 - suffix], formulaTokens.get(newSize - 1 - suffix)))
+        {
+            ++suffix;
+        }
+        replace(prefix, size - suffix, formulaTokens, prefix, newSize - suffix);
+        // The unchanged Tokens following the edit may have moved in the formula.
+        for(int i = prefix; i < newSize; ++i)
+        {
+            tokens[i] = formulaTokens.get(i);
+        }
+    }
+
+    /**
+     * Replaces a range of Tokens of the formula by Tokens of another stream.
+     *
+     * @param start The index of the first Token replaced.
+     * @param end The index following the last Token replaced.
+     * @param replacement The stream containing the new Tokens.
+     * @param from The index of the first new Token in the replacement stream.
+     * @param to The index following the last new Token in the replacement stream.
+     * @throws MultiplierOverflowException If a number of atoms does not fit in a long. The
+     *                                     formula is then cleared.
+     */
+    public void replace(int start, int end, TokenStream replacement, int from, int to)
+    {
+        int length = to - from;
+        int newSize = size - (end - start) + length;
+        nbOfEvaluatedTokens = 0;
+        if(end == start && length == 0)
+        {
+            return;
+        }
+        // The edited range starts at first in both versions, and is followed by the same
+        // unchanged Tokens, suffix of them.
+        int first = start;
+        int suffix = size - end;
+        int group;
+        while(true)
+        {
+            if((first < size && isNumber(tokens[first]))
+                    || (first < newSize && isNumber(getNewToken(first, start, end, replacement, from, to))))
+            {
+                // An element or a group is separated from its multiplier.
+                --first;
+                continue;
+            }
+            if(suffix > 0 && isNumber(tokens[size - suffix]))
+            {
+                --suffix;
+                continue;
+            }
+            group = findEnclosingGroup(first);
+            if((first == 0 && suffix == 0) || (isBalanced(first, size - suffix, start, end, null, from, to)
+                    && isBalanced(first, newSize - suffix, start, end, replacement, from, to)))
+            {
+                break;
+            }
+            // A parenthesis is added or removed: the whole enclosing group is calculated again.
+            if(group == ROOT)
+            {
+                first = 0;
+                suffix = 0;
+            }
+            else
+            {
+                first = groupOpenings[group];
+                suffix = Math.min(suffix, size - groupClosings[group] - 1);
+            }
+        }
+        int oldEnd = size - suffix;
+        int newEnd = newSize - suffix;
+
+        try
+        {
+            delta.clear();
+            int firstGroup = findFirstGroupFrom(first);
+            int endGroup = subtractTerms(first, oldEnd, firstGroup);
+            splice(start, end, replacement, from, to);
+            addTerms(first, newEnd, group);
+            updateGroups(firstGroup, endGroup, newEnd - oldEnd, group);
+            size = newSize;
+            groupClosings[ROOT] = newSize;
+            propagate(group);
+        }
+        catch(MultiplierOverflowException e)
+        {
+            clear();
+            throw e;
+        }
+        nbOfEvaluatedTokens = newEnd - first;
+    }
+
+    /**
+     * Returns the number of atoms of an element in the formula.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The number of atoms of the element, 0 if it is absent.
+     */
+    public long getAtomCount(int noElement)
+    {
+        return groupCounts[ROOT].get(noElement);
+    }
+
+    /**
+     * Returns the number of Tokens of the formula.
+     *
+     * @return The number of Tokens.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of Tokens calculated by the last edit. The Tokens removed by
+     * the edit are not counted, since the groups among them are not calculated again.
+     *
+     * @return The number of Tokens calculated.
+     */
+    public int getNbOfEvaluatedTokens()
+    {
+        return nbOfEvaluatedTokens;
+    }
+
+    /**
+     * Copies the number of atoms of each element of the formula into a composition,
+     * then computes the masses.
+     *
+     * @param elementComposition The composition to fill. Its previous content is cleared, and
+     *                           it reads the snapshot of the periodic table of the formula.
+     * @return Returns the total weight of the formula.
+     */
+    public double fill(ElementComposition elementComposition)
+    {
+        elementComposition.clear(periodicTable);
+        AtomCounts rootCounts = groupCounts[ROOT];
+        for(int i = 0; i < rootCounts.nbOfElements; ++i)
+        {
+            int noElement = rootCounts.elements[i];
+            if(rootCounts.counts[noElement] != 0)
+            {
+                elementComposition.addAtoms(noElement, rootCounts.counts[noElement], 0);
+            }
+        }
+        return elementComposition.computeMasses();
+    }
+
+    /**
+     * Internal method returning a Token of the formula as it will be once a range of
+     * Tokens is replaced.
+     *
+     * @param index The index of the Token in the new version of the formula.
+     * @param start The index of the first Token replaced.
+     * @param end The index following the last Token replaced.
+     * @param replacement The stream containing the new Tokens, or null to read the old version.
+     * @param from The index of the first new Token in the replacement stream.
+     * @param to The index following the last new Token in the replacement stream.
+     * @return Returns the packed Token.
+     */
+    private long getNewToken(int index, int start, int end, TokenStream replacement, int from, int to)
+    {
+        if(replacement == null || index < start)
+        {
+            return tokens[index];
+        }
+        if(index < start + to - from)
+        {
+            return replacement.get(from + index - start);
+        }
+        return tokens[index - (to - from) + (end - start)];
+    }
+
+    /**
+     * Internal method checking that every parenthesis of a range of Tokens is matched
+     * within the range.
+     *
+     * @param rangeStart The index of the first Token of the range.
+     * @param rangeEnd The index following the last Token of the range.
+     * @param start The index of the first Token replaced.
+     * @param end The index following the last Token replaced.
+     * @param replacement The stream containing the new Tokens, or null to check the old version.
+     * @param from The index of the first new Token in the replacement stream.
+     * @param to The index following the last new Token in the replacement stream.
+     * @return Returns true if the range is balanced, else false.
+     */
+    private boolean isBalanced(int rangeStart, int rangeEnd, int start, int end, TokenStream replacement, int from, int to)
+    {
+        int depth = 0;
+        for(int i = rangeStart; i < rangeEnd; ++i)
+        {
+            long token = getNewToken(i, start, end, replacement, from, to);
+            if(TokenStream.getType(token) == TokenStream.PARENTHESIS)
+            {
+                depth += TokenStream.getValue(token) == TokenStream.OPENING_PARENTHESIS ? 1 : -1;
+                if(depth < 0)
+                {
+                    return false;
+                }
+            }
+        }
+        return depth == 0;
+    }
+
+    /**
+     * Internal method finding the innermost group containing a Token, or the position
+     * preceding it.
+     *
+     * @param index The index of the Token.
+     * @return Returns the id of the group.
+     */
+    private int findEnclosingGroup(int index)
+    {
+        int k = findFirstGroupFrom(index) - 1;
+        int group = k < 0 ? ROOT : groupsByOpening[k];
+        while(group != ROOT && groupClosings[group] < index)
+        {
+            group = groupParents[group];
+        }
+        return group;
+    }
+
+    /**
+     * Internal method finding the first group opened at or after a Token.
+     *
+     * @param index The index of the Token.
+     * @return Returns the index of the group in #groupsByOpening, #nbOfGroups if there is none.
+     */
+    private int findFirstGroupFrom(int index)
+    {
+        int low = 0;
+        int high = nbOfGroups;
+        while(low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if(groupOpenings[groupsByOpening[middle]] < index)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Internal method subtracting the old terms of the edited range from the #delta.
+     * The groups of the range are not calculated again: their counts are used instead,
+     * and their ids are freed.
+     *
+     * @param rangeStart The index of the first Token of the range.
+     * @param rangeEnd The index following the last Token of the range.
+     * @param firstGroup The index in #groupsByOpening of the first group of the range.
+     * @return Returns the index in #groupsByOpening following the last group of the range.
+     */
+    private int subtractTerms(int rangeStart, int rangeEnd, int firstGroup)
+    {
+        int k = firstGroup;
+        int i = rangeStart;
+        while(i < rangeEnd)
+        {
+            long token = tokens[i];
+            if(TokenStream.getType(token) == TokenStream.CHEMICAL_ELEMENT_SYMBOL)
+            {
+                ++i;
+                long nbOfAtoms = 1;
+                if(i < rangeEnd && isNumber(tokens[i]))
+                {
+                    nbOfAtoms = TokenStream.getValue(tokens[i]);
+                    ++i;
+                }
+                delta.add(TokenStream.getValue(token), -nbOfAtoms, TokenStream.getPosition(token));
+            }
+            else
+            {
+                // Opening parenthesis of a group of the range.
+                int group = groupsByOpening[k];
+                delta.addScaled(groupCounts[group], -groupMultipliers[group], getMultiplierPosition(group));
+                i = groupClosings[group] + 1;
+                if(i < rangeEnd && isNumber(tokens[i]))
+                {
+                    ++i;
+                }
+                while(k < nbOfGroups && groupOpenings[groupsByOpening[k]] < i)
+                {
+                    freeGroup(groupsByOpening[k]);
+                    ++k;
+                }
+            }
+        }
+        return k;
+    }
+
+    /**
+     * Internal method replacing a range of Tokens by the new ones.
+     *
+     * @param start The index of the first Token replaced.
+     * @param end The index following the last Token replaced.
+     * @param replacement The stream containing the new Tokens.
+     * @param from The index of the first new Token in the replacement stream.
+     * @param to The index following the last new Token in the replacement stream.
+     */
+    private void splice(int start, int end, TokenStream replacement, int from, int to)
+    {
+        int newSize = size - (end - start) + (to - from);
+        if(newSize > tokens.length)
+        {
+            tokens = Arrays.copyOf(tokens, Math.max(newSize, tokens.length * 2));
+        }
+        System.arraycopy(tokens, end, tokens, start + to - from, size - end);
+        for(int i = from; i < to; ++i)
+        {
+            tokens[start + i - from] = replacement.get(i);
+        }
+    }
+
+    /**
+     * Internal method adding the new terms of the edited range to the #delta. The groups
+     * of the range are created, with their counts, and listed in #newGroups.
+     *
+     * @param rangeStart The index of the first Token of the range.
+     * @param rangeEnd The index following the last Token of the range.
+     * @param parent The id of the group enclosing the range.
+     */
+    private void addTerms(int rangeStart, int rangeEnd, int parent)
+    {
+        nbOfNewGroups = 0;
+        int depth = 0;
+        int i = rangeStart;
+        while(i < rangeEnd)
+        {
+            long token = tokens[i];
+            AtomCounts counts = depth == 0 ? delta : groupCounts[openGroups[depth - 1]];
+            if(TokenStream.getType(token) == TokenStream.CHEMICAL_ELEMENT_SYMBOL)
+            {
+                ++i;
+                long nbOfAtoms = 1;
+                int position = TokenStream.getPosition(token);
+                if(i < rangeEnd && isNumber(tokens[i]))
+                {
+                    nbOfAtoms = TokenStream.getValue(tokens[i]);
+                    position = TokenStream.getPosition(tokens[i]);
+                    ++i;
+                }
+                counts.add(TokenStream.getValue(token), nbOfAtoms, position);
+            }
+            else if(TokenStream.getValue(token) == TokenStream.OPENING_PARENTHESIS)
+            {
+                int group = allocateGroup();
+                groupOpenings[group] = i;
+                groupParents[group] = depth == 0 ? parent : openGroups[depth - 1];
+                groupCounts[group].clear();
+                if(depth == openGroups.length)
+                {
+                    openGroups = Arrays.copyOf(openGroups, depth * 2);
+                }
+                openGroups[depth++] = group;
+                if(nbOfNewGroups == newGroups.length)
+                {
+                    newGroups = Arrays.copyOf(newGroups, nbOfNewGroups * 2);
+                }
+                newGroups[nbOfNewGroups++] = group;
+                ++i;
+            }
+            else
+            {
+                int group = openGroups[--depth];
+                groupClosings[group] = i;
+                ++i;
+                groupMultipliers[group] = 1;
+                if(i < rangeEnd && isNumber(tokens[i]))
+                {
+                    groupMultipliers[group] = TokenStream.getValue(tokens[i]);
+                    ++i;
+                }
+                AtomCounts parentCounts = depth == 0 ? delta : groupCounts[openGroups[depth - 1]];
+                parentCounts.addScaled(groupCounts[group], groupMultipliers[group], TokenStream.getPosition(tokens[i - 1]));
+            }
+        }
+    }
+
+    /**
+     * Internal method replacing the groups of the edited range by the new ones, and
+     * moving the groups following the range.
+     *
+     * @param firstGroup The index in #groupsByOpening of the first group removed.
+     * @param endGroup The index in #groupsByOpening following the last group removed.
+     * @param shift The difference between the new and the old number of Tokens.
+     * @param parent The id of the group enclosing the range.
+     */
+    private void updateGroups(int firstGroup, int endGroup, int shift, int parent)
+    {
+        int newNbOfGroups = nbOfGroups - (endGroup - firstGroup) + nbOfNewGroups;
+        if(newNbOfGroups > groupsByOpening.length)
+        {
+            groupsByOpening = Arrays.copyOf(groupsByOpening, Math.max(newNbOfGroups, groupsByOpening.length * 2));
+        }
+        System.arraycopy(groupsByOpening, endGroup, groupsByOpening, firstGroup + nbOfNewGroups, nbOfGroups - endGroup);
+        System.arraycopy(newGroups, 0, groupsByOpening, firstGroup, nbOfNewGroups);
+        nbOfGroups = newNbOfGroups;
+        if(shift != 0)
+        {
+            for(int k = firstGroup + nbOfNewGroups; k < nbOfGroups; ++k)
+            {
+                groupOpenings[groupsByOpening[k]] += shift;
+                groupClosings[groupsByOpening[k]] += shift;
+            }
+            for(int group = parent; group != ROOT; group = groupParents[group])
+            {
+                groupClosings[group] += shift;
+            }
+        }
+    }
+
+    /**
+     * Internal method adding the #delta to the group enclosing the edited range, then to
+     * each group enclosing it, multiplied by the multipliers of the groups in between.
+     *
+     * @param group The id of the group enclosing the edited range.
+     */
+    private void propagate(int group)
+    {
+        while(true)
+        {
+            groupCounts[group].addScaled(delta, 1, getMultiplierPosition(group));
+            if(group == ROOT)
+            {
+                break;
+            }
+            delta.scale(groupMultipliers[group], getMultiplierPosition(group));
+            group = groupParents[group];
+        }
+    }
+
+    /**
+     * Internal method returning the position in the formula of the multiplier of a group,
+     * or of its closing parenthesis if it has no multiplier.
+     *
+     * @param group The id of the group.
+     * @return Returns the position in the formula.
+     */
+    private int getMultiplierPosition(int group)
+    {
+        if(group == ROOT)
+        {
+            return 0;
+        }
+        int closing = groupClosings[group];
+        return TokenStream.getPosition(closing + 1 < size && isNumber(tokens[closing + 1]) ? tokens[closing + 1] : tokens[closing]);
+    }
+
+    /**
+     * Internal method returning a free group id, creating one if there is none.
+     *
+     * @return Returns the group id.
+     */
+    private int allocateGroup()
+    {
+        if(nbOfFreeGroups > 0)
+        {
+            return freeGroups[--nbOfFreeGroups];
+        }
+        if(nbOfGroupIds == groupOpenings.length)
+        {
+            int capacity = nbOfGroupIds * 2;
+            groupOpenings = Arrays.copyOf(groupOpenings, capacity);
+            groupClosings = Arrays.copyOf(groupClosings, capacity);
+            groupParents = Arrays.copyOf(groupParents, capacity);
+            groupMultipliers = Arrays.copyOf(groupMultipliers, capacity);
+            groupCounts = Arrays.copyOf(groupCounts, capacity);
+        }
+        if(groupCounts[nbOfGroupIds] == null)
+        {
+            groupCounts[nbOfGroupIds] = new AtomCounts();
+        }
+        return nbOfGroupIds++;
+    }
+
+    /**
+     * Internal method freeing the id of a group removed from the formula.
+     *
+     * @param group The id of the group.
+     */
+    private void freeGroup(int group)
+    {
+        if(nbOfFreeGroups == freeGroups.length)
+        {
+            freeGroups = Arrays.copyOf(freeGroups, nbOfFreeGroups * 2);
+        }
+        freeGroups[nbOfFreeGroups++] = group;
+    }
+
+    /**
+     * Internal method checking whether a packed Token is a NUMBER.
+     *
+     * @param token The packed Token.
+     * @return Returns true if the Token is a NUMBER, else false.
+     */
+    private static boolean isNumber(long token)
+    {
+        return TokenStream.getType(token) == TokenStream.NUMBER;
+    }
+
+    /**
+     * Internal method comparing two packed Tokens, whatever their position in the formula.
+     *
+     * @param token The first packed Token.
+     * @param otherToken The second packed Token.
+     * @return Returns true if both Tokens have the same type and value, else false.
+     */
+    private static boolean isSameToken(long token, long otherToken)
+    {
+        return ((token ^ otherToken) & ~POSITION_MASK) == 0;
+    }
+
+    /**
+     * Number of atoms of each element, stored by position in the periodic table, with
+     * the list of the elements that were added. The numbers can be negative, so that the
+     * difference between two compositions can be stored.
+     */
+    private static final class AtomCounts
+    {
+        /**
+         * The number of atoms of each element, indexed by its position in the periodic table.
+         */
+        private long[] counts = new long[0];
+
+        /**
+         * The positions of the elements added since the last clear. The number of atoms of
+         * some of them can have come back to 0.
+         */
+        private int[] elements = new int[0];
+
+        /**
+         * The number of elements added since the last clear.
+         */
+        private int nbOfElements;
+
+        /**
+         * Removes every atom. Only the entries of the elements added are cleared.
+         */
+        void clear()
+        {
+            for(int i = 0; i < nbOfElements; ++i)
+            {
+                counts[elements[i]] = 0;
+            }
+            nbOfElements = 0;
+        }
+
+        /**
+         * Returns the number of atoms of an element.
+         *
+         * @param noElement The position of the element in the periodic table.
+         * @return The number of atoms of the element.
+         */
+        long get(int noElement)
+        {
+            return noElement < counts.length ? counts[noElement] : 0;
+        }
+
+        /**
+         * Adds atoms of an element.
+         *
+         * @param noElement The position of the element in the periodic table.
+         * @param nbOfAtoms The number of atoms to add, negative to remove atoms.
+         * @param position The position in the formula of the multiplier applied to the atoms.
+         * @throws MultiplierOverflowException If the number of atoms does not fit in a long.
+         */
+        void add(int noElement, long nbOfAtoms, int position)
+        {
+            if(noElement >= counts.length)
+            {
+                int capacity = Math.max(noElement + 1, PeriodicTable.INSTANCE.getNbOfElementNumbers());
+                counts = Arrays.copyOf(counts, capacity);
+                elements = Arrays.copyOf(elements, capacity);
+            }
+            long count = counts[noElement];
+            long sum = count + nbOfAtoms;
+            if(((count ^ sum) & (nbOfAtoms ^ sum)) < 0)
+            {
+                throw new MultiplierOverflowException(position);
+            }
+            if(count == 0 && !contains(noElement))
+            {
+                elements[nbOfElements++] = noElement;
+            }
+            counts[noElement] = sum;
+        }
+
+        /**
+         * Adds the atoms of other counts, multiplied by a factor.
+         *
+         * @param other The counts to add.
+         * @param factor The factor applied to each number of atoms, negative to remove atoms.
+         * @param position The position in the formula of the multiplier applied to the atoms.
+         * @throws MultiplierOverflowException If a number of atoms does not fit in a long.
+         */
+        void addScaled(AtomCounts other, long factor, int position)
+        {
+            for(int i = 0; i < other.nbOfElements; ++i)
+            {
+                int noElement = other.elements[i];
+                if(other.counts[noElement] != 0)
+                {
+                    add(noElement, multiply(other.counts[noElement], factor, position), position);
+                }
+            }
+        }
+
+        /**
+         * Multiplies every number of atoms by a factor.
+         *
+         * @param factor The factor, at least 1.
+         * @param position The position in the formula of the multiplier.
+         * @throws MultiplierOverflowException If a number of atoms does not fit in a long.
+         */
+        void scale(long factor, int position)
+        {
+            for(int i = 0; i < nbOfElements; ++i)
+            {
+                counts[elements[i]] = multiply(counts[elements[i]], factor, position);
+            }
+        }
+
+        /**
+         * Internal method checking whether an element was added since the last clear.
+         *
+         * @param noElement The position of the element in the periodic table.
+         * @return Returns true if the element is listed, else false.
+         */
+        private boolean contains(int noElement)
+        {
+            for(int i = 0; i < nbOfElements; ++i)
+            {
+                if(elements[i] == noElement)
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Internal method multiplying two numbers of atoms, positive or negative.
+         *
+         * @param nbOfAtoms The number of atoms.
+         * @param factor The factor, never 0.
+         * @param position The position in the formula of the multiplier.
+         * @return Returns the product of the two numbers.
+         * @throws MultiplierOverflowException If the product does not fit in a long.
+         */
+        private static long multiply(long nbOfAtoms, long factor, int position)
+        {
+            long product = nbOfAtoms * factor;
+            if(product / factor != nbOfAtoms || (nbOfAtoms == Long.MIN_VALUE && factor == -1))
+            {
+                throw new MultiplierOverflowException(position);
+            }
+            return product;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.v41.tp1.modele;
+
+/**
+ * This exception is thrown when the multipliers of a valid chemical formula give a
+ * number of atoms too large to be counted.
+ *      ex: ((H2147483647)2147483647)2147483647
+ *
+ * It is reported to the user as the error of a multiplier that is too large.
+ */
+public class MultiplierOverflowException extends ArithmeticException
+{
+    /**
+     * The version of the serialized form of the exception.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The position in the formula of the multiplier causing the overflow.
+     */
+    private final int position;
+
+    /**
+     * Overloaded constructor.
+     *
+     * @param position The position in the formula of the multiplier causing the overflow.
+     */
+    public MultiplierOverflowException(int position)
+    {
+        super("Number of atoms overflow at position " + position);
+        this.position = position;
+    }
+
+    /**
+     * Accessor method for the position of the multiplier causing the overflow.
+     *
+     * @return The position of the multiplier in the formula.
+     */
+    public int getPosition()
+    {
+        return position;
+    }
+}
@@ -0,0 +1,315 @@
+package com.v41.tp1.modele;
+
+import java.util.Arrays;
+
+/**
+ * This class contains the state of the ChemicalValidator between two Tokens of a
+ * formula: the position of the next character to read and the state of the
+ * parentheses. The opening parentheses not closed yet form a stack, stored as a
+ * link from each opening parenthesis to the one enclosing it, so that the stack
+ * never needs to be copied.
+ *
+ * When checkpoints are kept, the state is saved before every Token. A validation can
+ * then be resumed from any Token, which allows a formula being edited to be validated
+ * again only from the first changed character.
+ *
+ * An instance must never be shared by two threads at the same time.
+ */
+public final class ParseState
+{
+    /**
+     * The position in the formula of the next character to read.
+     */
+    private int offset;
+
+    /**
+     * The number of opening parentheses read.
+     */
+    private int nbOfOpeningParentheses;
+
+    /**
+     * The number of closing parentheses read.
+     */
+    private int nbOfClosingParentheses;
+
+    /**
+     * The index of the Token of the innermost opening parenthesis not closed yet, or -1.
+     */
+    private int innermostOpening;
+
+    /**
+     * The position of the first closing parenthesis found without a matching opening
+     * one, or -1.
+     */
+    private int firstUnopenedParenthesis;
+
+    /**
+     * For the Token of each opening parenthesis, the index of the Token of the opening
+     * parenthesis enclosing it, or -1. Indexed by Token index.
+     */
+    private int[] enclosingOpenings = new int[16];
+
+    /**
+     * The position in the formula where the error was found, or -1.
+     */
+    private int errorPosition;
+
+    /**
+     * Whether or not the state is saved before every Token.
+     */
+    private boolean keepCheckpoints;
+
+    /**
+     * The number of checkpoints saved, which is the number of Tokens whose starting state is known.
+     */
+    private int nbOfCheckpoints;
+
+    /**
+     * The saved #offset before each Token, indexed by Token index.
+     */
+    private int[] checkpointOffsets = new int[0];
+
+    /**
+     * The saved #nbOfOpeningParentheses before each Token, indexed by Token index.
+     */
+    private int[] checkpointOpenings = new int[0];
+
+    /**
+     * The saved #nbOfClosingParentheses before each Token, indexed by Token index.
+     */
+    private int[] checkpointClosings = new int[0];
+
+    /**
+     * The saved #innermostOpening before each Token, indexed by Token index.
+     */
+    private int[] checkpointInnermostOpenings = new int[0];
+
+    /**
+     * The saved #firstUnopenedParenthesis before each Token, indexed by Token index.
+     */
+    private int[] checkpointFirstUnopened = new int[0];
+
+    /**
+     * Resets the state to the start of a formula.
+     *
+     * @param keepCheckpoints Whether or not the state must be saved before every Token.
+     */
+    public void reset(boolean keepCheckpoints)
+    {
+        this.keepCheckpoints = keepCheckpoints;
+        offset = 0;
+        nbOfOpeningParentheses = 0;
+        nbOfClosingParentheses = 0;
+        innermostOpening = -1;
+        firstUnopenedParenthesis = -1;
+        errorPosition = -1;
+        nbOfCheckpoints = 0;
+    }
+
+    /**
+     * Saves the state before a Token, if checkpoints are kept. The checkpoints of the
+     * following Tokens are discarded.
+     *
+     * @param tokenIndex The index of the Token about to be read.
+     * @param offset The position in the formula of the first character of the Token.
+     */
+    public void saveCheckpoint(int tokenIndex, int offset)
+    {
+        this.offset = offset;
+        if(!keepCheckpoints)
+        {
+            return;
+        }
+        if(tokenIndex >= checkpointOffsets.length)
+        {
+            int capacity = Math.max(16, tokenIndex * 2);
+            checkpointOffsets = Arrays.copyOf(checkpointOffsets, capacity);
+            checkpointOpenings = Arrays.copyOf(checkpointOpenings, capacity);
+            checkpointClosings = Arrays.copyOf(checkpointClosings, capacity);
+            checkpointInnermostOpenings = Arrays.copyOf(checkpointInnermostOpenings, capacity);
+            checkpointFirstUnopened = Arrays.copyOf(checkpointFirstUnopened, capacity);
+        }
+        checkpointOffsets[tokenIndex] = offset;
+        checkpointOpenings[tokenIndex] = nbOfOpeningParentheses;
+        checkpointClosings[tokenIndex] = nbOfClosingParentheses;
+        checkpointInnermostOpenings[tokenIndex] = innermostOpening;
+        checkpointFirstUnopened[tokenIndex] = firstUnopenedParenthesis;
+        nbOfCheckpoints = tokenIndex + 1;
+    }
+
+    /**
+     * Finds the last Token that can be read again without reading a changed character,
+     * including the character following a Token, which is read to find where it ends.
+     *
+     * @param firstChangedIndex The position of the first character changed since the
+     *                          checkpoints were saved.
+     * @return Returns the index of the Token from which the validation can resume, 0 if
+     *         it must restart from the beginning.
+     */
+    public int findCheckpoint(int firstChangedIndex)
+    {
+        int low = 0;
+        int high = nbOfCheckpoints - 1;
+        int found = 0;
+        while(low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            if(checkpointOffsets[middle] < firstChangedIndex)
+            {
+                found = middle;
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Restores the state saved before a Token. Restoring Token 0 resets the state.
+     *
+     * @param tokenIndex The index of the Token, lower than #getNbOfCheckpoints().
+     */
+    public void restoreCheckpoint(int tokenIndex)
+    {
+        if(tokenIndex == 0 || tokenIndex >= nbOfCheckpoints)
+        {
+            reset(keepCheckpoints);
+            return;
+        }
+        offset = checkpointOffsets[tokenIndex];
+        nbOfOpeningParentheses = checkpointOpenings[tokenIndex];
+        nbOfClosingParentheses = checkpointClosings[tokenIndex];
+        innermostOpening = checkpointInnermostOpenings[tokenIndex];
+        firstUnopenedParenthesis = checkpointFirstUnopened[tokenIndex];
+        errorPosition = -1;
+        nbOfCheckpoints = tokenIndex;
+    }
+
+    /**
+     * Returns the number of Tokens whose starting state is saved.
+     *
+     * @return The number of checkpoints.
+     */
+    public int getNbOfCheckpoints()
+    {
+        return nbOfCheckpoints;
+    }
+
+    /**
+     * Accessor method for the position of the next character to read.
+     *
+     * @return The position in the formula.
+     */
+    public int getOffset()
+    {
+        return offset;
+    }
+
+    /**
+     * Records an opening parenthesis, which becomes the innermost one not closed yet.
+     *
+     * @param tokenIndex The index of the Token of the parenthesis.
+     */
+    public void openParenthesis(int tokenIndex)
+    {
+        if(tokenIndex >= enclosingOpenings.length)
+        {
+            enclosingOpenings = Arrays.copyOf(enclosingOpenings, tokenIndex * 2);
+        }
+        enclosingOpenings[tokenIndex] = innermostOpening;
+        innermostOpening = tokenIndex;
+        ++nbOfOpeningParentheses;
+    }
+
+    /**
+     * Records a closing parenthesis, which closes the innermost opening one.
+     *
+     * @param position The position of the parenthesis in the formula.
+     */
+    public void closeParenthesis(int position)
+    {
+        if(innermostOpening < 0)
+        {
+            if(firstUnopenedParenthesis < 0)
+            {
+                firstUnopenedParenthesis = position;
+            }
+        }
+        else
+        {
+            innermostOpening = enclosingOpenings[innermostOpening];
+        }
+        ++nbOfClosingParentheses;
+    }
+
+    /**
+     * Returns the outermost opening parenthesis not closed yet.
+     *
+     * @return The index of its Token, or -1 if every opening parenthesis is closed.
+     */
+    public int getOutermostOpening()
+    {
+        int outermostOpening = innermostOpening;
+        while(outermostOpening >= 0 && enclosingOpenings[outermostOpening] >= 0)
+        {
+            outermostOpening = enclosingOpenings[outermostOpening];
+        }
+        return outermostOpening;
+    }
+
+    /**
+     * Accessor method for the number of opening parentheses read.
+     *
+     * @return The number of opening parentheses.
+     */
+    public int getNbOfOpeningParentheses()
+    {
+        return nbOfOpeningParentheses;
+    }
+
+    /**
+     * Accessor method for the number of closing parentheses read.
+     *
+     * @return The number of closing parentheses.
+     */
+    public int getNbOfClosingParentheses()
+    {
+        return nbOfClosingParentheses;
+    }
+
+    /**
+     * Accessor method for the first closing parenthesis without a matching opening one.
+     *
+     * @return Its position in the formula, or -1.
+     */
+    public int getFirstUnopenedParenthesis()
+    {
+        return firstUnopenedParenthesis;
+    }
+
+    /**
+     * Records the position of an error.
+     *
+     * @param errorCode The index of the error message.
+     * @param errorPosition The position in the formula where the error was found.
+     * @return Returns the error code, so that the caller can return it directly.
+     */
+    public int error(int errorCode, int errorPosition)
+    {
+        this.errorPosition = errorPosition;
+        return errorCode;
+    }
+
+    /**
+     * Accessor method for the position of the last error.
+     *
+     * @return The position in the formula where the error was found, or -1.
+     */
+    public int getErrorPosition()
+    {
+        return errorPosition;
+    }
+}
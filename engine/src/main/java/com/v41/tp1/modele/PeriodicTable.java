@@ -0,0 +1,514 @@
+package com.v41.tp1.modele;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class contains every chemical element found in the periodic table.
+ * The content is loaded from a text file, either through an InputStream (such as
+ * an Android raw resource) or through its path on a regular JVM.
+ *
+ * The symbols, positions and atomic weights are read once, from a single file. The
+ * names of the elements in other languages are loaded separately, from files in the
+ * same format, and only their names are kept.
+ *      @see ElementNames
+ */
+public enum PeriodicTable
+{
+    /**
+     * The instance of the PeriodicTable class.
+     */
+    INSTANCE;
+
+    /**
+     * The encoding of the files of the periodic table.
+     */
+    private static final String CHARSET = "UTF-8";
+
+    /**
+     * The byte order mark that may start a file saved in UTF-8.
+     */
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    /**
+     * The version of the periodic table in use, which contains every chemical element.
+     * A new snapshot is built off to the side each time a file is loaded, then published
+     * by replacing this reference, so a reader always sees a complete table.
+     *      @see PeriodicTableSnapshot
+     */
+    private volatile PeriodicTableSnapshot snapshot;
+
+    /**
+     * The version given to the last snapshot published.
+     */
+    private long lastVersion;
+
+    /**
+     * The names loaded for each language, keyed by language.
+     */
+    private final HashMap<String, ElementNames> namesByLocale;
+
+    /**
+     * The language selected by #setLocale(String), or null.
+     */
+    private String locale;
+
+    /**
+     * The names of the selected language, or null to use the names of the file the
+     * periodic table was loaded from.
+     */
+    private volatile ElementNames names;
+
+    /**
+     * Constructor for the class PeriodicTable. This constructor is private
+     * to ensure the integrity of the class, since the class is a Singleton.
+     *
+     * In this constructor, we initialize the #snapshot with an empty table.
+     */
+    private PeriodicTable()
+    {
+        snapshot = PeriodicTableSnapshot.EMPTY;
+        namesByLocale = new HashMap<String, ElementNames>();
+    }
+
+    /**
+     * This method parses the whole periodic table from a text file and creates a
+     * new ChemicalElement for each element. The ChemicalElements are stored
+     * in a new #snapshot.
+     *
+     * @param inputStream A string containing the name and extension of the file
+     *                    to be parsed.
+     * @throws IllegalArgumentException If the file cannot be parsed or contains no chemical element.
+     * @deprecated Use #load(InputStream), whose result tells whether the table can be used.
+     */
+    @Deprecated
+    public void loadPeriodicTable(InputStream inputStream)
+    {
+        PeriodicTableLoadResult result = load(inputStream);
+        if (!result.isSuccessful())
+        {
+            throw new IllegalArgumentException(result.getMessage(), result.getError());
+        }
+    }
+
+    /**
+     * Same as #loadPeriodicTable(InputStream), but reports the outcome of the loading
+     * instead of throwing it. The stream is always closed.
+     *
+     * The table in use is only replaced once the whole file was parsed: if the loading
+     * fails, the previous table stays in use and its version does not change.
+     *
+     * @param inputStream The file to be parsed.
+     * @return The number of chemical elements loaded, or the error that stopped the loading.
+     *      @see PeriodicTableLoader
+     */
+    public synchronized PeriodicTableLoadResult load(InputStream inputStream)
+    {
+        BufferedReader br = null;
+
+        try
+        {
+            br = new BufferedReader(new InputStreamReader(inputStream, CHARSET));
+            ArrayList<ChemicalElement> chemicalElements = new ArrayList<ChemicalElement>();
+
+            String line = skipByteOrderMark(br.readLine());
+
+            while (line != null)
+            {
+                ChemicalElement element = new ChemicalElement();
+                element.loadChemicalElement(line);
+
+                if (element.getAtomicWeight() > 0)
+                {
+                    chemicalElements.add(element);
+                }
+
+                line = br.readLine();
+            }
+
+            snapshot = new PeriodicTableSnapshot(lastVersion + 1, chemicalElements);
+            ++lastVersion;
+            return new PeriodicTableLoadResult(snapshot.getNbOfElements(), null);
+        }
+        catch (Exception e)
+        {
+            return new PeriodicTableLoadResult(snapshot.getNbOfElements(), e);
+        }
+        finally
+        {
+            close(br != null ? br : inputStream);
+        }
+    }
+
+    /**
+     * Loads the names of the chemical elements in another language, from a file in the
+     * same format as the periodic table. Only the name and position of each element are
+     * read: the symbols and atomic weights of the periodic table are kept. The file may
+     * start with a byte order mark, and may name fewer elements than the periodic table.
+     * The stream is always closed.
+     *
+     * @param locale The language of the names.
+     *      ex: fr.
+     * @param inputStream The file to be parsed.
+     * @return The number of names loaded, or the error that stopped the loading.
+     *      @see #setLocale(String)
+     */
+    public synchronized PeriodicTableLoadResult loadNames(String locale, InputStream inputStream)
+    {
+        BufferedReader br = null;
+
+        try
+        {
+            br = new BufferedReader(new InputStreamReader(inputStream, CHARSET));
+            String[] localeNames = new String[1];
+            int nbOfNames = 0;
+
+            String line = skipByteOrderMark(br.readLine());
+
+            while (line != null)
+            {
+                ChemicalElement element = new ChemicalElement();
+                element.loadChemicalElement(line);
+                int noElement = element.getNoElement();
+
+                if (noElement > 0 && noElement <= Short.MAX_VALUE)
+                {
+                    if (noElement >= localeNames.length)
+                    {
+                        localeNames = Arrays.copyOf(localeNames, Math.max(noElement + 1, localeNames.length * 2));
+                    }
+                    if (localeNames[noElement] == null)
+                    {
+                        ++nbOfNames;
+                    }
+                    localeNames[noElement] = element.getName();
+                }
+
+                line = br.readLine();
+            }
+
+            ElementNames elementNames = new ElementNames(locale, localeNames, nbOfNames);
+            namesByLocale.put(locale, elementNames);
+            if (locale.equals(this.locale))
+            {
+                names = elementNames;
+            }
+            return new PeriodicTableLoadResult(nbOfNames, null);
+        }
+        catch (Exception e)
+        {
+            return new PeriodicTableLoadResult(0, e);
+        }
+        finally
+        {
+            close(br != null ? br : inputStream);
+        }
+    }
+
+    /**
+     * Selects the language of the names of the chemical elements. Only the names are
+     * replaced: the symbols and atomic weights, and the version of the periodic table,
+     * do not change. If the names of this language are not loaded yet, the names of the
+     * periodic table are used until they are.
+     *
+     * @param locale The language of the names.
+     *      ex: fr, en.
+     * @return Returns true if the names of this language are loaded, else false.
+     */
+    public synchronized boolean setLocale(String locale)
+    {
+        this.locale = locale;
+        names = namesByLocale.get(locale);
+        return names != null;
+    }
+
+    /**
+     * Accessor method for the names of the selected language.
+     *
+     * @return The names, or null if the names of the periodic table are used.
+     *      @see #getName(int)
+     */
+    public ElementNames getNames()
+    {
+        return names;
+    }
+
+    /**
+     * Accessor method for the name of a single element, in the selected language. An
+     * element that this language does not name keeps the name read from the periodic table.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The name of the element, or null if no element has this position.
+     *      @see #setLocale(String)
+     */
+    public String getName(int noElement)
+    {
+        ElementNames names = this.names;
+        String name = names == null ? null : names.getName(noElement);
+        if (name == null)
+        {
+            ChemicalElement element = snapshot.getChemicalElement(noElement);
+            name = element == null ? null : element.getName();
+        }
+        return name;
+    }
+
+    /**
+     * This method parses the whole periodic table from the text file found at the given
+     * path. Allows the table to be loaded outside of Android, where no raw resource exists.
+     *
+     * @param filePath The path of the file to be parsed.
+     * @return The number of chemical elements loaded, or the error that stopped the loading.
+     * @throws FileNotFoundException If the file cannot be opened.
+     *      @see #load(InputStream)
+     */
+    public PeriodicTableLoadResult load(String filePath) throws FileNotFoundException
+    {
+        return load(new FileInputStream(filePath));
+    }
+
+    /**
+     * Returns whether or not the periodic table was loaded, so that a caller created again
+     * during the same process, such as an Android activity after a rotation of the device,
+     * does not parse the file again.
+     *
+     * @return Returns true if a file was successfully parsed, else false.
+     */
+    public boolean isLoaded()
+    {
+        return snapshot.getVersion() > 0;
+    }
+
+    /**
+     * Accessor method for the version of the periodic table in use. A calculation that
+     * reads the table several times should read a single #getSnapshot() instead.
+     *
+     * @return Returns the version, incremented each time a file is successfully parsed,
+     *         or 0 if no periodic table was loaded.
+     */
+    public long getVersion()
+    {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * Accessor method for the snapshot of the periodic table in use. The snapshot is never
+     * modified, even if another file is loaded while it is being read.
+     *
+     * @return Returns the snapshot of the periodic table.
+     */
+    public PeriodicTableSnapshot getSnapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of chemical elements in the periodic table.
+     *
+     * @return The number of chemical elements loaded.
+     */
+    public int getNbOfElements()
+    {
+        return snapshot.getNbOfElements();
+    }
+
+    /**
+     * Accessor method for a single element from the periodic table.
+     * This class does not manage whether or not the symbol given to it is valid.
+     *
+     * @param symbol The symbol representation of the element to be returned.
+     * @return A single ChemicalElement from the #snapshot.
+     *      @see #snapshot
+     */
+    ChemicalElement getChemicalElement(String symbol)
+    {
+        return snapshot.getChemicalElement(symbol);
+    }
+
+    /**
+     * This method validates whether or not a given symbol is present in the
+     * periodic table.
+     *
+     * @param symbol The symbol to be validated.
+     * @return Returns true if the element exists, else false.
+     */
+    public boolean isSymbol(String symbol)
+    {
+        ChemicalElement value = snapshot.getChemicalElement(symbol);
+
+        if (value == null)
+        {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Accessor method for a single element, using the characters of its symbol.
+     * Unlike #getChemicalElement(String), no String needs to be created.
+     *
+     * @param firstLetter The uppercase letter of the symbol.
+     * @param secondLetter The lowercase letter of the symbol, or 0 for one letter symbols.
+     * @return The ChemicalElement with the given symbol, or null if none exists.
+     */
+    public ChemicalElement getChemicalElement(char firstLetter, char secondLetter)
+    {
+        PeriodicTableSnapshot snapshot = this.snapshot;
+        return snapshot.getChemicalElement(snapshot.getAtomicNumber(firstLetter, secondLetter));
+    }
+
+    /**
+     * Finds the position in the periodic table of an element from the characters of its
+     * symbol. The lookup is a single array access and creates no object.
+     *
+     * @param firstLetter The uppercase letter of the symbol.
+     * @param secondLetter The lowercase letter of the symbol, or 0 for one letter symbols.
+     * @return The position of the element in the periodic table, or 0 if no element has
+     *         this symbol.
+     */
+    public int getAtomicNumber(char firstLetter, char secondLetter)
+    {
+        return snapshot.getAtomicNumber(firstLetter, secondLetter);
+    }
+
+    /**
+     * Finds the position in the periodic table of the element whose symbol starts at the
+     * given offset. As in a chemical formula, a lowercase letter following the uppercase
+     * one is part of the symbol.
+     *      ex: "NaCl" at offset 0 is Na, "CO" at offset 0 is C.
+     *
+     * @param text The text containing the symbol.
+     * @param offset The position of the uppercase letter of the symbol in the text.
+     * @return The position of the element in the periodic table, or 0 if no element has
+     *         this symbol.
+     *      @see #getSymbolLength(int)
+     */
+    public int getAtomicNumber(CharSequence text, int offset)
+    {
+        return snapshot.getAtomicNumber(text, offset);
+    }
+
+    /**
+     * Accessor method for a single element, using its position in the periodic table.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The ChemicalElement at the given position, or null if none exists.
+     */
+    public ChemicalElement getChemicalElement(int noElement)
+    {
+        return snapshot.getChemicalElement(noElement);
+    }
+
+    /**
+     * Returns the number of positions in the periodic table, including the unused position 0.
+     * Arrays indexed by element position must be at least this long.
+     *
+     * @return The highest element position + 1.
+     */
+    public int getNbOfElementNumbers()
+    {
+        return snapshot.getNbOfElementNumbers();
+    }
+
+    /**
+     * Accessor method for the atomic weight of a single element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The atomic weight of the element.
+     */
+    public double getAtomicWeight(int noElement)
+    {
+        return snapshot.getAtomicWeight(noElement);
+    }
+
+    /**
+     * Accessor method for the symbol of a single element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The symbol of the element.
+     */
+    public String getSymbol(int noElement)
+    {
+        return snapshot.getSymbol(noElement);
+    }
+
+    /**
+     * Returns the rank of the symbol of a single element in alphabetical order.
+     *      ex: Ac has rank 0, Ag has rank 1.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The rank of the symbol, starting at 0.
+     */
+    public int getAlphabeticalRank(int noElement)
+    {
+        return snapshot.getAlphabeticalRank(noElement);
+    }
+
+    /**
+     * Returns the element whose symbol has the given rank in alphabetical order.
+     *
+     * @param rank The rank of the symbol, starting at 0.
+     * @return The position of the element in the periodic table.
+     *      @see #getAlphabeticalRank(int)
+     */
+    public int getElementByAlphabeticalRank(int rank)
+    {
+        return snapshot.getElementByAlphabeticalRank(rank);
+    }
+
+    /**
+     * Returns the number of characters in the symbol of a single element, which is the
+     * number of characters to skip after finding it in a formula.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The length of the symbol of the element.
+     */
+    public int getSymbolLength(int noElement)
+    {
+        return snapshot.getSymbolLength(noElement);
+    }
+
+    /**
+     * Internal method removing the byte order mark that starts some files saved in UTF-8.
+     *
+     * @param line The first line of the file, or null.
+     * @return The line without its byte order mark.
+     */
+    private static String skipByteOrderMark(String line)
+    {
+        if (line != null && line.length() > 0 && line.charAt(0) == BYTE_ORDER_MARK)
+        {
+            return line.substring(1);
+        }
+        return line;
+    }
+
+    /**
+     * Internal method closing the file of the periodic table.
+     *
+     * @param closeable The reader or the stream of the file, or null.
+     */
+    private static void close(Closeable closeable)
+    {
+        if (closeable == null)
+        {
+            return;
+        }
+        try
+        {
+            closeable.close();
+        }
+        catch (IOException e)
+        {
+            // Everything needed was already read.
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.v41.tp1.modele;
+
+/**
+ * This class represents the immutable outcome of the loading of the periodic table:
+ * the number of chemical elements read, or the error that stopped the loading.
+ *      @see PeriodicTable#load(java.io.InputStream)
+ */
+public final class PeriodicTableLoadResult
+{
+    /**
+     * The number of chemical elements in the periodic table once loaded.
+     */
+    private final int nbOfElements;
+
+    /**
+     * The error that stopped the loading, or null if the loading succeeded.
+     */
+    private final Throwable error;
+
+    /**
+     * Constructor of the result.
+     *
+     * @param nbOfElements The number of chemical elements in the periodic table.
+     * @param error The error that stopped the loading, or null.
+     */
+    public PeriodicTableLoadResult(int nbOfElements, Throwable error)
+    {
+        this.nbOfElements = nbOfElements;
+        this.error = error;
+    }
+
+    /**
+     * Returns whether or not the periodic table was loaded and contains chemical elements.
+     *
+     * @return Returns true if the periodic table can be used, else false.
+     */
+    public boolean isSuccessful()
+    {
+        return error == null && nbOfElements > 0;
+    }
+
+    /**
+     * Accessor method for the number of chemical elements in the periodic table.
+     *
+     * @return The number of chemical elements.
+     */
+    public int getNbOfElements()
+    {
+        return nbOfElements;
+    }
+
+    /**
+     * Accessor method for the error that stopped the loading.
+     *
+     * @return The error, or null if the loading succeeded.
+     */
+    public Throwable getError()
+    {
+        return error;
+    }
+
+    /**
+     * Returns a message describing the outcome of the loading.
+     *
+     * @return The description of the outcome.
+     */
+    public String getMessage()
+    {
+        if(error != null)
+        {
+            return "The periodic table could not be loaded: " + error;
+        }
+        if(nbOfElements == 0)
+        {
+            return "The periodic table does not contain any chemical element.";
+        }
+        return "The periodic table contains " + nbOfElements + " chemical elements.";
+    }
+}
@@ -0,0 +1,200 @@
+package com.v41.tp1.modele;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * This class loads the periodic table on a background thread, so that parsing the file
+ * does not delay the start of the application. The loading is started once per process,
+ * as early as possible, and the code using the periodic table calls #await() first,
+ * which only waits if the loading is not finished yet.
+ *
+ * Waiting on the loading also guarantees that the content of the PeriodicTable written
+ * by the background thread is visible to the waiting thread.
+ */
+public enum PeriodicTableLoader
+{
+    /**
+     * The instance of the PeriodicTableLoader class.
+     */
+    INSTANCE;
+
+    /**
+     * The name of the background thread.
+     */
+    private static final String THREAD_NAME = "PeriodicTableLoader";
+
+    /**
+     * The loading of the periodic table, or null if it was not started.
+     */
+    private FutureTask<PeriodicTableLoadResult> loading;
+
+    /**
+     * The loading of the names of each language, keyed by language.
+     */
+    private final HashMap<String, FutureTask<PeriodicTableLoadResult>> namesLoadings =
+            new HashMap<String, FutureTask<PeriodicTableLoadResult>>();
+
+    /**
+     * Starts loading the periodic table on a background thread. Only the first call
+     * loads a file: the stream of any later call is closed without being read.
+     *
+     * @param inputStream The file containing the periodic table. It is closed once read.
+     */
+    public synchronized void start(final InputStream inputStream)
+    {
+        if(loading != null)
+        {
+            close(inputStream);
+            return;
+        }
+        loading = new FutureTask<PeriodicTableLoadResult>(new Callable<PeriodicTableLoadResult>()
+        {
+            @Override
+            public PeriodicTableLoadResult call()
+            {
+                return PeriodicTable.INSTANCE.load(inputStream);
+            }
+        });
+        Thread thread = new Thread(loading, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts loading the names of the chemical elements in another language on a
+     * background thread. Since the names are indexed by position, they can be loaded
+     * before or after the periodic table itself, and nothing waits for them. Only the
+     * first call for a language loads a file: the stream of any later call is closed
+     * without being read.
+     *
+     * @param locale The language of the names.
+     * @param inputStream The file containing the names. It is closed once read.
+     *      @see PeriodicTable#loadNames(String, InputStream)
+     *      @see #awaitNames(String)
+     */
+    public synchronized void startNames(final String locale, final InputStream inputStream)
+    {
+        if(namesLoadings.containsKey(locale))
+        {
+            close(inputStream);
+            return;
+        }
+        FutureTask<PeriodicTableLoadResult> namesLoading = new FutureTask<PeriodicTableLoadResult>(
+                new Callable<PeriodicTableLoadResult>()
+        {
+            @Override
+            public PeriodicTableLoadResult call()
+            {
+                return PeriodicTable.INSTANCE.loadNames(locale, inputStream);
+            }
+        });
+        namesLoadings.put(locale, namesLoading);
+        Thread thread = new Thread(namesLoading, THREAD_NAME + "-" + locale);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits until the names of a language are loaded, if they are not loaded yet.
+     *
+     * @param locale The language of the names.
+     * @return The outcome of the loading, or null if the loading of this language was
+     *         never started.
+     */
+    public PeriodicTableLoadResult awaitNames(String locale)
+    {
+        FutureTask<PeriodicTableLoadResult> namesLoading;
+        synchronized(this)
+        {
+            namesLoading = namesLoadings.get(locale);
+        }
+        return namesLoading == null ? null : await(namesLoading);
+    }
+
+    /**
+     * Returns whether or not the loading was started.
+     *
+     * @return Returns true if #start(InputStream) was called, else false.
+     */
+    public synchronized boolean isStarted()
+    {
+        return loading != null;
+    }
+
+    /**
+     * Returns whether or not the loading is finished, in which case #await() returns
+     * immediately.
+     *
+     * @return Returns true if the loading is finished, else false.
+     */
+    public synchronized boolean isDone()
+    {
+        return loading != null && loading.isDone();
+    }
+
+    /**
+     * Waits until the periodic table is loaded, if it is not loaded yet. If the loading
+     * was never started, the periodic table is used as it is, since it may have been
+     * loaded directly through PeriodicTable.load.
+     *
+     * @return The outcome of the loading.
+     */
+    public PeriodicTableLoadResult await()
+    {
+        FutureTask<PeriodicTableLoadResult> loading;
+        synchronized(this)
+        {
+            loading = this.loading;
+        }
+        if(loading == null)
+        {
+            return new PeriodicTableLoadResult(PeriodicTable.INSTANCE.getNbOfElements(), null);
+        }
+        return await(loading);
+    }
+
+    /**
+     * Internal method waiting until a loading is finished.
+     *
+     * @param loading The loading.
+     * @return The outcome of the loading.
+     */
+    private static PeriodicTableLoadResult await(FutureTask<PeriodicTableLoadResult> loading)
+    {
+        try
+        {
+            return loading.get();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return new PeriodicTableLoadResult(0, e);
+        }
+        catch(ExecutionException e)
+        {
+            return new PeriodicTableLoadResult(0, e.getCause());
+        }
+    }
+
+    /**
+     * Internal method closing a stream that will not be read.
+     *
+     * @param inputStream The stream to close.
+     */
+    private static void close(InputStream inputStream)
+    {
+        try
+        {
+            inputStream.close();
+        }
+        catch(IOException e)
+        {
+            // Nothing was read from the stream.
+        }
+    }
+}
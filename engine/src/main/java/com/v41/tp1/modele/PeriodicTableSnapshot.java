@@ -0,0 +1,325 @@
+package com.v41.tp1.modele;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * This class contains one version of the periodic table. It is built off to the side
+ * from the chemical elements of a file, then published by the PeriodicTable as a whole,
+ * so that loading a new version never modifies the data read by a calculation.
+ *
+ * A published snapshot is read without any lock. A calculation that reads the table
+ * several times keeps the snapshot it started with, and records its #getVersion().
+ *      @see PeriodicTable#getSnapshot()
+ */
+public final class PeriodicTableSnapshot
+{
+    /**
+     * The snapshot in use before any periodic table is loaded.
+     */
+    static final PeriodicTableSnapshot EMPTY = new PeriodicTableSnapshot(0, Collections.<ChemicalElement>emptyList());
+
+    /**
+     * The version of the periodic table, incremented each time a periodic table is
+     * loaded. 0 means that no periodic table was loaded.
+     */
+    private final long version;
+
+    /**
+     * This TreeMap contains every chemical element from the periodic table, sorted by symbol.
+     *      @see PeriodicTable
+     */
+    private final SortedMap<String, ChemicalElement> elements;
+
+    /**
+     * The position in the periodic table of each element, indexed by the code of its
+     * symbol. 0 means that no element has this symbol.
+     *      @see #getSymbolCode(char, char)
+     */
+    private final short[] atomicNumbersBySymbolCode;
+
+    /**
+     * The chemical elements indexed by their position in the periodic table.
+     * Index 0 is never used.
+     */
+    private final ChemicalElement[] elementsByNumber;
+
+    /**
+     * The atomic weight of each element, indexed by its position in the periodic table.
+     * Index 0 is never used.
+     */
+    private final double[] atomicWeights;
+
+    /**
+     * The symbol of each element, indexed by its position in the periodic table.
+     * Index 0 is never used.
+     */
+    private final String[] symbols;
+
+    /**
+     * The rank of each element's symbol in alphabetical order, starting at 0, indexed by
+     * its position in the periodic table.
+     */
+    private final int[] alphabeticalRanks;
+
+    /**
+     * The positions in the periodic table of the elements, in alphabetical order of
+     * their symbols.
+     */
+    private final int[] elementsInAlphabeticalOrder;
+
+    /**
+     * Constructor of a snapshot. An element whose symbol appears again in the list is
+     * replaced by the later one.
+     *
+     * @param version The version of the periodic table.
+     * @param chemicalElements The chemical elements read from the file, in order.
+     */
+    PeriodicTableSnapshot(long version, List<ChemicalElement> chemicalElements)
+    {
+        this.version = version;
+        TreeMap<String, ChemicalElement> elements = new TreeMap<String, ChemicalElement>();
+        atomicNumbersBySymbolCode = new short[26 * 27];
+        int highestNoElement = 0;
+        for(ChemicalElement element : chemicalElements)
+        {
+            if(element.getNoElement() <= Short.MAX_VALUE)
+            {
+                highestNoElement = Math.max(highestNoElement, element.getNoElement());
+            }
+        }
+        elementsByNumber = new ChemicalElement[highestNoElement + 1];
+        atomicWeights = new double[highestNoElement + 1];
+        symbols = new String[highestNoElement + 1];
+        for(ChemicalElement element : chemicalElements)
+        {
+            elements.put(element.getSymbol(), element);
+            indexChemicalElement(element);
+        }
+        this.elements = Collections.unmodifiableSortedMap(elements);
+
+        alphabeticalRanks = new int[elementsByNumber.length];
+        int[] sortedElements = new int[elementsByNumber.length];
+        int nbOfRankedElements = 0;
+        for(ChemicalElement element : elements.values())
+        {
+            int noElement = element.getNoElement();
+            if(noElement > 0 && noElement < elementsByNumber.length && elementsByNumber[noElement] == element)
+            {
+                alphabeticalRanks[noElement] = nbOfRankedElements;
+                sortedElements[nbOfRankedElements++] = noElement;
+            }
+        }
+        elementsInAlphabeticalOrder = Arrays.copyOf(sortedElements, nbOfRankedElements);
+    }
+
+    /**
+     * Accessor method for the version of the periodic table.
+     *
+     * @return The version, 0 if no periodic table was loaded.
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Returns the number of chemical elements in the periodic table.
+     *
+     * @return The number of chemical elements.
+     */
+    public int getNbOfElements()
+    {
+        return elements.size();
+    }
+
+    /**
+     * Accessor method for a single element, using its symbol.
+     *
+     * @param symbol The symbol representation of the element to be returned.
+     * @return The ChemicalElement with the given symbol, or null if none exists.
+     */
+    public ChemicalElement getChemicalElement(String symbol)
+    {
+        return elements.get(symbol);
+    }
+
+    /**
+     * Finds the position in the periodic table of an element from the characters of its
+     * symbol. The lookup is a single array access and creates no object.
+     *
+     * @param firstLetter The uppercase letter of the symbol.
+     * @param secondLetter The lowercase letter of the symbol, or 0 for one letter symbols.
+     * @return The position of the element in the periodic table, or 0 if no element has
+     *         this symbol.
+     */
+    public int getAtomicNumber(char firstLetter, char secondLetter)
+    {
+        int symbolCode = getSymbolCode(firstLetter, secondLetter);
+        if(symbolCode < 0)
+        {
+            return 0;
+        }
+        return atomicNumbersBySymbolCode[symbolCode];
+    }
+
+    /**
+     * Finds the position in the periodic table of the element whose symbol starts at the
+     * given offset. As in a chemical formula, a lowercase letter following the uppercase
+     * one is part of the symbol.
+     *
+     * @param text The text containing the symbol.
+     * @param offset The position of the uppercase letter of the symbol in the text.
+     * @return The position of the element in the periodic table, or 0 if no element has
+     *         this symbol.
+     */
+    public int getAtomicNumber(CharSequence text, int offset)
+    {
+        char firstLetter = text.charAt(offset);
+        if(offset < text.length() - 1)
+        {
+            char secondLetter = text.charAt(offset + 1);
+            if(Character.isLetter(secondLetter) && Character.isLowerCase(secondLetter))
+            {
+                return getAtomicNumber(firstLetter, secondLetter);
+            }
+        }
+        return getAtomicNumber(firstLetter, (char)0);
+    }
+
+    /**
+     * Accessor method for a single element, using its position in the periodic table.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The ChemicalElement at the given position, or null if none exists.
+     */
+    public ChemicalElement getChemicalElement(int noElement)
+    {
+        if(noElement <= 0 || noElement >= elementsByNumber.length)
+        {
+            return null;
+        }
+        return elementsByNumber[noElement];
+    }
+
+    /**
+     * Returns the number of positions in the periodic table, including the unused position 0.
+     *
+     * @return The highest element position + 1.
+     */
+    public int getNbOfElementNumbers()
+    {
+        return elementsByNumber.length;
+    }
+
+    /**
+     * Accessor method for the atomic weight of a single element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The atomic weight of the element.
+     */
+    public double getAtomicWeight(int noElement)
+    {
+        return atomicWeights[noElement];
+    }
+
+    /**
+     * Accessor method for the symbol of a single element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The symbol of the element.
+     */
+    public String getSymbol(int noElement)
+    {
+        return symbols[noElement];
+    }
+
+    /**
+     * Returns the rank of the symbol of a single element in alphabetical order.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The rank of the symbol, starting at 0.
+     */
+    public int getAlphabeticalRank(int noElement)
+    {
+        return alphabeticalRanks[noElement];
+    }
+
+    /**
+     * Returns the element whose symbol has the given rank in alphabetical order.
+     *
+     * @param rank The rank of the symbol, starting at 0.
+     * @return The position of the element in the periodic table.
+     */
+    public int getElementByAlphabeticalRank(int rank)
+    {
+        return elementsInAlphabeticalOrder[rank];
+    }
+
+    /**
+     * Returns the number of characters in the symbol of a single element.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return The length of the symbol of the element.
+     */
+    public int getSymbolLength(int noElement)
+    {
+        return symbols[noElement].length();
+    }
+
+    /**
+     * Internal method adding an element to the arrays indexed by symbol code and by position.
+     * Only elements with a position can be found from their symbol.
+     *
+     * @param element The element to be indexed.
+     */
+    private void indexChemicalElement(ChemicalElement element)
+    {
+        int noElement = element.getNoElement();
+        if(noElement <= 0 || noElement > Short.MAX_VALUE)
+        {
+            return;
+        }
+        elementsByNumber[noElement] = element;
+        atomicWeights[noElement] = element.getAtomicWeight();
+        symbols[noElement] = element.getSymbol();
+
+        String symbol = element.getSymbol();
+        if(symbol.length() == 1 || symbol.length() == 2)
+        {
+            int symbolCode = getSymbolCode(symbol.charAt(0), symbol.length() == 2 ? symbol.charAt(1) : 0);
+            if(symbolCode >= 0)
+            {
+                atomicNumbersBySymbolCode[symbolCode] = (short)noElement;
+            }
+        }
+    }
+
+    /**
+     * Computes the code of a symbol: 27 codes for each uppercase letter, one for the
+     * letter alone and one for each lowercase letter that can follow it.
+     *
+     * @param firstLetter The uppercase letter of the symbol.
+     * @param secondLetter The lowercase letter of the symbol, or 0 for one letter symbols.
+     * @return The code of the symbol, or -1 if the letters cannot form a symbol.
+     */
+    private static int getSymbolCode(char firstLetter, char secondLetter)
+    {
+        if(firstLetter < 'A' || firstLetter > 'Z')
+        {
+            return -1;
+        }
+        if(secondLetter == 0)
+        {
+            return (firstLetter - 'A') * 27;
+        }
+        if(secondLetter < 'a' || secondLetter > 'z')
+        {
+            return -1;
+        }
+        return (firstLetter - 'A') * 27 + secondLetter - 'a' + 1;
+    }
+}
@@ -0,0 +1,308 @@
+package com.v41.tp1.modele;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents the Tokens of a chemical formula in a compact form. Each Token is
+ * packed into a single long instead of being a Token object holding a String:
+ *      bits 62-63: the type of the Token (the ordinal of its TokenType).
+ *      bits 31-61: the position of the Token in the formula.
+ *      bits 0-30:  the value of the Token:
+ *                      CHEMICAL_ELEMENT_SYMBOL: the element's position in the periodic table.
+ *                      NUMBER: the multiplier.
+ *                      PARENTHESIS: #OPENING_PARENTHESIS or #CLOSING_PARENTHESIS.
+ *
+ * The Tokens can still be converted to and from the Token class.
+ *      @see #toTokens()
+ *      @see #fromTokens(List)
+ */
+public final class TokenStream
+{
+    /**
+     * Packed type of a CHEMICAL_ELEMENT_SYMBOL Token.
+     */
+    public static final int CHEMICAL_ELEMENT_SYMBOL = 0;
+
+    /**
+     * Packed type of a NUMBER Token.
+     */
+    public static final int NUMBER = 1;
+
+    /**
+     * Packed type of a PARENTHESIS Token.
+     */
+    public static final int PARENTHESIS = 2;
+
+    /**
+     * Value of an opening parenthesis Token.
+     */
+    public static final int OPENING_PARENTHESIS = 0;
+
+    /**
+     * Value of a closing parenthesis Token.
+     */
+    public static final int CLOSING_PARENTHESIS = 1;
+
+    /**
+     * Mask of the 31 bits holding the value and the position of a Token.
+     */
+    private static final long MASK_31_BITS = 0x7FFFFFFFL;
+
+    /**
+     * The types of Tokens, indexed by their packed type.
+     */
+    private static final TokenType[] TOKEN_TYPES = {
+            TokenType.CHEMICAL_ELEMENT_SYMBOL, TokenType.NUMBER, TokenType.PARENTHESIS};
+
+    /**
+     * The packed Tokens.
+     */
+    private long[] tokens;
+
+    /**
+     * The number of Tokens in the stream.
+     */
+    private int size;
+
+    /**
+     * The snapshot of the periodic table in which the elements of the Tokens were found.
+     * The value of a CHEMICAL_ELEMENT_SYMBOL Token is only meaningful in this snapshot.
+     */
+    private PeriodicTableSnapshot periodicTable;
+
+    /**
+     * Default constructor.
+     */
+    public TokenStream()
+    {
+        this(16);
+    }
+
+    /**
+     * Overloaded constructor reserving room for a number of Tokens. The stream refers to
+     * the snapshot of the periodic table in use when it is created.
+     *
+     * @param capacity The number of Tokens that can be added before the stream grows.
+     */
+    public TokenStream(int capacity)
+    {
+        tokens = new long[Math.max(capacity, 1)];
+        periodicTable = PeriodicTable.INSTANCE.getSnapshot();
+    }
+
+    /**
+     * Packs a Token into a long.
+     *
+     * @param type The packed type of the Token.
+     * @param value The value of the Token.
+     * @param position The position of the Token in the formula.
+     * @return Returns the packed Token.
+     */
+    public static long pack(int type, int value, int position)
+    {
+        return ((long)type << 62) | ((position & MASK_31_BITS) << 31) | (value & MASK_31_BITS);
+    }
+
+    /**
+     * Extracts the type of a packed Token.
+     *
+     * @param token The packed Token.
+     * @return Returns the packed type of the Token.
+     */
+    public static int getType(long token)
+    {
+        return (int)(token >>> 62);
+    }
+
+    /**
+     * Extracts the value of a packed Token.
+     *
+     * @param token The packed Token.
+     * @return Returns the value of the Token.
+     */
+    public static int getValue(long token)
+    {
+        return (int)(token & MASK_31_BITS);
+    }
+
+    /**
+     * Extracts the position of a packed Token.
+     *
+     * @param token The packed Token.
+     * @return Returns the position of the Token in the formula.
+     */
+    public static int getPosition(long token)
+    {
+        return (int)((token >>> 31) & MASK_31_BITS);
+    }
+
+    /**
+     * Adds a Token at the end of the stream.
+     *
+     * @param type The packed type of the Token.
+     * @param value The value of the Token.
+     * @param position The position of the Token in the formula.
+     */
+    public void add(int type, int value, int position)
+    {
+        if(size == tokens.length)
+        {
+            tokens = Arrays.copyOf(tokens, size * 2);
+        }
+        tokens[size++] = pack(type, value, position);
+    }
+
+    /**
+     * Accessor method for the snapshot of the periodic table in which the elements of the
+     * Tokens were found.
+     *
+     * @return The snapshot of the periodic table.
+     */
+    public PeriodicTableSnapshot getPeriodicTable()
+    {
+        return periodicTable;
+    }
+
+    /**
+     * Mutator method for the snapshot of the periodic table in which the elements of the
+     * Tokens are found. The elements of the Tokens already in the stream must have been
+     * found in it.
+     *
+     * @param periodicTable The snapshot of the periodic table.
+     */
+    public void setPeriodicTable(PeriodicTableSnapshot periodicTable)
+    {
+        this.periodicTable = periodicTable;
+    }
+
+    /**
+     * Removes every Token from the stream, keeping its capacity.
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Removes the Tokens following the given number of Tokens, keeping the capacity.
+     *
+     * @param size The number of Tokens to keep, at most #size().
+     */
+    public void truncate(int size)
+    {
+        this.size = size;
+    }
+
+    /**
+     * Copies the stream, so that the copy is not modified with the stream.
+     *
+     * @return Returns a new stream containing the same Tokens.
+     */
+    public TokenStream copy()
+    {
+        TokenStream copy = new TokenStream(size);
+        System.arraycopy(tokens, 0, copy.tokens, 0, size);
+        copy.size = size;
+        copy.periodicTable = periodicTable;
+        return copy;
+    }
+
+    /**
+     * Returns the number of Tokens in the stream.
+     *
+     * @return The number of Tokens.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns a single packed Token.
+     *
+     * @param index The index of the Token in the stream.
+     * @return The packed Token.
+     */
+    public long get(int index)
+    {
+        return tokens[index];
+    }
+
+    /**
+     * Returns the type of a single Token.
+     *
+     * @param index The index of the Token in the stream.
+     * @return The type of the Token.
+     */
+    public TokenType getTokenType(int index)
+    {
+        return TOKEN_TYPES[getType(tokens[index])];
+    }
+
+    /**
+     * Adapter method converting the stream into Token objects, for the code using the
+     * Token class. The content of each Token is the same as the one created by the
+     * ChemicalValidator from the formula.
+     *
+     * @return Returns a new list containing one Token per packed Token.
+     */
+    public ArrayList<Token> toTokens()
+    {
+        ArrayList<Token> tokenList = new ArrayList<>(size);
+        for(int i = 0; i < size; ++i)
+        {
+            long token = tokens[i];
+            switch(getType(token))
+            {
+                case CHEMICAL_ELEMENT_SYMBOL:
+                    tokenList.add(new Token(periodicTable.getSymbol(getValue(token)),
+                            TokenType.CHEMICAL_ELEMENT_SYMBOL));
+                    break;
+                case NUMBER:
+                    tokenList.add(new Token(Integer.toString(getValue(token)), TokenType.NUMBER));
+                    break;
+                default:
+                    tokenList.add(new Token(getValue(token) == OPENING_PARENTHESIS ? "(" : ")", TokenType.PARENTHESIS));
+                    break;
+            }
+        }
+        return tokenList;
+    }
+
+    /**
+     * Adapter method converting Token objects into a stream. The position of each
+     * Token is deduced from the length of the Tokens preceding it, and every element is
+     * found in the same snapshot of the periodic table.
+     *
+     * @param tokenList Validated Tokens of a chemical formula.
+     * @return Returns a new stream containing one packed Token per Token.
+     */
+    public static TokenStream fromTokens(List<Token> tokenList)
+    {
+        TokenStream tokenStream = new TokenStream(tokenList.size());
+        PeriodicTableSnapshot periodicTable = tokenStream.periodicTable;
+        int position = 0;
+        for(Token token : tokenList)
+        {
+            String content = token.getTokenContent();
+            switch(token.getTokenType())
+            {
+                case CHEMICAL_ELEMENT_SYMBOL:
+                    tokenStream.add(CHEMICAL_ELEMENT_SYMBOL,
+                            periodicTable.getAtomicNumber(content, 0), position);
+                    break;
+                case NUMBER:
+                    tokenStream.add(NUMBER, Integer.parseInt(content), position);
+                    break;
+                case PARENTHESIS:
+                    tokenStream.add(PARENTHESIS,
+                            content.equals("(") ? OPENING_PARENTHESIS : CLOSING_PARENTHESIS, position);
+                    break;
+            }
+            position += content.length();
+        }
+        return tokenStream;
+    }
+}
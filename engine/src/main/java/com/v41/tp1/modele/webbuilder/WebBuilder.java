@@ -0,0 +1,403 @@
+package com.v41.tp1.modele.webbuilder;
+
+import com.v41.tp1.modele.PeriodicTableSnapshot;
+import com.v41.tp1.modele.Token;
+import com.v41.tp1.modele.TokenStream;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Created by Streetlamp on 01/03/2018.
+ */
+
+/**
+ * Abstract class from which WebBuilderColor and WebBuilderMonochrome are derived.
+ *
+ * Every theme renders the same markup, whose elements only carry CSS classes. The page
+ * contains the stylesheet of every theme, and the theme applied is the class of the body,
+ * so a page already loaded can change theme by changing that class, without being built
+ * or loaded again. The subclasses only name their theme.
+ *
+ * A page can also be replaced by a shell loaded once, whose content is then updated by a
+ * script receiving the results as a JSON payload: only the header and the rows of the
+ * table that changed are modified, and the page is never loaded again.
+ *      @see #buildShell()
+ *      @see #appendUpdateScript(StringBuilder, double, TokenStream, TreeMap)
+ *
+ * The web page is written directly into a StringBuilder supplied by the caller, which is
+ * sized ahead from the number of Tokens and elements. The html fragments are constants,
+ * and the Tokens are read in their packed form, so rendering a formula takes a time
+ * proportional to its length and creates no object per Token.
+ */
+public abstract class WebBuilder
+{
+    /**
+     * The maximal number of characters of a Token: a multiplier of 10 digits.
+     */
+    protected static final int MAX_TOKEN_CONTENT_LENGTH = 10;
+
+    /**
+     * The maximal number of characters of a chemical element symbol or of a weight.
+     */
+    protected static final int MAX_VALUE_LENGTH = 24;
+
+    /**
+     * Script emptying the shell, when the formula is not valid.
+     */
+    public static final String CLEAR_SCRIPT = "clearResult();";
+
+    /**
+     * The stylesheet of every theme. The rules of a theme only apply inside a body of its class.
+     *      e: CHEMICAL_ELEMENT_SYMBOL Token, n: NUMBER Token, p: PARENTHESIS Token,
+     *      s: symbol column, w: weight column.
+     */
+    private static final String STYLESHEET =
+        "<style>" +
+            "table{width:100%}" +
+            "th.s{width:20%}" +
+            "th.w{width:80%}" +
+            "td{text-align:left}" +
+            "td.s{color:rgb(74, 101, 112)}" +
+            "body.color .e{color:rgb(71, 71, 71)}" +
+            "body.color .n{color:rgb(0, 145, 196)}" +
+            "body.color .p{color:rgb(175, 196, 204)}" +
+            "body.color thead tr{background:rgb(17, 71, 89)}" +
+            "body.color th p{color:rgb(167, 215, 232)}" +
+            "body.color tbody tr:nth-child(odd){background:rgb(140, 196, 216)}" +
+            "body.color tbody tr:nth-child(even){background:rgb(179, 224, 239)}" +
+        "</style>";
+
+    /**
+     * Html code opening the page, before the class of the theme.
+     */
+    private static final String PAGE_START = "<html><head>" + STYLESHEET + "</head><body class=\"";
+
+    /**
+     * The scripts of the shell. update() receives the results of a formula:
+     *      f: the html code of the formula, w: its weight,
+     *      r: the symbol and atomic weight of each element, as rows of the table.
+     * Only the parts that differ from the results displayed are modified.
+     */
+    private static final String SHELL_SCRIPT =
+        "<script>" +
+            "var formula='';" +
+            "function update(r){" +
+                "if(r.f!==formula){formula=r.f;document.getElementById('f').innerHTML=r.f;}" +
+                "var w=document.getElementById('w');" +
+                "if(w.textContent!==r.w){w.textContent=r.w;}" +
+                "var b=document.getElementById('r');" +
+                "for(var i=0;i<r.r.length;++i){" +
+                    "var row=i<b.rows.length?b.rows[i]:b.insertRow(-1);" +
+                    "if(row.cells.length===0){row.insertCell(-1).className='s';row.insertCell(-1);}" +
+                    "for(var j=0;j<2;++j){if(row.cells[j].textContent!==r.r[i][j]){row.cells[j].textContent=r.r[i][j];}}" +
+                "}" +
+                "while(b.rows.length>r.r.length){b.deleteRow(-1);}" +
+                "document.getElementById('c').style.display='';" +
+            "}" +
+            "function clearResult(){" +
+                "document.getElementById('c').style.display='none';" +
+            "}" +
+        "</script>";
+
+    /**
+     * Html code of the shell, after the class of the theme: an empty header and table,
+     * hidden until the first update.
+     */
+    private static final String SHELL_BODY =
+        "\"><div id=\"c\" style=\"display:none\">" +
+            "<header><p><span id=\"f\"></span> = <span id=\"w\"></span></p></header>" +
+            "<table>" +
+                "<thead><tr>" +
+                    "<th class=\"s\"><p>Element</p></th>" +
+                    "<th class=\"w\"><p>Weight</p></th>" +
+                "</tr></thead>" +
+                "<tbody id=\"r\"></tbody>" +
+            "</table>" +
+        "</div>" + SHELL_SCRIPT + "</body></html>";
+
+    /**
+     * Start of the update script, before the html code of the formula.
+     */
+    private static final String UPDATE_START = "update({\"f\":\"";
+
+    /**
+     * Part of the update script between the formula and its weight.
+     */
+    private static final String UPDATE_WEIGHT = "\",\"w\":\"";
+
+    /**
+     * Part of the update script between the weight and the rows.
+     */
+    private static final String UPDATE_ROWS = "\",\"r\":[";
+
+    /**
+     * End of the update script.
+     */
+    private static final String UPDATE_END = "]});";
+
+    /**
+     * Html code opening the header, after the class of the theme.
+     */
+    private static final String HEADER_START = "\"><header><p>";
+
+    /**
+     * Html code separating the formula from its weight.
+     */
+    private static final String WEIGHT_SEPARATOR = " = ";
+
+    /**
+     * Html code closing the header, after the weight.
+     */
+    private static final String HEADER_END = "</p></header>";
+
+    /**
+     * Html code preceding a CHEMICAL_ELEMENT_SYMBOL Token. The attributes of the formula
+     * are quoted with ' so that it can be sent in a JSON string without being escaped.
+     */
+    private static final String ELEMENT_START = "<span class='e'>";
+
+    /**
+     * Html code preceding a PARENTHESIS Token.
+     */
+    private static final String PARENTHESIS_START = "<span class='p'>";
+
+    /**
+     * Html code following a CHEMICAL_ELEMENT_SYMBOL or PARENTHESIS Token.
+     */
+    private static final String SPAN_END = "</span>";
+
+    /**
+     * Html code preceding a NUMBER Token, styled to be subscript.
+     */
+    private static final String NUMBER_START = "<small><sub class='n'>";
+
+    /**
+     * Html code following a NUMBER Token.
+     */
+    private static final String NUMBER_END = "</sub></small>";
+
+    /**
+     * Html code opening the table, up to its first row.
+     */
+    private static final String TABLE_START =
+        "<table>" +
+            "<thead><tr>" +
+                "<th class=\"s\"><p>Element</p></th>" +
+                "<th class=\"w\"><p>Weight</p></th>" +
+            "</tr></thead>" +
+            "<tbody>";
+
+    /**
+     * Html code opening a table row, before the symbol of its element.
+     */
+    private static final String ROW_START = "<tr><td class=\"s\">";
+
+    /**
+     * Html code between the symbol of an element and its atomic weight.
+     */
+    private static final String ROW_WEIGHT = "</td><td>";
+
+    /**
+     * Html code closing a table row.
+     */
+    private static final String ROW_END = "</td></tr>";
+
+    /**
+     * Html code closing the table and the page.
+     */
+    private static final String PAGE_END =
+            "</tbody>" +
+        "</table></body></html>";
+
+    /**
+     * The maximal number of characters written for a Token.
+     */
+    private static final int TOKEN_LENGTH = NUMBER_START.length() + NUMBER_END.length() + MAX_TOKEN_CONTENT_LENGTH;
+
+    /**
+     * The maximal number of characters written for a table row.
+     */
+    private static final int ROW_LENGTH = ROW_START.length() + ROW_WEIGHT.length() + ROW_END.length()
+            + 2 * MAX_VALUE_LENGTH;
+
+    /**
+     * The number of characters written whatever the formula.
+     */
+    private static final int PAGE_LENGTH = PAGE_START.length() + MAX_VALUE_LENGTH + HEADER_START.length()
+            + WEIGHT_SEPARATOR.length() + MAX_VALUE_LENGTH + HEADER_END.length() + TABLE_START.length()
+            + PAGE_END.length();
+
+    /**
+     * Returns the CSS class of the body applying this theme.
+     *
+     * @return The name of the class.
+     */
+    public abstract String getThemeClass();
+
+    /**
+     * Method called when the content of a webView needs to be constructed.
+     *
+     * @param weight The total weight of the given chemical formula.
+     * @param formulaInputTokens The tokens of the given chemical formula.
+     * @param composition TreeMap containing one of every chemical element included in the chemical formula.
+     * @return returns a string containing the html code to load into a webview.
+     */
+    public String buildWebPage(double weight, ArrayList<Token> formulaInputTokens, TreeMap<String, Double> composition)
+    {
+        return buildWebPage(weight, TokenStream.fromTokens(formulaInputTokens), composition);
+    }
+
+    /**
+     * Same as #buildWebPage(double, ArrayList, TreeMap), but reads the packed Tokens of the formula.
+     *
+     * @param weight The total weight of the given chemical formula.
+     * @param formulaTokens The packed tokens of the given chemical formula.
+     * @param composition TreeMap containing one of every chemical element included in the chemical formula.
+     * @return returns a string containing the html code to load into a webview.
+     */
+    public String buildWebPage(double weight, TokenStream formulaTokens, TreeMap<String, Double> composition)
+    {
+        StringBuilder htmlPage = new StringBuilder(estimateLength(formulaTokens.size(), composition.size()));
+        appendWebPage(htmlPage, weight, formulaTokens, composition);
+        return htmlPage.toString();
+    }
+
+    /**
+     * Writes the web page at the end of a StringBuilder, which is first enlarged to hold it.
+     *
+     * @param htmlPage The StringBuilder receiving the html code.
+     * @param weight The total weight of the given chemical formula.
+     * @param formulaTokens The packed tokens of the given chemical formula.
+     * @param composition TreeMap containing one of every chemical element included in the chemical formula.
+     */
+    public void appendWebPage(StringBuilder htmlPage, double weight, TokenStream formulaTokens,
+                              TreeMap<String, Double> composition)
+    {
+        htmlPage.ensureCapacity(htmlPage.length() + estimateLength(formulaTokens.size(), composition.size()));
+        htmlPage.append(PAGE_START).append(getThemeClass());
+        appendHeader(htmlPage, weight, formulaTokens);
+        appendBody(htmlPage, composition);
+    }
+
+    /**
+     * Builds the shell of the web page: the stylesheet, the scripts, and an empty header
+     * and table, filled by the update scripts.
+     *
+     * @return returns a string containing the html code to load into a webview once.
+     */
+    public String buildShell()
+    {
+        return PAGE_START + getThemeClass() + SHELL_BODY;
+    }
+
+    /**
+     * Writes the script updating the shell with the results of a formula. The formula and
+     * the weights are sent as a JSON payload, and the shell only modifies what changed.
+     *
+     * @param script The StringBuilder receiving the script.
+     * @param weight The total weight of the given chemical formula.
+     * @param formulaTokens The packed tokens of the given chemical formula.
+     * @param composition TreeMap containing one of every chemical element included in the chemical formula.
+     */
+    public void appendUpdateScript(StringBuilder script, double weight, TokenStream formulaTokens,
+                                   TreeMap<String, Double> composition)
+    {
+        script.ensureCapacity(script.length() + estimateLength(formulaTokens.size(), composition.size()));
+        script.append(UPDATE_START);
+        formatFormula(script, formulaTokens);
+        script.append(UPDATE_WEIGHT).append(weight).append(UPDATE_ROWS);
+        boolean firstRow = true;
+        for(Map.Entry<String, Double> entry : composition.entrySet())
+        {
+            if(!firstRow)
+            {
+                script.append(',');
+            }
+            firstRow = false;
+            script.append("[\"").append(entry.getKey())
+                    .append("\",\"").append(entry.getValue().doubleValue()).append("\"]");
+        }
+        script.append(UPDATE_END);
+    }
+
+    /**
+     * Returns the length of the web page of a formula, or slightly more, so that the
+     * StringBuilder receiving it never needs to grow.
+     *
+     * @param nbOfTokens The number of tokens of the formula.
+     * @param nbOfElements The number of different chemical elements of the formula.
+     * @return Returns the number of characters to reserve.
+     */
+    public int estimateLength(int nbOfTokens, int nbOfElements)
+    {
+        return PAGE_LENGTH + nbOfTokens * TOKEN_LENGTH + nbOfElements * ROW_LENGTH;
+    }
+
+    /**
+     * Internal method used to write the header of the web page.
+     *
+     * @param htmlPage The StringBuilder receiving the html code.
+     * @param weight The total weight of the given chemical formula.
+     * @param formulaTokens The packed tokens of the given chemical formula.
+     */
+    protected void appendHeader(StringBuilder htmlPage, double weight, TokenStream formulaTokens)
+    {
+        htmlPage.append(HEADER_START);
+        formatFormula(htmlPage, formulaTokens);
+        htmlPage.append(WEIGHT_SEPARATOR).append(weight).append(HEADER_END);
+    }
+
+    /**
+     * Internal method used to format a chemical formula. Each Token receives the class of
+     * its type, and all NUMBER Tokens are styled to be subscript.
+     *
+     * @param htmlPage The StringBuilder receiving the html code.
+     * @param formulaTokens The packed tokens of the given chemical formula.
+     */
+    private void formatFormula(StringBuilder htmlPage, TokenStream formulaTokens)
+    {
+        PeriodicTableSnapshot periodicTable = formulaTokens.getPeriodicTable();
+        int currentIndex = 0;
+
+        while(currentIndex <= formulaTokens.size() - 1)
+        {
+            long currentToken = formulaTokens.get(currentIndex);
+            int value = TokenStream.getValue(currentToken);
+            switch(TokenStream.getType(currentToken))
+            {
+                case TokenStream.CHEMICAL_ELEMENT_SYMBOL:
+                    htmlPage.append(ELEMENT_START).append(periodicTable.getSymbol(value)).append(SPAN_END);
+                    break;
+                case TokenStream.NUMBER:
+                    htmlPage.append(NUMBER_START).append(value).append(NUMBER_END);
+                    break;
+                default:
+                    htmlPage.append(PARENTHESIS_START)
+                            .append(value == TokenStream.OPENING_PARENTHESIS ? '(' : ')')
+                            .append(SPAN_END);
+                    break;
+            }
+            ++currentIndex;
+        }
+    }
+
+    /**
+     * Internal method used to write the body of the web page.
+     *
+     * @param htmlPage The StringBuilder receiving the html code.
+     * @param composition TreeMap containing one of every chemical element included in the chemical formula.
+     */
+    protected void appendBody(StringBuilder htmlPage, TreeMap<String, Double> composition)
+    {
+        htmlPage.append(TABLE_START);
+        for(Map.Entry<String, Double> entry : composition.entrySet())
+        {
+            htmlPage.append(ROW_START).append(entry.getKey())
+                    .append(ROW_WEIGHT).append(entry.getValue().doubleValue())
+                    .append(ROW_END);
+        }
+        htmlPage.append(PAGE_END);
+    }
+}
@@ -0,0 +1,27 @@
+package com.v41.tp1.modele.webbuilder;
+
+/**
+ * Created by Streetlamp on 01/03/2018.
+ */
+
+/**
+ * Class used to construct a formatted color view of a valid formula.
+ */
+public class WebBuilderColor extends WebBuilder
+{
+    /**
+     * The CSS class of the body applying this theme.
+     */
+    public static final String THEME_CLASS = "color";
+
+    /**
+     * Returns the CSS class of the body applying this theme.
+     *
+     * @return The name of the class.
+     */
+    @Override
+    public String getThemeClass()
+    {
+        return THEME_CLASS;
+    }
+}
@@ -0,0 +1,336 @@
+package com.v41.tp1.viewcontroler;
+
+import com.v41.tp1.modele.AtomicWeightTable;
+import com.v41.tp1.modele.CompiledFormula;
+import com.v41.tp1.modele.EvaluationScratch;
+import com.v41.tp1.modele.FormulaResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class that evaluates large batches of chemical formulas, such as inventory or LIMS
+ * exports, on every core of the machine.
+ *
+ * The batch is split recursively into slices that are evaluated by the workers of a
+ * ForkJoinPool. Each worker reuses its own EvaluationScratch, and writes its results
+ * directly at the index of their formula, so the results are always returned in input
+ * order. An invalid formula only produces an invalid FormulaResult: the rest of the
+ * batch is still evaluated.
+ *
+ * In single pass mode, the formulas are evaluated by a SinglePassEvaluator per worker:
+ * the results then contain no Tokens, but no Token is ever created.
+ *      @see FormulaEvaluator
+ *      @see SinglePassEvaluator
+ */
+public class BatchEvaluator
+{
+    /**
+     * The default number of formulas read from a stream before they are evaluated.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 65536;
+
+    /**
+     * Slices containing this many formulas or fewer are no longer split.
+     */
+    private static final int SLICE_THRESHOLD = 512;
+
+    /**
+     * Listener receiving the results of a streamed batch.
+     *      @see #evaluate(Iterator, int, ResultListener)
+     */
+    public interface ResultListener
+    {
+        /**
+         * Called once for every formula of the stream, in input order.
+         *
+         * @param index The position of the formula in the stream.
+         * @param result The result of the formula.
+         */
+        void onResult(long index, FormulaResult result);
+    }
+
+    /**
+     * The pool whose workers evaluate the formulas.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Whether or not the formulas are evaluated in a single pass, without Tokens.
+     */
+    private final boolean singlePass;
+
+    /**
+     * The single pass evaluator of each worker of the pool.
+     */
+    private final ThreadLocal<SinglePassEvaluator> singlePassEvaluators = new ThreadLocal<SinglePassEvaluator>()
+    {
+        @Override
+        protected SinglePassEvaluator initialValue()
+        {
+            return new SinglePassEvaluator();
+        }
+    };
+
+    /**
+     * The working buffers of each worker of the pool.
+     */
+    private final ThreadLocal<EvaluationScratch> scratches = new ThreadLocal<EvaluationScratch>()
+    {
+        @Override
+        protected EvaluationScratch initialValue()
+        {
+            return new EvaluationScratch();
+        }
+    };
+
+    /**
+     * Default constructor. The batches are evaluated using one worker per available core.
+     */
+    public BatchEvaluator()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Overloaded constructor specifying the number of workers.
+     *
+     * @param parallelism The number of formulas evaluated at the same time.
+     */
+    public BatchEvaluator(int parallelism)
+    {
+        this(parallelism, false);
+    }
+
+    /**
+     * Overloaded constructor specifying the number of workers and the evaluation mode.
+     *
+     * @param parallelism The number of formulas evaluated at the same time.
+     * @param singlePass Whether or not the formulas are evaluated in a single pass, without Tokens.
+     */
+    public BatchEvaluator(int parallelism, boolean singlePass)
+    {
+        this.singlePass = singlePass;
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Evaluates every formula of the batch.
+     *
+     * @param formulas The chemical formulas to evaluate.
+     * @return Returns the result of every formula, in the same order as the formulas.
+     */
+    public FormulaResult[] evaluate(List<String> formulas)
+    {
+        FormulaResult[] results = new FormulaResult[formulas.size()];
+        pool.invoke(new EvaluationSlice(formulas, results, 0, results.length));
+        return results;
+    }
+
+    /**
+     * Evaluates every formula of the batch, and reduces each result to the number of
+     * atoms of each element. The compiled formulas can then be evaluated against any
+     * table of atomic weights without parsing the text again.
+     *
+     * @param formulas The chemical formulas to compile.
+     * @return Returns the compiled formulas, in the same order as the formulas, null for
+     *         an invalid formula.
+     *      @see CompiledFormula#evaluate(CompiledFormula[], AtomicWeightTable, double[])
+     */
+    public CompiledFormula[] compile(List<String> formulas)
+    {
+        FormulaResult[] results = evaluate(formulas);
+        CompiledFormula[] compiledFormulas = new CompiledFormula[results.length];
+        for(int i = 0; i < results.length; ++i)
+        {
+            compiledFormulas[i] = results[i].compile();
+        }
+        return compiledFormulas;
+    }
+
+    /**
+     * Evaluates every formula of a stream, #DEFAULT_CHUNK_SIZE formulas at a time.
+     *
+     * @param formulas The chemical formulas to evaluate.
+     * @param listener The listener receiving the results.
+     * @return Returns the number of formulas evaluated.
+     *      @see #evaluate(Iterator, int, ResultListener)
+     */
+    public long evaluate(Iterator<String> formulas, ResultListener listener)
+    {
+        return evaluate(formulas, DEFAULT_CHUNK_SIZE, listener);
+    }
+
+    /**
+     * Evaluates every formula of a stream too large to be kept in memory. The formulas
+     * are read in chunks, each chunk is evaluated in parallel, then its results are sent
+     * to the listener in input order before the next chunk is read.
+     *
+     * @param formulas The chemical formulas to evaluate.
+     * @param chunkSize The number of formulas evaluated together, at least 1.
+     * @param listener The listener receiving the results.
+     * @return Returns the number of formulas evaluated.
+     */
+    public long evaluate(Iterator<String> formulas, int chunkSize, ResultListener listener)
+    {
+        if(chunkSize < 1)
+        {
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        }
+        long nbOfFormulas = 0;
+        List<String> chunk = new ArrayList<>(chunkSize);
+        while(formulas.hasNext())
+        {
+            chunk.clear();
+            while(formulas.hasNext() && chunk.size() < chunkSize)
+            {
+                chunk.add(formulas.next());
+            }
+            FormulaResult[] results = evaluate(chunk);
+            for(FormulaResult result : results)
+            {
+                listener.onResult(nbOfFormulas, result);
+                ++nbOfFormulas;
+            }
+        }
+        return nbOfFormulas;
+    }
+
+    /**
+     * Groups the results of a batch by chemical identity, so that equivalent formulas
+     * such as "H2O", "OH2" and "(H2O)" are counted as a single compound. The results
+     * are compared by fingerprint, and by composition only when fingerprints match.
+     *
+     * @param results The results of a batch.
+     * @return Returns, for every result, the index of the first result of the same
+     *         compound (its own index if it is the first), or -1 if it is invalid.
+     *      @see FormulaResult#isSameCompound(FormulaResult)
+     */
+    public static int[] deduplicate(FormulaResult[] results)
+    {
+        int[] firstOccurrences = new int[results.length];
+        HashMap<Long, Integer> firstOccurrenceByFingerprint = new HashMap<>();
+        for(int i = 0; i < results.length; ++i)
+        {
+            firstOccurrences[i] = -1;
+            if(!results[i].isValid())
+            {
+                continue;
+            }
+            Integer firstOccurrence = firstOccurrenceByFingerprint.get(results[i].getFingerprint());
+            if(firstOccurrence == null)
+            {
+                firstOccurrenceByFingerprint.put(results[i].getFingerprint(), i);
+                firstOccurrences[i] = i;
+            }
+            else if(results[i].isSameCompound(results[firstOccurrence]))
+            {
+                firstOccurrences[i] = firstOccurrence;
+            }
+            else
+            {
+                // Two compounds with the same fingerprint: look for the compound among the earlier results.
+                firstOccurrences[i] = i;
+                for(int j = 0; j < i; ++j)
+                {
+                    if(firstOccurrences[j] == j && results[i].isSameCompound(results[j]))
+                    {
+                        firstOccurrences[i] = j;
+                        break;
+                    }
+                }
+            }
+        }
+        return firstOccurrences;
+    }
+
+    /**
+     * Stops the workers of the pool once the batches being evaluated are done.
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
+
+    /**
+     * Task evaluating a contiguous slice of the batch. A slice larger than
+     * #SLICE_THRESHOLD is split in two halves evaluated in parallel.
+     */
+    private class EvaluationSlice extends RecursiveAction
+    {
+        /**
+         * The version of the serialized form of the task.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The formulas of the whole batch.
+         */
+        private final List<String> formulas;
+
+        /**
+         * The results of the whole batch, filled at the index of their formula.
+         */
+        private final FormulaResult[] results;
+
+        /**
+         * The index of the first formula of the slice.
+         */
+        private final int start;
+
+        /**
+         * The index following the last formula of the slice.
+         */
+        private final int end;
+
+        /**
+         * Constructor of a slice of the batch.
+         *
+         * @param formulas The formulas of the whole batch.
+         * @param results The results of the whole batch.
+         * @param start The index of the first formula of the slice.
+         * @param end The index following the last formula of the slice.
+         */
+        EvaluationSlice(List<String> formulas, FormulaResult[] results, int start, int end)
+        {
+            this.formulas = formulas;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Evaluates the slice, or splits it if it is too large.
+         */
+        @Override
+        protected void compute()
+        {
+            if(end - start <= SLICE_THRESHOLD && singlePass)
+            {
+                SinglePassEvaluator singlePassEvaluator = singlePassEvaluators.get();
+                for(int i = start; i < end; ++i)
+                {
+                    results[i] = singlePassEvaluator.evaluateToResult(formulas.get(i));
+                }
+            }
+            else if(end - start <= SLICE_THRESHOLD)
+            {
+                EvaluationScratch scratch = scratches.get();
+                for(int i = start; i < end; ++i)
+                {
+                    results[i] = FormulaEvaluator.INSTANCE.evaluate(formulas.get(i), scratch);
+                }
+            }
+            else
+            {
+                int middle = (start + end) >>> 1;
+                invokeAll(new EvaluationSlice(formulas, results, start, middle),
+                          new EvaluationSlice(formulas, results, middle, end));
+            }
+        }
+    }
+}
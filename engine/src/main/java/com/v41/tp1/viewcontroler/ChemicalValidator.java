@@ -0,0 +1,299 @@
+package com.v41.tp1.viewcontroler;
+
+import com.v41.tp1.modele.EvaluationScratch;
+import com.v41.tp1.modele.ParseState;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.modele.PeriodicTableSnapshot;
+import com.v41.tp1.modele.Token;
+import com.v41.tp1.modele.TokenStream;
+import java.util.ArrayList;
+
+/**
+ * Class that handles the validation of a chemical formula inputted as a string.
+ * Simultaneously handles the extraction of each element of the formula and
+ * converts them into Tokens.
+ *      @see Token
+ */
+public enum ChemicalValidator
+{
+    /**
+     * The instance of the ChemicalValidator class.
+     */
+    INSTANCE;
+
+    /**
+     * The container containing the different elements extracted from the user's input
+     * during the validation of the formula. A token can be a Number, a Parentheses
+     * or a Chemical Element.
+     *      @see Token
+     */
+    ArrayList<Token> formulaTokens = new ArrayList<>();
+
+    /**
+     * The message sent back to the view when the formula is valid.
+     */
+    public static final String VALID_FORMULA_MESSAGE = "The chemical formula is valid.";
+
+    /**
+     * Array containing the different error messages that can be sent back to
+     * the view during the validation of a formula.
+     */
+    private String[] errorMessages;
+    {
+        errorMessages = new String[12];
+        errorMessages[0] = "Erreur: formule de longueur nulle.";
+        errorMessages[1] = "Erreur: la formule commence par un chiffre.";
+        errorMessages[2] = "Erreur: ceci n'est pas un atome existant.";
+        errorMessages[3] = "Erreur: un multiplicateur doit suivre un élément ou une parenthèse fermante.";
+        errorMessages[4] = "Erreur: Un multiplicateur doit être au moins de 2.";
+        errorMessages[5] = "Erreur: les zéros en trop ne sont pas permis devant un nombre.";;
+        errorMessages[6] = "Erreur: les parenthèses vides sont interdites.";
+        errorMessages[7] = "Erreur: Parenthèse fermante sans parenthèse ouvrante.";
+        errorMessages[8] = "Erreur: Parenthèse ouvrante sans parenthèse fermante.";
+        errorMessages[9] = "Erreur: caractère invalide (y compris une minuscule qui ne suit pas une majuscule).";
+        errorMessages[10] = "Erreur: Le multiplicateur est trop gros.";
+        errorMessages[11] = "Erreur: le tableau périodique n'a pas pu être chargé.";
+    }
+
+    /**
+     * Constructor for the class ChemicalValidator. This constructor is private
+     * to ensure the integrity of the class, since the class is a Singleton.
+     */
+    private ChemicalValidator()
+    {
+    }
+
+    /**
+     * Public method that returns the Tokens that make up the chemical formula.
+     *
+     * @return Returns the formulaTokens container which contains the elements
+     * found during the validation of the formula.
+     *      @see #formulaTokens
+     */
+    public ArrayList<Token> getFormulaTokens()
+    {
+        return formulaTokens;
+    }
+
+    /**
+     * Accessor method for a single error message.
+     *
+     * @param errorCode The index of the error message.
+     *      @see #errorMessages
+     * @return Returns the error message associated to the given code.
+     */
+    public String getErrorMessage(int errorCode)
+    {
+        return errorMessages[errorCode];
+    }
+
+    /**
+     * This method validates the user's input and stores the resulting Tokens in the
+     * shared formulaTokens container. Since the container is shared, this method must
+     * only be called from one thread at a time. Use #validate(String) otherwise.
+     *      @see Token
+     *      @see #formulaTokens
+     *
+     * @param formula represents the user's input that will be evaluated.
+     * @param messageForUser represents the message that will be returned to the view.
+     *      @see #errorMessages
+     * @return returns true if the formula is valid, else it returns false.
+     */
+    public boolean validateChemicalFormula(String formula, StringWrapper messageForUser)
+    {
+        ValidationResult result = validate(formula);
+        formulaTokens.clear();
+        formulaTokens.addAll(result.getTokenStream().toTokens());
+        if(!result.isValid())
+        {
+            messageForUser.content = result.getMessage();
+        }
+        return result.isValid();
+    }
+
+    /**
+     * This method contains an algorithm that takes the user's input and verifies
+     * whether or not it is a valid formula. This verification is done incrementally,
+     * one element at a time. When an element has been determined to be valid, an
+     * associated Token is packed into a TokenStream local to the call.
+     *      @see TokenStream
+     *
+     * The method keeps no state between calls, and can therefore be called from
+     * many threads at the same time.
+     *      @see Token
+     *      @see ValidationResult
+     *
+     * @param formula represents the user's input that will be evaluated.
+     * @return returns the Tokens of the formula, or the code and position of the
+     * first error found.
+     */
+    public ValidationResult validate(String formula)
+    {
+        return validate(formula, new EvaluationScratch());
+    }
+
+    /**
+     * Same as #validate(String), but uses the given working buffers instead of
+     * allocating new ones.
+     *
+     * @param formula represents the user's input that will be evaluated.
+     * @param scratch The working buffers of the calling thread.
+     * @return returns the Tokens of the formula, or the code and position of the
+     * first error found.
+     */
+    public ValidationResult validate(String formula, EvaluationScratch scratch)
+    {
+        if(formula == null || formula.isEmpty())
+        {
+            return invalid(new TokenStream(), 0, 0);
+        }
+        TokenStream tokens = new TokenStream(formula.length());
+        ParseState state = scratch.parseState;
+        state.reset(false);
+        int errorCode = parse(formula, tokens, state);
+        if(errorCode != ValidationResult.NO_ERROR)
+        {
+            return invalid(tokens, errorCode, state.getErrorPosition());
+        }
+        return new ValidationResult(tokens, ValidationResult.NO_ERROR, -1, VALID_FORMULA_MESSAGE);
+    }
+
+    /**
+     * This method contains the validation algorithm. It reads the formula from the
+     * position and parentheses saved in the given state, which allows a validation to
+     * be resumed from any Token of a formula being edited.
+     *      @see IncrementalValidator
+     *
+     * @param formula represents the user's input that will be evaluated. Must not be empty.
+     * @param tokens The Tokens read before the position of the state. The following
+     *               Tokens are added to it. If they were read in another snapshot of the
+     *               periodic table, the formula is validated again from its start.
+     * @param state The state of the validation before the next Token. Its position is
+     *              updated before every Token, and the position of the error is kept in it.
+     * @return returns ValidationResult.NO_ERROR if the formula is valid, else the index
+     * of the error message.
+     */
+    int parse(CharSequence formula, TokenStream tokens, ParseState state)
+    {
+        // Every element of the formula is found in the same snapshot of the periodic table.
+        PeriodicTableSnapshot periodicTable = PeriodicTable.INSTANCE.getSnapshot();
+        if(tokens.getPeriodicTable() != periodicTable)
+        {
+            state.restoreCheckpoint(0);
+            tokens.clear();
+            tokens.setPeriodicTable(periodicTable);
+        }
+        int currentStringIdx = state.getOffset();
+        if(currentStringIdx == 0 && Character.isDigit(formula.charAt(0)))
+        {
+            return state.error(1, 0);
+        }
+
+        while(currentStringIdx < formula.length())
+        {
+            state.saveCheckpoint(tokens.size(), currentStringIdx);
+            char currentChar = formula.charAt(currentStringIdx);
+            // Validate if the element exists
+            if(Character.isLetter(currentChar))
+            {
+                if(Character.isUpperCase(currentChar))
+                {
+                    // The symbol is 2 characters long when followed by a lowercase letter.
+                    int noElement = periodicTable.getAtomicNumber(formula, currentStringIdx);
+                    if(noElement == 0)
+                    {
+                        return state.error(2, currentStringIdx);
+                    }
+                    tokens.add(TokenStream.CHEMICAL_ELEMENT_SYMBOL, noElement, currentStringIdx);
+                    currentStringIdx += periodicTable.getSymbolLength(noElement);
+                }
+                else
+                {
+                    return state.error(9, currentStringIdx);
+                }
+            }
+            // Validate if the multiplicity is valid
+            else if(Character.isDigit(currentChar))
+            {
+                if(currentChar == '0')
+                {
+                    return state.error(5, currentStringIdx);
+                }
+                if(formula.charAt(currentStringIdx - 1) == '(')
+                {
+                    return state.error(3, currentStringIdx);
+                }
+                // The number is read digit by digit, no substring is created.
+                long value = 0;
+                int lastNumericalIdx = currentStringIdx;
+                while(lastNumericalIdx < formula.length() && Character.isDigit(formula.charAt(lastNumericalIdx)))
+                {
+                    value = value * 10 + Character.digit(formula.charAt(lastNumericalIdx), 10);
+                    if(value > Integer.MAX_VALUE)
+                    {
+                        return state.error(10, currentStringIdx);
+                    }
+                    ++lastNumericalIdx;
+                }
+                if(value >= 2)
+                {
+                    tokens.add(TokenStream.NUMBER, (int)value, currentStringIdx);
+                    currentStringIdx = lastNumericalIdx;
+                }
+                else
+                {
+                    return state.error(4, currentStringIdx);
+                }
+            }
+            // Validate whether or not the non-letter non-digit character is a parentheses.
+            else if(currentChar == '(')
+            {
+                if(currentStringIdx < formula.length() - 1
+                    && formula.charAt(currentStringIdx + 1) == ')')
+                {
+                    return state.error(6, currentStringIdx);
+                }
+                state.openParenthesis(tokens.size());
+                tokens.add(TokenStream.PARENTHESIS, TokenStream.OPENING_PARENTHESIS, currentStringIdx);
+                ++currentStringIdx;
+            }
+            else if(currentChar == ')')
+            {
+                tokens.add(TokenStream.PARENTHESIS, TokenStream.CLOSING_PARENTHESIS, currentStringIdx);
+                state.closeParenthesis(currentStringIdx);
+                ++currentStringIdx;
+            }
+            else
+            {
+                return state.error(9, currentStringIdx);
+            }
+        }
+        if(state.getNbOfClosingParentheses() > state.getNbOfOpeningParentheses())
+        {
+            return state.error(7, state.getFirstUnopenedParenthesis());
+        }
+        if(state.getNbOfClosingParentheses() < state.getNbOfOpeningParentheses())
+        {
+            return state.error(8, TokenStream.getPosition(tokens.get(state.getOutermostOpening())));
+        }
+        if(state.getFirstUnopenedParenthesis() >= 0)
+        {
+            return state.error(7, state.getFirstUnopenedParenthesis());
+        }
+        return ValidationResult.NO_ERROR;
+    }
+
+    /**
+     * Internal method used to build the result of a failed validation.
+     *
+     * @param tokens The Tokens extracted before the error was found.
+     * @param errorCode The index of the error message.
+     *      @see #errorMessages
+     * @param errorPosition The position in the formula where the error was found.
+     * @return Returns the result of the failed validation.
+     */
+    private ValidationResult invalid(TokenStream tokens, int errorCode, int errorPosition)
+    {
+        return new ValidationResult(tokens, errorCode, errorPosition, errorMessages[errorCode]);
+    }
+}
@@ -0,0 +1,66 @@
+package com.v41.tp1.viewcontroler;
+
+import com.v41.tp1.modele.ChemicalComposition;
+import com.v41.tp1.modele.EvaluationScratch;
+import com.v41.tp1.modele.FormulaResult;
+import com.v41.tp1.modele.MultiplierOverflowException;
+
+/**
+ * Class that evaluates chemical formulas without keeping any state between calls.
+ * Each call validates the formula, calculates its weight and composition, and
+ * returns everything in an immutable FormulaResult.
+ *
+ * Unlike the Controller, which drives a single ChemicalComposition for the view,
+ * this class can be used from many threads at the same time.
+ *
+ * When the Tokens are not needed, SinglePassEvaluator offers a faster mode that
+ * validates and calculates a formula without creating any Token.
+ *      @see FormulaResult
+ *      @see SinglePassEvaluator
+ */
+public enum FormulaEvaluator
+{
+    /**
+     * The instance of the FormulaEvaluator class. It contains no mutable state.
+     */
+    INSTANCE;
+
+    /**
+     * Validates and calculates a single chemical formula.
+     *
+     * @param formula The chemical formula to evaluate.
+     * @return Returns the Tokens, weight and composition of the formula if it is valid,
+     * else the code and position of the validation error.
+     */
+    public FormulaResult evaluate(String formula)
+    {
+        return evaluate(formula, new EvaluationScratch());
+    }
+
+    /**
+     * Same as #evaluate(String), but uses the given working buffers instead of
+     * allocating new ones.
+     *
+     * @param formula The chemical formula to evaluate.
+     * @param scratch The working buffers of the calling thread.
+     * @return Returns the Tokens, weight and composition of the formula if it is valid,
+     * else the code and position of the validation error.
+     */
+    public FormulaResult evaluate(String formula, EvaluationScratch scratch)
+    {
+        ValidationResult validation = ChemicalValidator.INSTANCE.validate(formula, scratch);
+        if(!validation.isValid())
+        {
+            return new FormulaResult(formula, validation.getErrorCode(), validation.getErrorPosition(), validation.getMessage());
+        }
+        try
+        {
+            ChemicalComposition.calculateComposition(validation.getTokenStream(), scratch.elementComposition, scratch);
+        }
+        catch(MultiplierOverflowException e)
+        {
+            return new FormulaResult(formula, 10, e.getPosition(), ChemicalValidator.INSTANCE.getErrorMessage(10));
+        }
+        return new FormulaResult(formula, validation.getTokenStream(), scratch.elementComposition, validation.getMessage());
+    }
+}
@@ -0,0 +1,206 @@
+package com.v41.tp1.viewcontroler;
+
+import com.v41.tp1.modele.ParseState;
+import com.v41.tp1.modele.PeriodicTableSnapshot;
+import com.v41.tp1.modele.TokenStream;
+
+/**
+ * Class that validates a chemical formula while the user types it. The state of the
+ * ChemicalValidator is saved before every Token, so after an edit the formula is only
+ * validated again from the last Token preceding the first changed character. The
+ * Tokens and errors are the same as those of ChemicalValidator.validate(String).
+ *
+ * An instance follows a single formula being edited, and must never be shared by two
+ * threads at the same time.
+ *      @see ParseState
+ */
+public final class IncrementalValidator
+{
+    /**
+     * The Tokens of the formula, up to the error if it is invalid.
+     */
+    private final TokenStream tokens = new TokenStream();
+
+    /**
+     * The state of the validation, with a checkpoint before every Token.
+     */
+    private final ParseState state = new ParseState();
+
+    /**
+     * The formula validated by #update(String), or null if the last update did not
+     * receive a String.
+     */
+    private String formula;
+
+    /**
+     * The index of the last error message, or ValidationResult.NO_ERROR.
+     */
+    private int errorCode = 0;
+
+    /**
+     * The position in the formula of the last error, or -1.
+     */
+    private int errorPosition = 0;
+
+    /**
+     * The position in the formula from which the last validation resumed.
+     */
+    private int resumedOffset;
+
+    /**
+     * The result of the last validation. Only created if requested.
+     */
+    private ValidationResult result;
+
+    /**
+     * Default constructor. The formula starts empty.
+     */
+    public IncrementalValidator()
+    {
+        state.reset(true);
+    }
+
+    /**
+     * Validates the new content of the formula, finding the first changed character
+     * by comparing it with the previous content.
+     *
+     * @param formula The whole formula, after the edit.
+     * @return returns ValidationResult.NO_ERROR if the formula is valid, else the index
+     * of the error message.
+     */
+    public int update(String formula)
+    {
+        int firstChangedIndex = 0;
+        if(this.formula != null)
+        {
+            int length = Math.min(this.formula.length(), formula.length());
+            while(firstChangedIndex < length && this.formula.charAt(firstChangedIndex) == formula.charAt(firstChangedIndex))
+            {
+                ++firstChangedIndex;
+            }
+            if(firstChangedIndex == this.formula.length() && firstChangedIndex == formula.length())
+            {
+                return errorCode;
+            }
+        }
+        int code = update(formula, firstChangedIndex);
+        this.formula = formula;
+        return code;
+    }
+
+    /**
+     * Validates the new content of the formula, knowing where the edit starts. Suited to
+     * editors reporting their changes, such as an Android TextWatcher.
+     *
+     * @param formula The whole formula, after the edit.
+     * @param firstChangedIndex The position of the first character changed since the
+     *                          last update.
+     * @return returns ValidationResult.NO_ERROR if the formula is valid, else the index
+     * of the error message.
+     */
+    public int update(CharSequence formula, int firstChangedIndex)
+    {
+        this.formula = null;
+        result = null;
+        if(formula.length() == 0)
+        {
+            state.reset(true);
+            tokens.clear();
+            resumedOffset = 0;
+            return setError(0, 0);
+        }
+        int tokenIndex = Math.min(state.findCheckpoint(firstChangedIndex), tokens.size());
+        state.restoreCheckpoint(tokenIndex);
+        tokens.truncate(tokenIndex);
+        resumedOffset = state.getOffset();
+
+        PeriodicTableSnapshot periodicTable = tokens.getPeriodicTable();
+        int code = ChemicalValidator.INSTANCE.parse(formula, tokens, state);
+        if(tokens.getPeriodicTable() != periodicTable)
+        {
+            // The Tokens were read in another snapshot, so the whole formula was validated.
+            resumedOffset = 0;
+        }
+        return setError(code, state.getErrorPosition());
+    }
+
+    /**
+     * Returns whether or not the formula is valid.
+     *
+     * @return Returns true if the formula is valid, else false.
+     */
+    public boolean isValid()
+    {
+        return errorCode == ValidationResult.NO_ERROR;
+    }
+
+    /**
+     * Accessor method for the code of the last error.
+     *
+     * @return The index of the error message, or ValidationResult.NO_ERROR.
+     */
+    public int getErrorCode()
+    {
+        return errorCode;
+    }
+
+    /**
+     * Accessor method for the position of the last error.
+     *
+     * @return The position in the formula where the error was found, or -1.
+     */
+    public int getErrorPosition()
+    {
+        return errorPosition;
+    }
+
+    /**
+     * Returns the message to be displayed to the user.
+     *
+     * @return The validation message.
+     */
+    public String getMessage()
+    {
+        return isValid() ? ChemicalValidator.VALID_FORMULA_MESSAGE : ChemicalValidator.INSTANCE.getErrorMessage(errorCode);
+    }
+
+    /**
+     * Accessor method for the position from which the last validation resumed. Every
+     * character before it was validated by an earlier update.
+     *
+     * @return The position in the formula.
+     */
+    public int getResumedOffset()
+    {
+        return resumedOffset;
+    }
+
+    /**
+     * Returns the result of the last validation, with a copy of its Tokens, which are
+     * modified by the next update.
+     *
+     * @return The result of the last validation.
+     */
+    public ValidationResult getResult()
+    {
+        if(result == null)
+        {
+            result = new ValidationResult(tokens.copy(), errorCode, isValid() ? -1 : errorPosition, getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Internal method keeping the outcome of a validation.
+     *
+     * @param errorCode The index of the error message, or ValidationResult.NO_ERROR.
+     * @param errorPosition The position in the formula where the error was found.
+     * @return Returns the error code.
+     */
+    private int setError(int errorCode, int errorPosition)
+    {
+        this.errorCode = errorCode;
+        this.errorPosition = errorCode == ValidationResult.NO_ERROR ? -1 : errorPosition;
+        return errorCode;
+    }
+}
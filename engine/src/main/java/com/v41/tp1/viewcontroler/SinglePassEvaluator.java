@@ -0,0 +1,502 @@
+package com.v41.tp1.viewcontroler;
+
+import com.v41.tp1.modele.ChemicalComposition;
+import com.v41.tp1.modele.ElementComposition;
+import com.v41.tp1.modele.EvaluationScratch;
+import com.v41.tp1.modele.FormulaResult;
+import com.v41.tp1.modele.MultiplierOverflowException;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.modele.PeriodicTableSnapshot;
+import com.v41.tp1.modele.TokenStream;
+
+import java.util.Arrays;
+
+/**
+ * Class that validates a chemical formula and calculates its weight and the number of
+ * atoms of each element in a single forward pass over the characters of the formula.
+ * Unlike the ChemicalValidator followed by ChemicalComposition, no Token, substring or
+ * boxed number is created: symbols are resolved from their characters and numbers are
+ * accumulated digit by digit.
+ *
+ * Each level of parentheses has its own row of atom counts. An element or a closed group
+ * stays pending until the next character is read, since a multiplier may follow it. The
+ * pending element or group is then added to the current level, multiplied if needed.
+ *
+ * The validation reports the same errors, at the same positions, as
+ * ChemicalValidator.validate(String). An atom count that does not fit in a long is only
+ * reported if the formula is otherwise valid, at the position reported by
+ * ChemicalComposition.calculateComposition, like the FormulaEvaluator does.
+ *
+ * An instance reuses its buffers from one formula to the next, and must therefore
+ * never be shared by two threads at the same time.
+ */
+public final class SinglePassEvaluator
+{
+    /**
+     * The number of atoms of each element, for each level of parentheses.
+     * The rows are indexed by level, the columns by element position.
+     */
+    private long[][] levelAtomCounts = new long[4][];
+
+    /**
+     * The positions of the elements present in each level of parentheses, in the
+     * order in which they were first found. Allows a level to be merged or cleared
+     * without going through every column of its row.
+     */
+    private int[][] levelElements = new int[4][];
+
+    /**
+     * The number of elements present in each level of parentheses.
+     */
+    private int[] levelNbOfElements = new int[4];
+
+    /**
+     * The position in the formula of the opening parenthesis of each level.
+     */
+    private int[] levelOpeningPositions = new int[4];
+
+    /**
+     * The current level of parentheses.
+     */
+    private int level;
+
+    /**
+     * The position of the element waiting for its multiplier, or 0 if none.
+     */
+    private int pendingElement;
+
+    /**
+     * Whether or not the group just closed is waiting for its multiplier.
+     * Its atom counts are still in the row under the current level.
+     */
+    private boolean pendingGroup;
+
+    /**
+     * The total weight of the last valid formula.
+     */
+    private double weight;
+
+    /**
+     * The position in the formula where the last error was found, or -1.
+     */
+    private int errorPosition;
+
+    /**
+     * The snapshot of the periodic table read by the last formula.
+     */
+    private PeriodicTableSnapshot periodicTable = PeriodicTable.INSTANCE.getSnapshot();
+
+    /**
+     * The composition copied into the FormulaResults, reused from one formula to the next.
+     */
+    private final ElementComposition resultComposition = new ElementComposition();
+
+    /**
+     * Validates and calculates a chemical formula.
+     *
+     * @param formula represents the user's input that will be evaluated.
+     * @return returns FormulaResult.NO_ERROR if the formula is valid, else the index of the
+     * error message in the ChemicalValidator.
+     *      @see ChemicalValidator#getErrorMessage(int)
+     */
+    public int evaluate(CharSequence formula)
+    {
+        weight = 0;
+        errorPosition = -1;
+        periodicTable = PeriodicTable.INSTANCE.getSnapshot();
+        clearLevels();
+        if(formula == null || formula.length() == 0)
+        {
+            return error(0, 0);
+        }
+        if(Character.isDigit(formula.charAt(0)))
+        {
+            return error(1, 0);
+        }
+
+        PeriodicTableSnapshot periodicTable = this.periodicTable;
+        ensureRowLength(periodicTable.getNbOfElementNumbers());
+        int length = formula.length();
+        int nbOfOpeningParentheses = 0;
+        int nbOfClosingParentheses = 0;
+        int firstUnopenedParenthesis = -1;
+        // An atom count that overflows is only reported once the formula is known to be valid.
+        boolean overflow = false;
+        int currentIdx = 0;
+
+        while(currentIdx < length)
+        {
+            char currentChar = formula.charAt(currentIdx);
+            if(Character.isLetter(currentChar))
+            {
+                if(!Character.isUpperCase(currentChar))
+                {
+                    return error(9, currentIdx);
+                }
+                if(!addPending(1))
+                {
+                    overflow = true;
+                }
+                int noElement = periodicTable.getAtomicNumber(formula, currentIdx);
+                if(noElement == 0)
+                {
+                    return error(2, currentIdx);
+                }
+                pendingElement = noElement;
+                currentIdx += periodicTable.getSymbolLength(noElement);
+            }
+            else if(Character.isDigit(currentChar))
+            {
+                if(currentChar == '0')
+                {
+                    return error(5, currentIdx);
+                }
+                if(formula.charAt(currentIdx - 1) == '(')
+                {
+                    return error(3, currentIdx);
+                }
+                long value = 0;
+                int lastNumericalIdx = currentIdx;
+                while(lastNumericalIdx < length && Character.isDigit(formula.charAt(lastNumericalIdx)))
+                {
+                    value = value * 10 + Character.digit(formula.charAt(lastNumericalIdx), 10);
+                    if(value > Integer.MAX_VALUE)
+                    {
+                        return error(10, currentIdx);
+                    }
+                    ++lastNumericalIdx;
+                }
+                if(value < 2)
+                {
+                    return error(4, currentIdx);
+                }
+                if(!addPending(value))
+                {
+                    overflow = true;
+                }
+                currentIdx = lastNumericalIdx;
+            }
+            else if(currentChar == '(')
+            {
+                if(currentIdx < length - 1 && formula.charAt(currentIdx + 1) == ')')
+                {
+                    return error(6, currentIdx);
+                }
+                if(!addPending(1))
+                {
+                    overflow = true;
+                }
+                pushLevel(currentIdx);
+                ++nbOfOpeningParentheses;
+                ++currentIdx;
+            }
+            else if(currentChar == ')')
+            {
+                if(!addPending(1))
+                {
+                    overflow = true;
+                }
+                if(level == 0)
+                {
+                    // The formula is invalid, but the error is only reported after the
+                    // whole formula has been read, like the ChemicalValidator does.
+                    if(firstUnopenedParenthesis < 0)
+                    {
+                        firstUnopenedParenthesis = currentIdx;
+                    }
+                }
+                else
+                {
+                    --level;
+                    pendingGroup = true;
+                }
+                ++nbOfClosingParentheses;
+                ++currentIdx;
+            }
+            else
+            {
+                return error(9, currentIdx);
+            }
+        }
+        if(!addPending(1))
+        {
+            overflow = true;
+        }
+        if(nbOfClosingParentheses > nbOfOpeningParentheses)
+        {
+            return error(7, firstUnopenedParenthesis);
+        }
+        if(nbOfClosingParentheses < nbOfOpeningParentheses)
+        {
+            return error(8, levelOpeningPositions[1]);
+        }
+        if(firstUnopenedParenthesis >= 0)
+        {
+            return error(7, firstUnopenedParenthesis);
+        }
+        if(overflow)
+        {
+            return error(10, findOverflowPosition(formula));
+        }
+
+        long[] atomCounts = levelAtomCounts[0];
+        for(int i = 0; i < levelNbOfElements[0]; ++i)
+        {
+            int noElement = levelElements[0][i];
+            weight += atomCounts[noElement] * periodicTable.getAtomicWeight(noElement);
+        }
+        return FormulaResult.NO_ERROR;
+    }
+
+    /**
+     * Validates and calculates a chemical formula, and copies the outcome into an
+     * immutable FormulaResult. The result contains no Tokens.
+     *
+     * @param formula represents the user's input that will be evaluated.
+     * @return Returns the weight and composition of the formula if it is valid, else the
+     * code and position of the validation error.
+     */
+    public FormulaResult evaluateToResult(String formula)
+    {
+        int errorCode = evaluate(formula);
+        if(errorCode != FormulaResult.NO_ERROR)
+        {
+            return new FormulaResult(formula, errorCode, errorPosition,
+                    ChemicalValidator.INSTANCE.getErrorMessage(errorCode));
+        }
+        resultComposition.clear(periodicTable);
+        for(int i = 0; i < levelNbOfElements[0]; ++i)
+        {
+            int noElement = levelElements[0][i];
+            resultComposition.addAtoms(noElement, levelAtomCounts[0][noElement], 0);
+        }
+        resultComposition.computeMasses();
+        return new FormulaResult(formula, new TokenStream(), resultComposition,
+                ChemicalValidator.VALID_FORMULA_MESSAGE);
+    }
+
+    /**
+     * Accessor method for the weight of the last valid formula.
+     *
+     * @return Returns the total weight of the molecule.
+     */
+    public double getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Returns the number of atoms of an element in the last valid formula.
+     *
+     * @param noElement The position of the element in the periodic table.
+     * @return Returns the number of atoms of the element.
+     */
+    public long getAtomCount(int noElement)
+    {
+        if(noElement <= 0 || noElement >= levelAtomCounts[0].length)
+        {
+            return 0;
+        }
+        return levelAtomCounts[0][noElement];
+    }
+
+    /**
+     * Returns the number of different elements present in the last valid formula.
+     *
+     * @return Returns the number of different elements.
+     */
+    public int getNbOfPresentElements()
+    {
+        return levelNbOfElements[0];
+    }
+
+    /**
+     * Returns one of the elements present in the last valid formula, in the order in
+     * which they were first found.
+     *
+     * @param index The index of the element, from 0 to #getNbOfPresentElements() - 1.
+     * @return Returns the position of the element in the periodic table.
+     */
+    public int getPresentElement(int index)
+    {
+        return levelElements[0][index];
+    }
+
+    /**
+     * Accessor method for the position of the last error.
+     *
+     * @return Returns the position in the formula where the last error was found, or -1.
+     */
+    public int getErrorPosition()
+    {
+        return errorPosition;
+    }
+
+    /**
+     * Internal method recording the position of an error.
+     *
+     * @param errorCode The index of the error message.
+     * @param position The position in the formula where the error was found.
+     * @return Returns the error code.
+     */
+    private int error(int errorCode, int position)
+    {
+        errorPosition = position;
+        return errorCode;
+    }
+
+    /**
+     * Internal method finding the position of the multiplier reported by
+     * ChemicalComposition.calculateComposition when an atom count overflows. Only called
+     * for the rare formulas that overflow, so the Tokens are created.
+     *
+     * @param formula The valid formula whose atom count overflows.
+     * @return Returns the position in the formula of the multiplier.
+     */
+    private int findOverflowPosition(CharSequence formula)
+    {
+        EvaluationScratch scratch = new EvaluationScratch();
+        ValidationResult validation = ChemicalValidator.INSTANCE.validate(formula.toString(), scratch);
+        try
+        {
+            ChemicalComposition.calculateComposition(validation.getTokenStream(), scratch.elementComposition, scratch);
+        }
+        catch(MultiplierOverflowException e)
+        {
+            return e.getPosition();
+        }
+        return formula.length() - 1;
+    }
+
+    /**
+     * Adds the pending element or group to the current level.
+     *
+     * @param multiplier The multiplier following the pending element or group, or 1.
+     * @return Returns false if an atom count no longer fits in a long.
+     */
+    private boolean addPending(long multiplier)
+    {
+        if(pendingElement != 0)
+        {
+            int noElement = pendingElement;
+            pendingElement = 0;
+            return addAtoms(level, noElement, multiplier);
+        }
+        if(pendingGroup)
+        {
+            pendingGroup = false;
+            int group = level + 1;
+            long[] groupAtomCounts = levelAtomCounts[group];
+            boolean fits = true;
+            for(int i = 0; i < levelNbOfElements[group]; ++i)
+            {
+                int noElement = levelElements[group][i];
+                long atomCount = groupAtomCounts[noElement];
+                groupAtomCounts[noElement] = 0;
+                if(atomCount > Long.MAX_VALUE / multiplier)
+                {
+                    fits = false;
+                }
+                else if(fits)
+                {
+                    fits = addAtoms(level, noElement, atomCount * multiplier);
+                }
+            }
+            levelNbOfElements[group] = 0;
+            return fits;
+        }
+        return true;
+    }
+
+    /**
+     * Adds atoms of an element to a level of parentheses.
+     *
+     * @param atLevel The level of parentheses.
+     * @param noElement The position of the element in the periodic table.
+     * @param nbOfAtoms The number of atoms to add.
+     * @return Returns false if the atom count no longer fits in a long.
+     */
+    private boolean addAtoms(int atLevel, int noElement, long nbOfAtoms)
+    {
+        long[] atomCounts = levelAtomCounts[atLevel];
+        if(atomCounts[noElement] == 0)
+        {
+            int[] elements = levelElements[atLevel];
+            if(levelNbOfElements[atLevel] == elements.length)
+            {
+                elements = Arrays.copyOf(elements, elements.length * 2);
+                levelElements[atLevel] = elements;
+            }
+            elements[levelNbOfElements[atLevel]++] = noElement;
+        }
+        if(atomCounts[noElement] > Long.MAX_VALUE - nbOfAtoms)
+        {
+            return false;
+        }
+        atomCounts[noElement] += nbOfAtoms;
+        return true;
+    }
+
+    /**
+     * Opens a new level of parentheses.
+     *
+     * @param openingPosition The position of the opening parenthesis in the formula.
+     */
+    private void pushLevel(int openingPosition)
+    {
+        ++level;
+        if(level == levelAtomCounts.length)
+        {
+            int nbOfLevels = levelAtomCounts.length * 2;
+            levelAtomCounts = Arrays.copyOf(levelAtomCounts, nbOfLevels);
+            levelElements = Arrays.copyOf(levelElements, nbOfLevels);
+            levelNbOfElements = Arrays.copyOf(levelNbOfElements, nbOfLevels);
+            levelOpeningPositions = Arrays.copyOf(levelOpeningPositions, nbOfLevels);
+        }
+        if(levelAtomCounts[level] == null)
+        {
+            levelAtomCounts[level] = new long[levelAtomCounts[0].length];
+            levelElements[level] = new int[8];
+        }
+        levelOpeningPositions[level] = openingPosition;
+    }
+
+    /**
+     * Clears every row used by the previous formula, so that all atom counts are 0.
+     */
+    private void clearLevels()
+    {
+        for(int i = 0; i < levelAtomCounts.length && levelAtomCounts[i] != null; ++i)
+        {
+            for(int j = 0; j < levelNbOfElements[i]; ++j)
+            {
+                levelAtomCounts[i][levelElements[i][j]] = 0;
+            }
+            levelNbOfElements[i] = 0;
+        }
+        level = 0;
+        pendingElement = 0;
+        pendingGroup = false;
+    }
+
+    /**
+     * Makes sure every row can hold every element of the periodic table.
+     *
+     * @param rowLength The number of positions in the periodic table.
+     */
+    private void ensureRowLength(int rowLength)
+    {
+        if(levelAtomCounts[0] == null || levelAtomCounts[0].length < rowLength)
+        {
+            for(int i = 0; i < levelAtomCounts.length; ++i)
+            {
+                if(i == 0 || levelAtomCounts[i] != null)
+                {
+                    levelAtomCounts[i] = new long[rowLength];
+                    levelElements[i] = new int[8];
+                    levelNbOfElements[i] = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.v41.tp1.viewcontroler;
+
+import com.v41.tp1.modele.Token;
+import com.v41.tp1.modele.TokenStream;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents the immutable result of the validation of a chemical formula.
+ * If the formula is valid, the result contains its Tokens. Otherwise, it contains the
+ * code of the error and the position in the formula where the error was found.
+ *      @see ChemicalValidator#validate(String)
+ */
+public final class ValidationResult
+{
+    /**
+     * The error code of a valid formula.
+     */
+    public static final int NO_ERROR = -1;
+
+    /**
+     * The Tokens of the formula. If the formula is invalid, only the Tokens
+     * extracted before the error was found are present.
+     */
+    private final TokenStream tokenStream;
+
+    /**
+     * The Tokens of the formula converted into Token objects. Only created if requested.
+     */
+    private volatile List<Token> tokens;
+
+    /**
+     * The index of the error message in the ChemicalValidator, or #NO_ERROR.
+     */
+    private final int errorCode;
+
+    /**
+     * The position in the formula where the error was found, or -1.
+     */
+    private final int errorPosition;
+
+    /**
+     * The message to be displayed to the user.
+     */
+    private final String message;
+
+    /**
+     * The constructor for the ValidationResult class. These values cannot be
+     * modified post construction.
+     *
+     * @param tokenStream The Tokens of the formula. The stream must not be modified afterwards.
+     * @param errorCode The index of the error message, or #NO_ERROR.
+     * @param errorPosition The position in the formula where the error was found, or -1.
+     * @param message The message to be displayed to the user.
+     */
+    ValidationResult(TokenStream tokenStream, int errorCode, int errorPosition, String message)
+    {
+        this.tokenStream = tokenStream;
+        this.errorCode = errorCode;
+        this.errorPosition = errorPosition;
+        this.message = message;
+    }
+
+    /**
+     * Returns whether or not the formula is valid.
+     *
+     * @return Returns true if the formula is valid, else false.
+     */
+    public boolean isValid()
+    {
+        return errorCode == NO_ERROR;
+    }
+
+    /**
+     * Accessor method for the packed Tokens of the formula.
+     *
+     * @return Returns the Tokens of the formula. The stream must not be modified.
+     */
+    public TokenStream getTokenStream()
+    {
+        return tokenStream;
+    }
+
+    /**
+     * Accessor method for the Tokens of the formula, converted into Token objects
+     * the first time they are requested.
+     *
+     * @return Returns a read-only list of the Tokens of the formula.
+     */
+    public List<Token> getTokens()
+    {
+        if(tokens == null)
+        {
+            tokens = Collections.unmodifiableList(tokenStream.toTokens());
+        }
+        return tokens;
+    }
+
+    /**
+     * Accessor method for the error code.
+     *
+     * @return Returns the index of the error message, or #NO_ERROR.
+     */
+    public int getErrorCode()
+    {
+        return errorCode;
+    }
+
+    /**
+     * Accessor method for the position of the error.
+     *
+     * @return Returns the position in the formula where the error was found, or -1.
+     */
+    public int getErrorPosition()
+    {
+        return errorPosition;
+    }
+
+    /**
+     * Accessor method for the message to be displayed to the user.
+     *
+     * @return Returns the validation message.
+     */
+    public String getMessage()
+    {
+        return message;
+    }
+}
@@ -0,0 +1,129 @@
+package com.v41.tp1;
+
+import com.v41.tp1.modele.FormulaResult;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.viewcontroler.BatchEvaluator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchEvaluatorTest
+{
+    private final double PRECISION = 0.005;
+
+    @org.junit.Test
+    public void A_evaluate_AvecLotMelangeant_FormulesValidesEtInvalides_DevraitRetournerLesResultatsDansLOrdre() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        List<String> formulas = new ArrayList<>();
+        for(int i = 0; i < 5000; ++i)
+        {
+            formulas.add("H2O");
+            formulas.add("Hu");
+            formulas.add("(NaCl)4");
+        }
+
+        BatchEvaluator batchEvaluator = new BatchEvaluator(4);
+        FormulaResult[] results = batchEvaluator.evaluate(formulas);
+        batchEvaluator.shutdown();
+
+        assertEquals(formulas.size(), results.length);
+        for(int i = 0; i < results.length; i += 3)
+        {
+            assertEquals(18.01532, results[i].getWeight(), PRECISION);
+            assertFalse(results[i + 1].isValid());
+            assertEquals(2, results[i + 1].getErrorCode());
+            assertEquals(233.7719, results[i + 2].getWeight(), PRECISION);
+        }
+    }
+
+    @org.junit.Test
+    public void B_evaluate_AvecFluxDeFormules_DevraitAppelerLeListenerDansLOrdre() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        List<String> formulas = new ArrayList<>();
+        for(int i = 0; i < 1000; ++i)
+        {
+            formulas.add(i % 2 == 0 ? "O2" : "3Al");
+        }
+        final List<FormulaResult> received = new ArrayList<>();
+
+        BatchEvaluator batchEvaluator = new BatchEvaluator(2);
+        long nbOfFormulas = batchEvaluator.evaluate(formulas.iterator(), 64, new BatchEvaluator.ResultListener()
+        {
+            @Override
+            public void onResult(long index, FormulaResult result)
+            {
+                assertEquals(received.size(), index);
+                received.add(result);
+            }
+        });
+        batchEvaluator.shutdown();
+
+        assertEquals(1000, nbOfFormulas);
+        for(int i = 0; i < received.size(); ++i)
+        {
+            assertEquals(formulas.get(i), received.get(i).getFormula());
+            assertEquals(i % 2 == 0, received.get(i).isValid());
+        }
+    }
+
+    @org.junit.Test
+    public void C_deduplicate_AvecFormulesEquivalentes_DevraitRegrouperLesComposes() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        List<String> formulas = new ArrayList<>();
+        formulas.add("H2O");
+        formulas.add("NaCl");
+        formulas.add("OH2");
+        formulas.add("Hx");
+        formulas.add("(H2O)");
+        formulas.add("ClNa");
+
+        BatchEvaluator batchEvaluator = new BatchEvaluator(2);
+        int[] firstOccurrences = BatchEvaluator.deduplicate(batchEvaluator.evaluate(formulas));
+        batchEvaluator.shutdown();
+
+        assertArrayEquals(new int[]{0, 1, 0, -1, 0, 1}, firstOccurrences);
+    }
+
+    @org.junit.Test
+    public void D_evaluate_AvecTailleDeBlocNulle_DevraitRefuserLaTaille() throws Exception
+    {
+        List<String> formulas = new ArrayList<>();
+        formulas.add("H2O");
+        BatchEvaluator.ResultListener listener = new BatchEvaluator.ResultListener()
+        {
+            @Override
+            public void onResult(long index, FormulaResult result)
+            {
+                fail();
+            }
+        };
+
+        BatchEvaluator batchEvaluator = new BatchEvaluator(2);
+        try
+        {
+            for(int chunkSize : new int[]{0, -1})
+            {
+                try
+                {
+                    batchEvaluator.evaluate(formulas.iterator(), chunkSize, listener);
+                    fail();
+                }
+                catch(IllegalArgumentException e)
+                {
+                    assertEquals("chunkSize must be at least 1", e.getMessage());
+                }
+            }
+        }
+        finally
+        {
+            batchEvaluator.shutdown();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.v41.tp1;
 
 import com.v41.tp1.modele.ChemicalComposition;
+import com.v41.tp1.modele.MultiplierOverflowException;
 import com.v41.tp1.modele.PeriodicTable;
 import com.v41.tp1.viewcontroler.StringWrapper;
 import com.v41.tp1.viewcontroler.ChemicalValidator;
@@ -18,7 +19,7 @@ public class ChemicalCompositionTest
     @org.junit.Test
     public void F_getWeight_AvecChemicalCompositionSansParenthese_DevraitRetournerLePoidsCorrespondant() throws Exception
     {
-        PeriodicTable.INSTANCE.loadPeriodicTable(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt")));
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
         StringWrapper sw = new StringWrapper();
         ChemicalComposition ChemicalComposition = new ChemicalComposition();
 
@@ -42,7 +43,7 @@ public class ChemicalCompositionTest
     @org.junit.Test
     public void G_getWeight_AvecChemicalCompositionContenantParenthesesNonImbriquees_DevraitRetournerLePoidsCorrespondant() throws Exception
     {
-        PeriodicTable.INSTANCE.loadPeriodicTable(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt")));
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
         StringWrapper sw = new StringWrapper();
         ChemicalComposition ChemicalComposition = new ChemicalComposition();
 
@@ -70,7 +71,7 @@ public class ChemicalCompositionTest
     @org.junit.Test
     public void H_getWeight_AvecChemicalCompositionContenantParenthesesImbriquées_DevraitRetournerLePoidsCorrespondant() throws Exception
     {
-        PeriodicTable.INSTANCE.loadPeriodicTable(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt")));
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
         StringWrapper sw = new StringWrapper();
         ChemicalComposition ChemicalComposition = new ChemicalComposition();
 
@@ -106,7 +107,7 @@ public class ChemicalCompositionTest
     @org.junit.Test
     public void I_getWeight_AvecChemicalCompositionContenantNombrePlusGrandQue9_DevraitRetournerLePoidsCorrespondant() throws Exception
     {
-        PeriodicTable.INSTANCE.loadPeriodicTable(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt")));
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
         StringWrapper sw = new StringWrapper();
         ChemicalComposition ChemicalComposition = new ChemicalComposition();
 
@@ -126,4 +127,41 @@ public class ChemicalCompositionTest
         ChemicalComposition.initialise(ChemicalValidator.INSTANCE.getFormulaTokens());
         assertEquals(ChemicalComposition.getWeight(), 342.2979, PRECISION);
     }
-}
\ No newline at end of file
+
+    @org.junit.Test
+    public void J_getWeight_AvecParenthesesTresImbriquees_DevraitRetournerLePoidsCorrespondant() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        StringWrapper sw = new StringWrapper();
+        ChemicalComposition ChemicalComposition = new ChemicalComposition();
+
+        StringBuilder formula = new StringBuilder("H2");
+        for(int i = 0; i < 40; ++i)
+        {
+            formula.insert(0, '(').append(")2");
+        }
+        ChemicalValidator.INSTANCE.validateChemicalFormula(formula.toString(), sw);
+        ChemicalComposition.initialise(ChemicalValidator.INSTANCE.getFormulaTokens());
+        assertEquals(PeriodicTable.INSTANCE.getAtomicWeight(1) * (1L << 41), ChemicalComposition.getWeight(), PRECISION);
+    }
+
+    @org.junit.Test
+    public void K_initialise_AvecNombreDAtomesTropGrand_DevraitLancerUneException() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        StringWrapper sw = new StringWrapper();
+        ChemicalComposition ChemicalComposition = new ChemicalComposition();
+
+        ChemicalValidator.INSTANCE.validateChemicalFormula("((H2147483647)2147483647)2147483647", sw);
+        try
+        {
+            ChemicalComposition.initialise(ChemicalValidator.INSTANCE.getFormulaTokens());
+            fail();
+        }
+        catch(MultiplierOverflowException e)
+        {
+            assertEquals(3, e.getPosition());
+        }
+        assertEquals(0, ChemicalComposition.getWeight(), PRECISION);
+    }
+}
@@ -15,7 +15,7 @@ public class ChemicalValidatorTest
     @org.junit.Test
     public void A_initialiser_AvecComposeChimiqueValideSansParenthese_DevraitRetournerVrai() throws Exception
     {
-        PeriodicTable.INSTANCE.loadPeriodicTable(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt")));
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
         StringWrapper messageUtilisateur = new StringWrapper();
 
         assertTrue(ChemicalValidator.INSTANCE.validateChemicalFormula(("H"), messageUtilisateur));
@@ -29,7 +29,7 @@ public class ChemicalValidatorTest
     @org.junit.Test
     public void B_initialiser_AvecComposeChimiqueValideContenantParenthesesNonImbriquees_DevraitRetournerVrai() throws Exception
     {
-        PeriodicTable.INSTANCE.loadPeriodicTable(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt")));
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
         StringWrapper messageUtilisateur = new StringWrapper();
 
         assertTrue(ChemicalValidator.INSTANCE.validateChemicalFormula(("(H)"), messageUtilisateur));
@@ -45,7 +45,7 @@ public class ChemicalValidatorTest
     @org.junit.Test
     public void C_initialiser_AvecComposeChimiqueValideContenantParenthesesImbriquees_DevraitRetournerVrai() throws Exception
     {
-        PeriodicTable.INSTANCE.loadPeriodicTable(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt")));
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
         StringWrapper messageUtilisateur = new StringWrapper();
 
         assertTrue(ChemicalValidator.INSTANCE.validateChemicalFormula(("(H(CN)4)5"), messageUtilisateur));
@@ -59,7 +59,7 @@ public class ChemicalValidatorTest
     @org.junit.Test
     public void D_initialiser_AvecMauvaiseUtilisationParentheses_DevraitRetournerFaux() throws Exception
     {
-        PeriodicTable.INSTANCE.loadPeriodicTable(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt")));
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
         StringWrapper messageUtilisateur = new StringWrapper();
 
         assertFalse(ChemicalValidator.INSTANCE.validateChemicalFormula((")("), messageUtilisateur));
@@ -85,7 +85,7 @@ public class ChemicalValidatorTest
     @org.junit.Test
     public void E_initialiser_AvecComposesChimiquesInvalides_DevraitRetournerFaux() throws Exception
     {
-        PeriodicTable.INSTANCE.loadPeriodicTable(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt")));
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
         StringWrapper messageUtilisateur = new StringWrapper();
 
         assertFalse(ChemicalValidator.INSTANCE.validateChemicalFormula(("h"), messageUtilisateur));
@@ -0,0 +1,101 @@
+package com.v41.tp1;
+
+import com.v41.tp1.modele.AtomicWeightTable;
+import com.v41.tp1.modele.CompiledFormula;
+import com.v41.tp1.modele.CompiledFormulaBatch;
+import com.v41.tp1.modele.FormulaResult;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.viewcontroler.BatchEvaluator;
+import com.v41.tp1.viewcontroler.FormulaEvaluator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CompiledFormulaTest
+{
+    private final double PRECISION = 0.005;
+
+    @org.junit.Test
+    public void A_evaluate_AvecTableStandard_DevraitRetournerLeMemePoids() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+
+        FormulaResult result = FormulaEvaluator.INSTANCE.evaluate("CO(CH2OH)2");
+        CompiledFormula compiledFormula = result.compile();
+
+        assertEquals(3, compiledFormula.getNbOfPresentElements());
+        assertEquals(1, compiledFormula.getPresentElement(0));
+        assertEquals(6, compiledFormula.getPresentAtomCount(0));
+        assertEquals(result.getWeight(), compiledFormula.evaluate(AtomicWeightTable.fromPeriodicTable("Standard")), PRECISION);
+        assertNull(FormulaEvaluator.INSTANCE.evaluate("NaHu").compile());
+    }
+
+    @org.junit.Test
+    public void B_evaluate_AvecTableModifiee_DevraitUtiliserLesNouveauxPoids() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        AtomicWeightTable standard = AtomicWeightTable.fromPeriodicTable("Standard");
+        AtomicWeightTable deuterated = standard.withAtomicWeight("Deuterated", 1, 2.014102);
+
+        CompiledFormula water = FormulaEvaluator.INSTANCE.evaluate("H2O").compile();
+
+        assertEquals(18.01532, water.evaluate(standard), PRECISION);
+        assertEquals(20.02764, water.evaluate(deuterated), PRECISION);
+        assertEquals(1.00794, standard.getAtomicWeight(1), PRECISION);
+    }
+
+    @org.junit.Test
+    public void C_evaluate_AvecLot_DevraitRetournerLesPoidsDansLOrdre() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        List<String> formulas = new ArrayList<>();
+        for(int i = 0; i < 3000; ++i)
+        {
+            formulas.add("H2O");
+            formulas.add("Hu");
+            formulas.add("(NaCl)4");
+        }
+
+        BatchEvaluator batchEvaluator = new BatchEvaluator(4);
+        CompiledFormula[] compiledFormulas = batchEvaluator.compile(formulas);
+        batchEvaluator.shutdown();
+        double[] weights = new double[compiledFormulas.length];
+        CompiledFormula.evaluate(compiledFormulas, AtomicWeightTable.fromPeriodicTable("Standard"), weights);
+
+        for(int i = 0; i < weights.length; i += 3)
+        {
+            assertEquals(18.01532, weights[i], PRECISION);
+            assertNull(compiledFormulas[i + 1]);
+            assertEquals(0, weights[i + 1], PRECISION);
+            assertEquals(233.7719, weights[i + 2], PRECISION);
+        }
+    }
+
+    @org.junit.Test
+    public void D_evaluate_AvecMatriceCSR_DevraitRetournerLesMemesPoids() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        String[] formulas = {"H2O", "Hu", "(NaCl)4", "CO(CH2OH)2", "C6H12O6"};
+        CompiledFormula[] compiledFormulas = new CompiledFormula[formulas.length];
+        for(int i = 0; i < formulas.length; ++i)
+        {
+            compiledFormulas[i] = FormulaEvaluator.INSTANCE.evaluate(formulas[i]).compile();
+        }
+        AtomicWeightTable deuterated = AtomicWeightTable.fromPeriodicTable("Standard").withAtomicWeight("Deuterated", 1, 2.014102);
+
+        CompiledFormulaBatch batch = new CompiledFormulaBatch(compiledFormulas);
+        double[] expectedWeights = new double[formulas.length];
+        CompiledFormula.evaluate(compiledFormulas, deuterated, expectedWeights);
+        double[] weights = new double[formulas.length];
+        batch.evaluate(deuterated, weights);
+
+        assertEquals(5, batch.size());
+        assertEquals(2 + 2 + 3 + 3, batch.getNbOfEntries());
+        assertArrayEquals(expectedWeights, weights, 1e-9);
+        assertEquals(0, weights[1], PRECISION);
+    }
+}
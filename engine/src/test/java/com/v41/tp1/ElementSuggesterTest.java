@@ -0,0 +1,104 @@
+package com.v41.tp1;
+
+import com.v41.tp1.modele.ElementSuggester;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.viewcontroler.FormulaEvaluator;
+
+import java.io.File;
+import java.io.FileInputStream;
+
+import static org.junit.Assert.*;
+
+public class ElementSuggesterTest
+{
+    @org.junit.Test
+    public void A_suggest_AvecSymboleCommence_DevraitSuggererLesSymbolesDansLOrdre() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        ElementSuggester elementSuggester = new ElementSuggester();
+        int[] suggestions = new int[3];
+
+        assertEquals(3, elementSuggester.suggest("NaC", 3, suggestions));
+        assertEquals(2, elementSuggester.getReplacementStart());
+        assertEquals(6, suggestions[0]);
+        assertEquals(20, suggestions[1]);
+        assertEquals(48, suggestions[2]);
+
+        assertEquals(1, elementSuggester.suggest("NaCl", 4, suggestions));
+        assertEquals(17, suggestions[0]);
+        assertEquals(0, elementSuggester.suggest("NaCl2", 5, suggestions));
+    }
+
+    @org.junit.Test
+    public void B_suggest_AvecHistorique_DevraitSuggererLesElementsUtilises() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        ElementSuggester elementSuggester = new ElementSuggester();
+        int[] suggestions = new int[3];
+        elementSuggester.recordFormula(FormulaEvaluator.INSTANCE.evaluate("CuCl2"));
+        elementSuggester.recordFormula(FormulaEvaluator.INSTANCE.evaluate("Cl2"));
+        elementSuggester.recordFormula(FormulaEvaluator.INSTANCE.evaluate("CO2"));
+        elementSuggester.recordFormula(FormulaEvaluator.INSTANCE.evaluate("Xx"));
+
+        assertEquals(2, elementSuggester.getUsageCount(17));
+        assertEquals(3, elementSuggester.suggest("H2OC", 4, suggestions));
+        assertEquals(17, suggestions[0]);
+        assertEquals(6, suggestions[1]);
+        assertEquals(29, suggestions[2]);
+    }
+
+    @org.junit.Test
+    public void C_suggest_AvecNom_DevraitSuggererLeSymbole() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        PeriodicTable.INSTANCE.loadNames("fr", new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\tableauperiodique.txt")));
+        ElementSuggester elementSuggester = new ElementSuggester();
+        int[] suggestions = new int[3];
+
+        assertEquals(1, elementSuggester.suggest("H2Sodi", 6, suggestions));
+        assertEquals(11, suggestions[0]);
+        assertEquals(2, elementSuggester.getReplacementStart());
+        assertEquals(1, elementSuggester.suggest("H2sodi", 6, suggestions));
+        assertEquals(11, suggestions[0]);
+
+        PeriodicTable.INSTANCE.setLocale("fr");
+        assertEquals(1, elementSuggester.suggest("Etai", 4, suggestions));
+        assertEquals(50, suggestions[0]);
+        PeriodicTable.INSTANCE.setLocale("en");
+        assertEquals(0, elementSuggester.suggest("Etai", 4, suggestions));
+    }
+
+    @org.junit.Test
+    public void D_suggest_AvecLettresAccentuees_DevraitIgnorerLesAccents() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        PeriodicTable.INSTANCE.loadNames("fr", new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\tableauperiodique.txt")));
+        ElementSuggester elementSuggester = new ElementSuggester();
+        int[] suggestions = new int[3];
+
+        PeriodicTable.INSTANCE.setLocale("fr");
+        assertEquals(1, elementSuggester.suggest("hél", 3, suggestions));
+        assertEquals(2, suggestions[0]);
+        assertEquals(1, elementSuggester.suggest("Hydrogè", 7, suggestions));
+        assertEquals(1, suggestions[0]);
+        assertEquals(1, elementSuggester.suggest("H2Oxygè", 7, suggestions));
+        assertEquals(8, suggestions[0]);
+        assertEquals(2, elementSuggester.getReplacementStart());
+        assertEquals(1, elementSuggester.suggest("Étai", 4, suggestions));
+        assertEquals(50, suggestions[0]);
+        PeriodicTable.INSTANCE.setLocale("en");
+    }
+
+    @org.junit.Test
+    public void E_suggest_AvecSymboleDeTroisLettres_DevraitIgnorerLElement() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        ElementSuggester elementSuggester = new ElementSuggester();
+        int[] suggestions = new int[8];
+
+        assertEquals(0, elementSuggester.suggest("Uu", 2, suggestions));
+        assertEquals(0, elementSuggester.suggest("Ununh", 5, suggestions));
+        assertEquals(1, elementSuggester.suggest("Ura", 3, suggestions));
+        assertEquals(92, suggestions[0]);
+    }
+}
@@ -0,0 +1,71 @@
+package com.v41.tp1;
+
+import com.v41.tp1.modele.CachedFormula;
+import com.v41.tp1.modele.FormulaCache;
+import com.v41.tp1.modele.FormulaResult;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.viewcontroler.FormulaEvaluator;
+
+import java.io.File;
+import java.io.FileInputStream;
+
+import static org.junit.Assert.*;
+
+public class FormulaCacheTest
+{
+    private final double PRECISION = 0.005;
+
+    @org.junit.Test
+    public void A_get_AvecFormulesRepetees_DevraitCompterSuccesEtEchecs() throws Exception
+    {
+        FormulaCache formulaCache = new FormulaCache(2);
+        CachedFormula water = new CachedFormula(new FormulaResult("H2O", 2, 1, "Erreur"), null);
+
+        assertNull(formulaCache.get("H2O"));
+        formulaCache.put("H2O", water);
+        assertSame(water, formulaCache.get("H2O"));
+        assertSame(water, formulaCache.get("H2O"));
+        assertEquals(2, formulaCache.getHitCount());
+        assertEquals(1, formulaCache.getMissCount());
+        assertEquals(0, formulaCache.getEvictionCount());
+    }
+
+    @org.junit.Test
+    public void B_put_AvecCachePlein_DevraitRetirerLaFormuleLaMoinsRecemmentUtilisee() throws Exception
+    {
+        FormulaCache formulaCache = new FormulaCache(2);
+        formulaCache.put("H2O", new CachedFormula(new FormulaResult("H2O", 2, 1, "Erreur"), null));
+        formulaCache.put("NaCl", new CachedFormula(new FormulaResult("NaCl", 2, 1, "Erreur"), null));
+        formulaCache.get("H2O");
+        formulaCache.put("C6H12O6", new CachedFormula(new FormulaResult("C6H12O6", 2, 1, "Erreur"), null));
+
+        assertEquals(2, formulaCache.size());
+        assertEquals(1, formulaCache.getEvictionCount());
+        assertNotNull(formulaCache.get("H2O"));
+        assertNull(formulaCache.get("NaCl"));
+
+        formulaCache.clear();
+        assertEquals(0, formulaCache.size());
+        assertNull(formulaCache.get("H2O"));
+    }
+
+    @org.junit.Test
+    public void C_get_AvecNouveauTableauPeriodique_DevraitRetirerLaFormule() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        FormulaCache formulaCache = new FormulaCache(2);
+        FormulaResult water = FormulaEvaluator.INSTANCE.evaluate("H2O");
+        formulaCache.put("H2O", new CachedFormula(water, null));
+
+        assertEquals(PeriodicTable.INSTANCE.getVersion(), water.getTableVersion());
+        assertNotNull(formulaCache.get("H2O"));
+
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        assertNull(formulaCache.get("H2O"));
+        assertEquals(0, formulaCache.size());
+        assertEquals(1, formulaCache.getInvalidationCount());
+        assertEquals(1, formulaCache.getHitCount());
+        assertEquals(1, formulaCache.getMissCount());
+        assertEquals(18.01532, FormulaEvaluator.INSTANCE.evaluate("H2O").getWeight(), PRECISION);
+    }
+}
@@ -0,0 +1,61 @@
+package com.v41.tp1;
+
+import com.v41.tp1.modele.FormulaResult;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.viewcontroler.FormulaEvaluator;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+
+import static org.junit.Assert.*;
+
+public class FormulaCanonicalizerTest
+{
+    @org.junit.Test
+    public void A_getHillFormula_AvecFormulesEquivalentes_DevraitRetournerLaMemeNotation() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+
+        assertEquals("H2O", FormulaEvaluator.INSTANCE.evaluate("H2O").getHillFormula());
+        assertEquals("H2O", FormulaEvaluator.INSTANCE.evaluate("OH2").getHillFormula());
+        assertEquals("H2O", FormulaEvaluator.INSTANCE.evaluate("(H2O)").getHillFormula());
+        assertEquals("C2H6O", FormulaEvaluator.INSTANCE.evaluate("C2H5OH").getHillFormula());
+        assertEquals("CH4", FormulaEvaluator.INSTANCE.evaluate("H4C").getHillFormula());
+        assertEquals("C2H4O2Zn", FormulaEvaluator.INSTANCE.evaluate("Zn(CH2O)2").getHillFormula());
+        assertEquals("ClNa", FormulaEvaluator.INSTANCE.evaluate("NaCl").getHillFormula());
+        assertEquals("BrH", FormulaEvaluator.INSTANCE.evaluate("HBr").getHillFormula());
+        assertEquals("", FormulaEvaluator.INSTANCE.evaluate("Hx").getHillFormula());
+    }
+
+    @org.junit.Test
+    public void B_getFingerprint_AvecFormulesEquivalentes_DevraitRetournerLaMemeEmpreinte() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+
+        FormulaResult water = FormulaEvaluator.INSTANCE.evaluate("H2O");
+        FormulaResult reversedWater = FormulaEvaluator.INSTANCE.evaluate("O(H)2");
+        FormulaResult peroxide = FormulaEvaluator.INSTANCE.evaluate("H2O2");
+        FormulaResult hydroxide = FormulaEvaluator.INSTANCE.evaluate("OH");
+
+        assertEquals(water.getFingerprint(), reversedWater.getFingerprint());
+        assertTrue(water.isSameCompound(reversedWater));
+        assertNotEquals(water.getFingerprint(), peroxide.getFingerprint());
+        assertNotEquals(water.getFingerprint(), hydroxide.getFingerprint());
+        assertFalse(water.isSameCompound(peroxide));
+    }
+
+    @org.junit.Test
+    public void C_getHillFormula_AvecNouveauTableauPeriodique_DevraitUtiliserLeTableauDuResultat() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        FormulaResult water = FormulaEvaluator.INSTANCE.evaluate("OH2");
+
+        String renamedElements = "Oxygen,Ox,8,15.9994\nHydrogen,Hy,1,1.00794";
+        assertTrue(PeriodicTable.INSTANCE.load(new ByteArrayInputStream(renamedElements.getBytes("UTF-8"))).isSuccessful());
+
+        assertEquals("H2O", water.getHillFormula());
+
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+    }
+}
@@ -0,0 +1,114 @@
+package com.v41.tp1;
+
+import com.v41.tp1.modele.FormulaResult;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.viewcontroler.FormulaEvaluator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class FormulaEvaluatorTest
+{
+    private final double PRECISION = 0.005;
+
+    @org.junit.Test
+    public void A_evaluate_AvecFormuleValide_DevraitRetournerPoidsEtComposition() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+
+        FormulaResult result = FormulaEvaluator.INSTANCE.evaluate("CO(CH2OH)2");
+        assertTrue(result.isValid());
+        assertEquals(90.07831, result.getWeight(), PRECISION);
+        assertEquals(3, result.getComposition().size());
+        assertEquals(12.0107, result.getComposition().get("C"), PRECISION);
+        assertEquals(10, result.getTokens().size());
+    }
+
+    @org.junit.Test
+    public void B_evaluate_AvecFormuleInvalide_DevraitRetournerCodeEtPosition() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+
+        FormulaResult result = FormulaEvaluator.INSTANCE.evaluate("NaHu");
+        assertFalse(result.isValid());
+        assertEquals(2, result.getErrorCode());
+        assertEquals(2, result.getErrorPosition());
+
+        result = FormulaEvaluator.INSTANCE.evaluate("H2O)(");
+        assertEquals(7, result.getErrorCode());
+        assertEquals(3, result.getErrorPosition());
+
+        result = FormulaEvaluator.INSTANCE.evaluate("(H2(O");
+        assertEquals(8, result.getErrorCode());
+        assertEquals(0, result.getErrorPosition());
+
+        result = FormulaEvaluator.INSTANCE.evaluate("");
+        assertEquals(0, result.getErrorCode());
+    }
+
+    @org.junit.Test
+    public void C_evaluate_AvecPlusieursThreads_DevraitRetournerLesMemesResultats() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        final String[] formulas = {"H2O", "NaCl", "(NaCl)4", "B(Ar(CF3)2)4", "C12H22O11", "(H2SO4(Be)3(H2O))2"};
+        final double[] weights = {18.01532, 58.4430, 233.7719, 722.6520, 342.2979, 286.2620};
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for(int thread = 0; thread < 8; ++thread)
+        {
+            futures.add(executor.submit(new Callable<Boolean>()
+            {
+                @Override
+                public Boolean call()
+                {
+                    for(int i = 0; i < 2000; ++i)
+                    {
+                        int index = i % formulas.length;
+                        FormulaResult result = FormulaEvaluator.INSTANCE.evaluate(formulas[index]);
+                        if(!result.isValid() || Math.abs(result.getWeight() - weights[index]) > PRECISION)
+                        {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            }));
+        }
+        for(Future<Boolean> future : futures)
+        {
+            assertTrue(future.get());
+        }
+        executor.shutdown();
+    }
+
+    @org.junit.Test
+    public void D_evaluate_AvecFormuleValide_DevraitCompterLesAtomesEtLeursMasses() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+
+        FormulaResult result = FormulaEvaluator.INSTANCE.evaluate("CO(CH2OH)2");
+        assertEquals(3, result.getNbOfPresentElements());
+        assertEquals(1, result.getPresentElement(0));
+        assertEquals(3, result.getAtomCount(6));
+        assertEquals(6, result.getAtomCount(1));
+        assertEquals(3, result.getAtomCount(8));
+        assertEquals(0, result.getAtomCount(11));
+        assertEquals(3 * 12.0107, result.getMass(6), PRECISION);
+        assertEquals(3 * 12.0107 / 90.07831, result.getMassFraction(6), 0.0001);
+        assertEquals(100, result.getPercentComposition(1) + result.getPercentComposition(6)
+                + result.getPercentComposition(8), 0.0001);
+
+        result = FormulaEvaluator.INSTANCE.evaluate("((H2147483647)2147483647)2147483647");
+        assertEquals(10, result.getErrorCode());
+        assertEquals(3, result.getErrorPosition());
+    }
+}
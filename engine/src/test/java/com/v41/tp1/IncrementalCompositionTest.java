@@ -0,0 +1,114 @@
+package com.v41.tp1;
+
+import com.v41.tp1.modele.ChemicalComposition;
+import com.v41.tp1.modele.ElementComposition;
+import com.v41.tp1.modele.EvaluationScratch;
+import com.v41.tp1.modele.IncrementalComposition;
+import com.v41.tp1.modele.MultiplierOverflowException;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.viewcontroler.ChemicalValidator;
+import com.v41.tp1.viewcontroler.ValidationResult;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IncrementalCompositionTest
+{
+    @org.junit.Test
+    public void A_update_AvecModificationDansUnGroupe_DevraitCalculerSeulementLesTokensModifies() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        IncrementalComposition incrementalComposition = new IncrementalComposition();
+        StringBuilder formula = new StringBuilder();
+        for(int i = 0; i < 200; ++i)
+        {
+            formula.append("CH3");
+        }
+
+        incrementalComposition.update(ChemicalValidator.INSTANCE.validate(formula + "(Na(OH)2)3").getTokenStream());
+        assertEquals(200, incrementalComposition.getAtomCount(6));
+        assertEquals(6, incrementalComposition.getAtomCount(8));
+
+        incrementalComposition.update(ChemicalValidator.INSTANCE.validate(formula + "(Na(SH)2)3").getTokenStream());
+        assertEquals(1, incrementalComposition.getNbOfEvaluatedTokens());
+        assertEquals(0, incrementalComposition.getAtomCount(8));
+        assertEquals(6, incrementalComposition.getAtomCount(16));
+        assertEquals(606, incrementalComposition.getAtomCount(1));
+
+        incrementalComposition.update(ChemicalValidator.INSTANCE.validate("CH4" + formula.substring(3) + "(Na(SH)2)3").getTokenStream());
+        assertEquals(2, incrementalComposition.getNbOfEvaluatedTokens());
+        assertEquals(607, incrementalComposition.getAtomCount(1));
+
+        incrementalComposition.update(ChemicalValidator.INSTANCE.validate("CH4" + formula.substring(3) + "(Na(SH)2)").getTokenStream());
+        assertEquals(8, incrementalComposition.getNbOfEvaluatedTokens());
+        assertEquals(603, incrementalComposition.getAtomCount(1));
+        assertEquals(1, incrementalComposition.getAtomCount(11));
+    }
+
+    @org.junit.Test
+    public void B_update_AvecModificationsAleatoires_DevraitDonnerLaMemeCompositionQueCalculateComposition() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        IncrementalComposition incrementalComposition = new IncrementalComposition();
+        ElementComposition expected = new ElementComposition();
+        ElementComposition actual = new ElementComposition();
+        EvaluationScratch scratch = new EvaluationScratch();
+        Random random = new Random(13);
+        String alphabet = "CHONaClSi()()2310";
+        StringBuilder formula = new StringBuilder("C6H12O6");
+
+        for(int edit = 0; edit < 20000; ++edit)
+        {
+            int position = random.nextInt(formula.length() + 1);
+            if(random.nextBoolean() && position < formula.length())
+            {
+                formula.deleteCharAt(position);
+            }
+            else
+            {
+                formula.insert(position, alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            if(formula.length() > 40)
+            {
+                formula.setLength(20);
+            }
+
+            ValidationResult validationResult = ChemicalValidator.INSTANCE.validate(formula.toString());
+            if(validationResult.isValid())
+            {
+                double weight = ChemicalComposition.calculateComposition(validationResult.getTokenStream(), expected, scratch);
+                incrementalComposition.update(validationResult.getTokenStream());
+                assertEquals(formula.toString(), weight, incrementalComposition.fill(actual), 1e-9);
+                assertEquals(formula.toString(), expected.getNbOfPresentElements(), actual.getNbOfPresentElements());
+                for(int i = 0; i < expected.getNbOfPresentElements(); ++i)
+                {
+                    int noElement = expected.getPresentElement(i);
+                    assertEquals(formula.toString(), expected.getAtomCount(noElement), actual.getAtomCount(noElement));
+                }
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void C_update_AvecNombreDAtomesTropGrand_DevraitLancerUneExceptionEtRepartirDeZero() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        IncrementalComposition incrementalComposition = new IncrementalComposition();
+
+        incrementalComposition.update(ChemicalValidator.INSTANCE.validate("((H2147483647)2147483647)").getTokenStream());
+        try
+        {
+            incrementalComposition.update(ChemicalValidator.INSTANCE.validate("((H2147483647)2147483647)2147483647").getTokenStream());
+            fail();
+        }
+        catch(MultiplierOverflowException e)
+        {
+            assertEquals(0, incrementalComposition.size());
+        }
+        incrementalComposition.update(ChemicalValidator.INSTANCE.validate("(H2O)2").getTokenStream());
+        assertEquals(4, incrementalComposition.getAtomCount(1));
+    }
+}
@@ -0,0 +1,68 @@
+package com.v41.tp1;
+
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.viewcontroler.ChemicalValidator;
+import com.v41.tp1.viewcontroler.IncrementalValidator;
+import com.v41.tp1.viewcontroler.ValidationResult;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IncrementalValidatorTest
+{
+    @org.junit.Test
+    public void A_update_AvecFormuleTapeeCaractereParCaractere_DevraitReprendreApresLePrefixe() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        IncrementalValidator incrementalValidator = new IncrementalValidator();
+
+        assertEquals(ValidationResult.NO_ERROR, incrementalValidator.update("C"));
+        assertEquals(ValidationResult.NO_ERROR, incrementalValidator.update("Cl"));
+        assertEquals(0, incrementalValidator.getResumedOffset());
+        assertEquals(8, incrementalValidator.update("Cl(CH3"));
+        assertEquals(2, incrementalValidator.getErrorPosition());
+        assertEquals(ValidationResult.NO_ERROR, incrementalValidator.update("Cl(CH3)2"));
+        assertEquals(5, incrementalValidator.getResumedOffset());
+        assertEquals(ValidationResult.NO_ERROR, incrementalValidator.update("Cl(CH3)23"));
+        assertEquals(7, incrementalValidator.getResumedOffset());
+        assertEquals(7, incrementalValidator.getResult().getTokenStream().size());
+        assertEquals(0, incrementalValidator.update(""));
+    }
+
+    @org.junit.Test
+    public void B_update_AvecModificationsAleatoires_DevraitDonnerLeMemeResultatQueValidate() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        IncrementalValidator incrementalValidator = new IncrementalValidator();
+        Random random = new Random(7);
+        String alphabet = "CHONaClSi()()2310lx";
+        StringBuilder formula = new StringBuilder("C6H12O6");
+
+        for(int edit = 0; edit < 20000; ++edit)
+        {
+            int position = random.nextInt(formula.length() + 1);
+            if(random.nextBoolean() && position < formula.length())
+            {
+                formula.deleteCharAt(position);
+            }
+            else
+            {
+                formula.insert(position, alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            if(formula.length() > 40)
+            {
+                formula.setLength(20);
+            }
+
+            int errorCode = incrementalValidator.update(formula.toString());
+            ValidationResult expected = ChemicalValidator.INSTANCE.validate(formula.toString());
+            assertEquals(formula.toString(), expected.getErrorCode(), errorCode);
+            assertEquals(formula.toString(), expected.getErrorPosition(), incrementalValidator.getErrorPosition());
+            assertEquals(formula.toString(), expected.getTokenStream().size(),
+                    incrementalValidator.getResult().getTokenStream().size());
+        }
+    }
+}
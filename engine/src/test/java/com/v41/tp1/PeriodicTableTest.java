@@ -0,0 +1,168 @@
+package com.v41.tp1;
+
+import com.v41.tp1.modele.ChemicalComposition;
+import com.v41.tp1.modele.ElementComposition;
+import com.v41.tp1.modele.EvaluationScratch;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.modele.PeriodicTableLoadResult;
+import com.v41.tp1.modele.PeriodicTableLoader;
+import com.v41.tp1.modele.PeriodicTableSnapshot;
+import com.v41.tp1.modele.TokenStream;
+import com.v41.tp1.viewcontroler.ChemicalValidator;
+import com.v41.tp1.viewcontroler.IncrementalValidator;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+
+import static org.junit.Assert.*;
+
+public class PeriodicTableTest
+{
+    @org.junit.Test
+    public void A_getAtomicNumber_AvecLettres_DevraitRetournerLaPosition() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+
+        assertEquals(1, PeriodicTable.INSTANCE.getAtomicNumber('H', (char)0));
+        assertEquals(2, PeriodicTable.INSTANCE.getAtomicNumber('H', 'e'));
+        assertEquals(0, PeriodicTable.INSTANCE.getAtomicNumber('J', (char)0));
+        assertEquals(0, PeriodicTable.INSTANCE.getAtomicNumber('X', 'x'));
+        assertEquals(0, PeriodicTable.INSTANCE.getAtomicNumber('h', (char)0));
+        assertEquals(0, PeriodicTable.INSTANCE.getAtomicNumber('C', '1'));
+    }
+
+    @org.junit.Test
+    public void B_getAtomicNumber_AvecTexteEtPosition_DevraitLireUnOuDeuxCaracteres() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+
+        String formula = "NaClCO";
+        int sodium = PeriodicTable.INSTANCE.getAtomicNumber(formula, 0);
+        assertEquals(11, sodium);
+        assertEquals("Na", PeriodicTable.INSTANCE.getSymbol(sodium));
+        assertEquals(2, PeriodicTable.INSTANCE.getSymbolLength(sodium));
+        assertEquals(22.98977, PeriodicTable.INSTANCE.getAtomicWeight(sodium), 0.00001);
+        assertEquals(17, PeriodicTable.INSTANCE.getAtomicNumber(formula, 2));
+        assertEquals(6, PeriodicTable.INSTANCE.getAtomicNumber(formula, 4));
+        assertEquals(8, PeriodicTable.INSTANCE.getAtomicNumber(formula, 5));
+        assertEquals(0, PeriodicTable.INSTANCE.getAtomicNumber(new StringBuilder("Xy"), 0));
+    }
+
+    @org.junit.Test
+    public void C_load_AvecFichierValide_DevraitRetournerLeNombreDElements() throws Exception
+    {
+        PeriodicTableLoadResult result = PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt")));
+
+        assertTrue(result.isSuccessful());
+        assertNull(result.getError());
+        assertEquals(PeriodicTable.INSTANCE.getNbOfElements(), result.getNbOfElements());
+        assertTrue(PeriodicTable.INSTANCE.isLoaded());
+    }
+
+    @org.junit.Test
+    public void D_load_AvecLigneInvalide_DevraitRetournerLErreur() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+
+        PeriodicTableLoadResult result = PeriodicTable.INSTANCE.load(new ByteArrayInputStream("Hydrogen,H".getBytes("UTF-8")));
+
+        assertFalse(result.isSuccessful());
+        assertNotNull(result.getError());
+        assertEquals(1, PeriodicTable.INSTANCE.getAtomicNumber('H', (char)0));
+    }
+
+    @org.junit.Test
+    public void E_load_AvecNouveauFichier_DevraitPublierUneNouvelleVersion() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        PeriodicTableSnapshot snapshot = PeriodicTable.INSTANCE.getSnapshot();
+        long version = PeriodicTable.INSTANCE.getVersion();
+
+        PeriodicTable.INSTANCE.load(new ByteArrayInputStream("Hydrogen,H".getBytes("UTF-8")));
+        assertEquals(version, PeriodicTable.INSTANCE.getVersion());
+        assertSame(snapshot, PeriodicTable.INSTANCE.getSnapshot());
+
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        assertEquals(version + 1, PeriodicTable.INSTANCE.getVersion());
+        assertNotSame(snapshot, PeriodicTable.INSTANCE.getSnapshot());
+        assertEquals(version, snapshot.getVersion());
+        assertEquals(snapshot.getNbOfElements(), PeriodicTable.INSTANCE.getNbOfElements());
+        assertEquals(11, snapshot.getAtomicNumber("Na", 0));
+    }
+
+    @org.junit.Test
+    public void F_setLocale_AvecNomsFrancais_DevraitRemplacerSeulementLesNoms() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        PeriodicTableSnapshot snapshot = PeriodicTable.INSTANCE.getSnapshot();
+
+        PeriodicTableLoadResult result = PeriodicTable.INSTANCE.loadNames("fr",
+                new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\tableauperiodique.txt")));
+        assertTrue(result.isSuccessful());
+        assertEquals(112, result.getNbOfElements());
+
+        assertTrue(PeriodicTable.INSTANCE.setLocale("fr"));
+        assertEquals("Hydrogène", PeriodicTable.INSTANCE.getName(1));
+        assertEquals("Polonium", PeriodicTable.INSTANCE.getName(84));
+        assertEquals("Ununoctium", PeriodicTable.INSTANCE.getName(118));
+        assertEquals(110, PeriodicTable.INSTANCE.getAtomicNumber('D', 's'));
+        assertEquals(14.0067, PeriodicTable.INSTANCE.getAtomicWeight(7), 0.00001);
+        assertSame(snapshot, PeriodicTable.INSTANCE.getSnapshot());
+
+        assertFalse(PeriodicTable.INSTANCE.setLocale("en"));
+        assertEquals("Hydrogen", PeriodicTable.INSTANCE.getName(1));
+        assertNull(PeriodicTable.INSTANCE.getName(119));
+    }
+
+    @org.junit.Test
+    public void G_awaitNames_AvecFichierInvalide_DevraitRetournerLErreur() throws Exception
+    {
+        PeriodicTableLoader.INSTANCE.startNames("xx", new ByteArrayInputStream("Hydrogène,H".getBytes("UTF-8")));
+
+        PeriodicTableLoadResult result = PeriodicTableLoader.INSTANCE.awaitNames("xx");
+        assertFalse(result.isSuccessful());
+        assertNotNull(result.getError());
+        assertNull(PeriodicTableLoader.INSTANCE.awaitNames("yy"));
+    }
+
+    @org.junit.Test
+    public void H_calculateComposition_AvecNouvelleVersion_DevraitGarderLaVersionDesTokens() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        PeriodicTableSnapshot snapshot = PeriodicTable.INSTANCE.getSnapshot();
+        TokenStream tokens = ChemicalValidator.INSTANCE.validate("H2O").getTokenStream();
+        IncrementalValidator incrementalValidator = new IncrementalValidator();
+        incrementalValidator.update("H2O", 0);
+        assertSame(snapshot, tokens.getPeriodicTable());
+
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        ElementComposition elementComposition = new ElementComposition();
+        ChemicalComposition.calculateComposition(tokens, elementComposition, new EvaluationScratch());
+        assertEquals(snapshot.getVersion(), elementComposition.getTableVersion());
+
+        incrementalValidator.update("H2O2", 3);
+        assertTrue(incrementalValidator.isValid());
+        assertEquals(0, incrementalValidator.getResumedOffset());
+        assertSame(PeriodicTable.INSTANCE.getSnapshot(), incrementalValidator.getResult().getTokenStream().getPeriodicTable());
+    }
+
+    @org.junit.Test
+    @SuppressWarnings("deprecation")
+    public void I_loadPeriodicTable_AvecLigneInvalide_DevraitLancerLErreur() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        long version = PeriodicTable.INSTANCE.getVersion();
+
+        try
+        {
+            PeriodicTable.INSTANCE.loadPeriodicTable(new ByteArrayInputStream("Hydrogen,H".getBytes("UTF-8")));
+            fail();
+        }
+        catch(IllegalArgumentException e)
+        {
+            assertNotNull(e.getCause());
+        }
+        assertEquals(version, PeriodicTable.INSTANCE.getVersion());
+    }
+}
@@ -0,0 +1,110 @@
+package com.v41.tp1;
+
+import com.v41.tp1.modele.ChemicalComposition;
+import com.v41.tp1.modele.FormulaResult;
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.viewcontroler.ChemicalValidator;
+import com.v41.tp1.viewcontroler.FormulaEvaluator;
+import com.v41.tp1.viewcontroler.SinglePassEvaluator;
+import com.v41.tp1.viewcontroler.ValidationResult;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class SinglePassEvaluatorTest
+{
+    private final double PRECISION = 0.005;
+
+    @org.junit.Test
+    public void A_evaluate_AvecFormulesValides_DevraitRetournerLeMemePoidsQueChemicalComposition() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        SinglePassEvaluator evaluator = new SinglePassEvaluator();
+        String[] formulas = {"H", "H2O", "NaCl", "(NaCl)4", "CO(CH2OH)2", "(CH3)2CO", "NaCl(O3H5)2H4",
+                "(H(CN)4)5", "B(Ar(CF3)2)4", "(Al2Si2O5(OH)4)", "(Ca4Si2O6(CO3)(OHF))2",
+                "(H2SO4(Be)3(H2O))2", "((MgFe)7Si8(OH)22)", "C11H23COOH", "((((H)2)3)4)5"};
+
+        for(String formula : formulas)
+        {
+            ValidationResult validation = ChemicalValidator.INSTANCE.validate(formula);
+            double expectedWeight = ChemicalComposition.calculateAtomicWeight(validation.getTokens(), new TreeMap<String, Double>());
+
+            assertEquals(formula, FormulaResult.NO_ERROR, evaluator.evaluate(formula));
+            assertEquals(formula, expectedWeight, evaluator.getWeight(), PRECISION);
+        }
+    }
+
+    @org.junit.Test
+    public void B_evaluate_AvecFormule_DevraitCompterLesAtomesDeChaqueElement() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        SinglePassEvaluator evaluator = new SinglePassEvaluator();
+
+        assertEquals(FormulaResult.NO_ERROR, evaluator.evaluate("(Ca4Si2O6(CO3)(OHF))2"));
+        assertEquals(6, evaluator.getNbOfPresentElements());
+        assertEquals(8, evaluator.getAtomCount(20));
+        assertEquals(4, evaluator.getAtomCount(14));
+        assertEquals(2, evaluator.getAtomCount(6));
+        assertEquals(20, evaluator.getAtomCount(8));
+        assertEquals(2, evaluator.getAtomCount(1));
+        assertEquals(2, evaluator.getAtomCount(9));
+        assertEquals(0, evaluator.getAtomCount(11));
+
+        assertEquals(FormulaResult.NO_ERROR, evaluator.evaluate("H2147483647"));
+        assertEquals(2147483647L, evaluator.getAtomCount(1));
+        assertEquals(0, evaluator.getAtomCount(20));
+    }
+
+    @org.junit.Test
+    public void C_evaluate_AvecFormulesAleatoires_DevraitRetournerLesMemesErreursQueFormulaEvaluator() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        SinglePassEvaluator evaluator = new SinglePassEvaluator();
+        // The multipliers of several digits make some atom counts overflow.
+        String[] alphabet = {"H", "C", "O", "a", "(", ")", "(", ")", "0", "2", " ", "+", "1000000000",
+                ")1000000000", "(H1000000000)2147483647", "(H1000000000)1000000000"};
+        Random random = new Random(42);
+        int nbOfOverflows = 0;
+
+        for(int i = 0; i < 20000; ++i)
+        {
+            StringBuilder formula = new StringBuilder();
+            int length = random.nextInt(12);
+            for(int j = 0; j < length; ++j)
+            {
+                formula.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            FormulaResult expected = FormulaEvaluator.INSTANCE.evaluate(formula.toString());
+            int errorCode = evaluator.evaluate(formula);
+
+            assertEquals(formula.toString(), expected.getErrorCode(), errorCode);
+            if(!expected.isValid())
+            {
+                assertEquals(formula.toString(), expected.getErrorPosition(), evaluator.getErrorPosition());
+            }
+            if(errorCode == 10 && ChemicalValidator.INSTANCE.validate(formula.toString()).isValid())
+            {
+                ++nbOfOverflows;
+            }
+        }
+        assertTrue(nbOfOverflows > 0);
+    }
+
+    @org.junit.Test
+    public void D_evaluate_AvecDepassementEtErreur_DevraitRetournerLErreurDeValidation() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+        SinglePassEvaluator evaluator = new SinglePassEvaluator();
+
+        assertEquals(9, evaluator.evaluate("((H1000000000)1000000000)1000000000x"));
+        assertEquals(35, evaluator.getErrorPosition());
+        assertEquals(7, evaluator.evaluate("((H1000000000)1000000000)1000000000)"));
+        assertEquals(35, evaluator.getErrorPosition());
+        assertEquals(10, evaluator.evaluate("H2((O1000000000)1000000000)1000000000"));
+        assertEquals(5, evaluator.getErrorPosition());
+    }
+}
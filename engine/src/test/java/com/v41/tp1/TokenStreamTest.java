@@ -0,0 +1,52 @@
+package com.v41.tp1;
+
+import com.v41.tp1.modele.PeriodicTable;
+import com.v41.tp1.modele.Token;
+import com.v41.tp1.modele.TokenStream;
+import com.v41.tp1.modele.TokenType;
+import com.v41.tp1.viewcontroler.ChemicalValidator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class TokenStreamTest
+{
+    @org.junit.Test
+    public void A_validate_AvecFormuleValide_DevraitEncoderTypeValeurEtPosition() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+
+        TokenStream tokenStream = ChemicalValidator.INSTANCE.validate("Na(Cl2)2147483647").getTokenStream();
+        assertEquals(6, tokenStream.size());
+        assertEquals(TokenStream.CHEMICAL_ELEMENT_SYMBOL, TokenStream.getType(tokenStream.get(0)));
+        assertEquals(11, TokenStream.getValue(tokenStream.get(0)));
+        assertEquals(TokenStream.OPENING_PARENTHESIS, TokenStream.getValue(tokenStream.get(1)));
+        assertEquals(2, TokenStream.getPosition(tokenStream.get(1)));
+        assertEquals(17, TokenStream.getValue(tokenStream.get(2)));
+        assertEquals(TokenType.NUMBER, tokenStream.getTokenType(3));
+        assertEquals(TokenStream.CLOSING_PARENTHESIS, TokenStream.getValue(tokenStream.get(4)));
+        assertEquals(Integer.MAX_VALUE, TokenStream.getValue(tokenStream.get(5)));
+        assertEquals(7, TokenStream.getPosition(tokenStream.get(5)));
+    }
+
+    @org.junit.Test
+    public void B_toTokens_AvecFormuleValide_DevraitRetrouverLesMemesTokens() throws Exception
+    {
+        assertTrue(PeriodicTable.INSTANCE.load(new FileInputStream(new File(".\\app\\src\\main\\res\\raw\\PeriodicTable.txt"))).isSuccessful());
+
+        ArrayList<Token> tokens = ChemicalValidator.INSTANCE.validate("(Ca4Si2O6(CO3)(OHF))2").getTokenStream().toTokens();
+        StringBuilder formula = new StringBuilder();
+        for(Token token : tokens)
+        {
+            formula.append(token.getTokenContent());
+        }
+        assertEquals("(Ca4Si2O6(CO3)(OHF))2", formula.toString());
+
+        TokenStream tokenStream = TokenStream.fromTokens(tokens);
+        assertEquals(tokens.size(), tokenStream.size());
+        assertEquals(20, TokenStream.getPosition(tokenStream.get(tokenStream.size() - 1)));
+    }
+}